@@ -1,6 +1,7 @@
 plugins {
     id("java")
     application // 👉 Damit du deine App direkt mit Gradle starten kannst
+    id("me.champeau.jmh") version "0.7.3" // 👉 Benchmarks unter src/jmh, Start mit ./gradlew jmh
 }
 
 group = "com.github.danielnickel94.todo"
@@ -19,6 +20,26 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// 👉 Benchmarks: ./gradlew jmh (Filter z. B. mit -Pjmh.includes=search)
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc") // Allokationsrate pro Operation (gc.alloc.rate.norm)
+    resultFormat.set("JSON")
+    (findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
+// 👉 Lasttest für den HTTP-Server: ./gradlew loadTest (Optionen z. B. -Pargs="--clients=128 --seconds=30")
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Startet TodoHttpServer lokal und misst Durchsatz und p99-Latenz."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.github.danielnickel94.todo.HttpLoadTest")
+    (findProperty("args") as String?)?.let { args(it.split(" ")) }
+}
+
 // 👉 Sag Gradle, welche Klasse dein "main" enthält
 application {
     mainClass.set("com.github.danielnickel94.todo.Main")
@@ -45,8 +66,50 @@ tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
 
+// 👉 Schneller Start mit AOT-Cache (JDK 25, JEP 483/514):
+//    ./gradlew aotCache     – Trainingslauf mit Beispieldaten, schreibt build/aot/todo.aot
+//    ./gradlew startupTime  – Zeit vom Prozessstart bis zum ersten Menü (mit Cache, falls vorhanden)
+//    ./gradlew run          – benutzt den Cache automatisch, sobald er existiert
+// Der Cache gilt nur für genau diesen Klassenpfad (Jar statt Klassenordner) und dieselbe JDK-Version.
+val aotCache = layout.buildDirectory.file("aot/todo.aot")
+val aotHome = layout.buildDirectory.dir("aot/home")
+val aotCacheIfPresent = CommandLineArgumentProvider {
+    aotCache.get().asFile.let { if (it.exists()) listOf("-XX:AOTCache=$it") else emptyList() }
+}
+
+fun JavaExec.sampleRun(input: String) {
+    classpath = files(tasks.jar, configurations.runtimeClasspath)
+    mainClass.set(application.mainClass)
+    environment("APPDATA", aotHome.get().asFile.absolutePath) // Beispieldaten statt der echten todos.csv
+    standardInput = input.byteInputStream()
+    doFirst {
+        val dir = aotHome.get().dir("ToDoApp").asFile
+        dir.mkdirs()
+        dir.resolve("todos.csv").writeText((1..5000).joinToString("\n", postfix = "\n") { "$it;${it % 5 == 0};Beispielaufgabe $it" })
+    }
+}
+
+tasks.register<JavaExec>("aotCache") {
+    group = "build"
+    description = "Erzeugt den AOT-Cache aus einem Trainingslauf (Hinzufügen, Erledigen, Anzeigen, Statistik, Speichern)."
+    // Hinzufügen „Training“, Erledigen #1, Anzeigen → Alphabetisch, Statistik, Speichern unter training.csv, Beenden
+    sampleRun("2\nTraining\n5\n1\n1\n4\n8\n6\ntraining.csv\n9\n")
+    jvmArgs("-XX:AOTCacheOutput=${aotCache.get().asFile}")
+    outputs.file(aotCache)
+}
+
+tasks.register<JavaExec>("startupTime") {
+    group = "verification"
+    description = "Misst die Zeit bis zum ersten Menü; vor und nach ./gradlew aotCache vergleichen."
+    sampleRun("9\n")
+    systemProperty("todo.startupTrace", "true")
+    jvmArgumentProviders.add(aotCacheIfPresent)
+}
+
 tasks.named<JavaExec>("run") {
     standardInput = System.`in`      // <— wichtig für Scanner/nextLine()
+    classpath = files(tasks.jar, configurations.runtimeClasspath) // wie beim Trainingslauf, sonst greift der Cache nicht
+    jvmArgumentProviders.add(aotCacheIfPresent)
     jvmArgs(
         "-Dfile.encoding=UTF-8",
         "-Dsun.stdout.encoding=UTF-8",
@@ -0,0 +1,37 @@
+package com.github.danielnickel94.todo;
+
+import java.util.SplittableRandom;
+
+/** Realistische, deutschsprachige Testtexte (mit Umlauten, ß und Emoji) für die Benchmarks. */
+final class BenchmarkData {
+
+    private static final String[] VERBS = {
+            "Einkaufen", "Müll rausbringen", "Wäsche waschen", "Straße kehren", "Arzttermin vereinbaren",
+            "Geschenk für Oma besorgen 🎁", "Steuererklärung abgeben", "Fahrrad reparieren", "Blumen gießen",
+            "Überweisung prüfen", "Küche aufräumen", "Großeinkauf planen", "Zähne putzen lassen 🦷"
+    };
+    private static final String[] DETAILS = {
+            "bis Freitag", "für die Schwiegereltern", "im Keller", "vor dem Urlaub ✈", "gemeinsam mit Jörg",
+            "im Büro", "nicht vergessen!", "über die Bank", "am Wochenende", "sofort"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static String[] texts(int count, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        String[] out = new String[count];
+        for (int i = 0; i < count; i++) {
+            out[i] = VERBS[rnd.nextInt(VERBS.length)] + " " + DETAILS[rnd.nextInt(DETAILS.length)] + " #" + i;
+        }
+        return out;
+    }
+
+    /** Service mit {@code size} Todos, jedes fünfte erledigt. */
+    static TodoService filledService(int size) {
+        TodoService service = new TodoService();
+        service.addAll(java.util.Arrays.asList(texts(size, 42)));
+        for (int id = 5; id <= size; id += 5) service.markDone(id);
+        return service;
+    }
+}
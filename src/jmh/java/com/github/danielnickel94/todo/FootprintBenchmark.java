@@ -0,0 +1,81 @@
+package com.github.danielnickel94.todo;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Belegter Heap pro Todo, mit und ohne {@code --compact}. Gemessen wird der nach einem GC noch belegte
+ * Heap vor und nach dem Befüllen; das Ergebnis steht in der Spalte {@code bytesPerTodo}, die Zeit ist
+ * nur Nebenprodukt. Jeder Text ist eine eigene String-Instanz, wie nach dem Laden einer Datei.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FootprintBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    /** Anzahl verschiedener Texte; 0 = alle verschieden. */
+    @Param({"8", "0"})
+    public int distinctTexts;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long bytesPerTodo;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerTodo = 0;
+        }
+    }
+
+    private String[] texts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        texts = BenchmarkData.texts(distinctTexts == 0 ? size : distinctTexts, 42);
+    }
+
+    @Benchmark
+    public int fill(Footprint footprint) {
+        List<String> input = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) input.add(new String(texts[i % texts.length]));
+        long before = usedHeap();
+        TodoService service = new TodoService(compact);
+        service.addAll(input);
+        input = null; // Kopien, die der Pool verworfen hat, sollen nicht mitzählen
+        long after = usedHeap();
+        footprint.bytesPerTodo = (after - before) / size;
+        int count = service.list().size();
+        Reference.reachabilityFence(service);
+        return count;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) { // ein einzelner GC räumt nicht immer alles weg
+            System.gc();
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.danielnickel94.todo;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lasttest für {@link TodoHttpServer}: startet einen Server mit {@code --todos} Einträgen (oder
+ * nutzt {@code --url}) und lässt {@code --clients} virtuelle Threads {@code --seconds} lang
+ * Anfragen stellen, 80 % Suchen/Listen, 20 % Änderungen. Ausgabe: Durchsatz und Latenzen.
+ * <p>
+ * Start: {@code ./gradlew loadTest -Pargs="--clients=128 --seconds=20"}
+ */
+public final class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = option(args, "clients", 64);
+        int seconds = option(args, "seconds", 10);
+        int todos = option(args, "todos", 100_000);
+        String url = null;
+        for (String a : args) if (a.startsWith("--url=")) url = a.substring("--url=".length());
+
+        TodoHttpServer server = null;
+        if (url == null) {
+            ConcurrentTodoService service = new ConcurrentTodoService();
+            service.addAll(List.of(BenchmarkData.texts(todos, 42)));
+            server = new TodoHttpServer(service, () -> { },
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).start();
+            url = "http://localhost:" + server.port() + "/todos";
+            System.out.printf("Server mit %d Todos auf %s%n", todos, url);
+        }
+        try {
+            run(URI.create(url), clients, Duration.ofSeconds(seconds), todos);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static void run(URI base, int clients, Duration duration, int knownIds) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String[] words = {"einkaufen", "müll", "wäsche", "straße", "geschenk", "büro", "urlaub"};
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicInteger nextId = new AtomicInteger(knownIds);
+
+        // Aufwärmen, damit der JIT nicht in die Messung fällt
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        load(http, base, words, clients, warmupEnd, new LatencyHistogram(), new LongAdder(), nextId);
+
+        long start = System.nanoTime();
+        load(http, base, words, clients, start + duration.toNanos(), latency, errors, nextId);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram.Snapshot s = latency.snapshot();
+        System.out.printf("%d Clients, %.1f s: %d Anfragen, %.0f/s, Fehler: %d%n",
+                clients, elapsed, s.count(), s.count() / elapsed, errors.sum());
+        System.out.printf("Latenz ms: p50 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                s.percentile(50) / 1e6, s.percentile(99) / 1e6, s.percentile(99.9) / 1e6, s.maxNanos() / 1e6);
+    }
+
+    private static void load(HttpClient http, URI base, String[] words, int clients, long end,
+                             LatencyHistogram latency, LongAdder errors, AtomicInteger nextId) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            long seed = c;
+            threads.add(Thread.ofVirtual().start(() -> {
+                SplittableRandom rnd = new SplittableRandom(seed);
+                while (System.nanoTime() < end) {
+                    HttpRequest request = request(base, words, rnd, nextId);
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400 && response.statusCode() != 404) errors.increment();
+                    } catch (IOException e) {
+                        errors.increment();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    latency.record(System.nanoTime() - t0);
+                }
+            }));
+        }
+        for (Thread t : threads) t.join();
+    }
+
+    private static HttpRequest request(URI base, String[] words, SplittableRandom rnd, AtomicInteger nextId) {
+        int dice = rnd.nextInt(100);
+        if (dice < 60) {
+            String q = URLEncoder.encode(words[rnd.nextInt(words.length)], StandardCharsets.UTF_8);
+            return HttpRequest.newBuilder(URI.create(base + "?q=" + q + "&limit=20")).GET().build();
+        }
+        if (dice < 80) {
+            return HttpRequest.newBuilder(URI.create(base + "?status=open&sort=asc&limit=50")).GET().build();
+        }
+        if (dice < 90) {
+            nextId.incrementAndGet();
+            return HttpRequest.newBuilder(base)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"text\":\"Lasttest " + rnd.nextInt() + "\"}"))
+                    .build();
+        }
+        int id = 1 + rnd.nextInt(nextId.get());
+        return HttpRequest.newBuilder(URI.create(base + "/" + id + "/done"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static int option(String[] args, String name, int fallback) {
+        for (String a : args) {
+            if (a.startsWith("--" + name + "=")) return Integer.parseInt(a.substring(name.length() + 3));
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.danielnickel94.todo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/** Speichern und Laden je Dateiformat (Endung bestimmt das Format). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"csv", "tdb", "tdz"})
+    public String format;
+
+    private Path dir;
+    private String file;
+    private TodoService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("todo-bench");
+        file = dir.resolve("todos." + format).toString();
+        service = BenchmarkData.filledService(size);
+        if (!service.save(file)) throw new IllegalStateException("Vorbereitung fehlgeschlagen");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean save() {
+        return service.save(file);
+    }
+
+    @Benchmark
+    public TodoService load() {
+        TodoService fresh = new TodoService();
+        if (!fresh.load(file)) throw new IllegalStateException("Laden fehlgeschlagen");
+        return fresh;
+    }
+}
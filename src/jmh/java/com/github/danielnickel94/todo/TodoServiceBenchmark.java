@@ -0,0 +1,120 @@
+package com.github.danielnickel94.todo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot Paths von {@link TodoService} bei wachsender Größe.
+ * Schreibende Benchmarks laufen als Stapel von {@value #BATCH} Operationen auf einem je Iteration frisch
+ * befüllten Service: so misst {@code add} reines Anhängen, {@code remove} reines Entfernen und
+ * {@code markDone} nur offene Todos, ohne dass die Größe über die Messung driftet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TodoServiceBenchmark {
+
+    static final int BATCH = 500; // < kleinste Größe × 4/5, damit remove/markDone nie ins Leere greifen
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private TodoService service;
+    private String[] extraTexts;
+    private int[] openIds;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        service = BenchmarkData.filledService(size);
+        extraTexts = BenchmarkData.texts(BATCH, 7);
+        openIds = service.listOpen().stream().mapToInt(Todo::getId).toArray();
+        cursor = 0;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    public int add() {
+        return service.add(extraTexts[cursor++]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    public boolean remove() {
+        return service.remove(openIds[cursor++]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    public boolean markDone() {
+        return service.markDone(openIds[cursor++]);
+    }
+
+    @Benchmark
+    public List<Todo> searchSelective() {
+        return service.search("Steuererklärung abgeben vor");
+    }
+
+    @Benchmark
+    public List<Todo> searchBroad() {
+        return service.search("müll");
+    }
+
+    @Benchmark
+    public List<Todo> searchShortQuery() {
+        return service.search("ß");
+    }
+
+    @Benchmark
+    public List<Todo> searchBroadFirst20() {
+        return service.searchStream("müll").limit(20).toList();
+    }
+
+    @Benchmark
+    public List<Todo> queryOpenContainingSortedDesc50() {
+        return service.query(TodoQuery.all().open().containing("müll").sortedByText(false).limit(50));
+    }
+
+    @Benchmark
+    public List<Todo> pageMiddle() {
+        return service.page(size / 2, 20);
+    }
+
+    @Benchmark
+    public List<Todo> sortByTextFirstPage() {
+        return service.sortByText(true, 0, 20);
+    }
+
+    @Benchmark
+    public List<Todo> sortByTextFull() {
+        return service.sortByText(false);
+    }
+
+    @Benchmark
+    public List<Todo> listOpen() {
+        return service.listOpen();
+    }
+
+    @Benchmark
+    public List<Todo> list() {
+        return service.list();
+    }
+}
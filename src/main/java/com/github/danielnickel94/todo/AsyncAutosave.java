@@ -0,0 +1,146 @@
+package com.github.danielnickel94.todo;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Speichert im Hintergrund statt im UI-Thread.
+ * <p>
+ * {@link #changed()} merkt sich nur den aktuellen (unveränderlichen) Stand. Ein einzelner virtueller
+ * Thread wartet die Entprellzeit ab und schreibt dann nur den neuesten Stand – eine Serie von
+ * Änderungen wird so zu einem Schreibvorgang zusammengefasst. Geschrieben wird atomar
+ * (siehe {@link TodoService#write}). {@link #flush()} und {@link #close()} warten, bis alles
+ * bisher Gemeldete auf der Platte ist.
+ */
+public final class AsyncAutosave implements Autosave {
+
+    static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+    private final TodoService service;
+    private final String fileName;
+    private final long debounceNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+    private final Condition written = lock.newCondition();
+
+    // alles unter lock
+    private TodoService.State pending;
+    private long requestedSeq;
+    private long writtenSeq;
+    private boolean urgent;
+    private boolean closed;
+    private boolean lastOk = true;
+
+    private final Thread writer;
+
+    public AsyncAutosave(TodoService service, String fileName) {
+        this(service, fileName, DEFAULT_DEBOUNCE);
+    }
+
+    public AsyncAutosave(TodoService service, String fileName, Duration debounce) {
+        this.service = service;
+        this.fileName = fileName;
+        this.debounceNanos = debounce.toNanos();
+        this.writer = Thread.ofVirtual().name("todo-autosave").start(this::writeLoop);
+    }
+
+    @Override
+    public void changed() {
+        TodoService.State state = service.state(); // O(1), im Thread des Aufrufers
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Autosave ist bereits geschlossen.");
+            pending = state;
+            requestedSeq++;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Schreibt Ausstehendes sofort und wartet darauf; {@code false}, wenn der letzte Schreibversuch scheiterte. */
+    @Override
+    public boolean flush() {
+        lock.lock();
+        try {
+            long target = requestedSeq;
+            if (writtenSeq < target) {
+                urgent = true;
+                wakeUp.signal();
+            }
+            while (writtenSeq < target) written.awaitUninterruptibly();
+            return lastOk;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        lock.lock();
+        try {
+            closed = true;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            TodoService.State state;
+            long seq;
+            lock.lock();
+            try {
+                while (pending == null && !closed) wakeUp.awaitUninterruptibly();
+                if (pending == null) return; // geschlossen und nichts mehr offen
+                // entprellen: weitere Änderungen im Zeitfenster landen im selben Schreibvorgang
+                long remaining = debounceNanos;
+                while (remaining > 0 && !urgent && !closed) {
+                    try {
+                        remaining = wakeUp.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                state = pending;
+                seq = requestedSeq;
+                pending = null;
+                urgent = false;
+            } finally {
+                lock.unlock();
+            }
+
+            boolean ok = write(state);
+
+            lock.lock();
+            try {
+                writtenSeq = seq;
+                lastOk = ok;
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Fehler meldet der Service an seine Persistenz-Listener. Auch eine unerwartete Exception zählt
+     * nur als gescheiterter Versuch: stürbe der Thread, warteten {@link #flush()} und {@link #close()} ewig.
+     */
+    private boolean write(TodoService.State state) {
+        try {
+            return service.save(fileName, state);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.danielnickel94.todo;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reicht Ergebnisse über eine beschränkte Warteschlange an einen langsamen Empfänger weiter
+ * (Konsole, Logdatei). Ist die Warteschlange voll, wird das Ergebnis verworfen und gezählt,
+ * statt den speichernden Thread warten zu lassen.
+ */
+public final class AsyncPersistenceSink implements PersistenceListener, AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 256;
+    private static final PersistenceResult CLOSE = new PersistenceResult(null, null, 0, 0, Duration.ZERO, null);
+
+    private final BlockingQueue<PersistenceResult> queue;
+    private final PersistenceListener target;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread worker;
+    // Prüfen und Einreihen unter der Lesesperre, Schließen unter der Schreibsperre: so steht nichts
+    // Angenommenes hinter CLOSE. Sender untereinander warten nicht, nur auf ein laufendes close().
+    private final ReentrantReadWriteLock closing = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    public AsyncPersistenceSink(PersistenceListener target) {
+        this(target, DEFAULT_CAPACITY);
+    }
+
+    public AsyncPersistenceSink(PersistenceListener target, int capacity) {
+        this.target = target;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = Thread.ofVirtual().name("todo-persistence-sink").start(this::deliverLoop);
+    }
+
+    @Override
+    public void persisted(PersistenceResult result) {
+        Lock lock = closing.readLock();
+        lock.lock();
+        try {
+            if (closed || !queue.offer(result)) dropped.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Anzahl verworfener Ergebnisse (volle Warteschlange oder bereits geschlossen). */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /** Liefert noch Wartendes aus und beendet dann den Hintergrund-Thread. */
+    @Override
+    public void close() {
+        Lock lock = closing.writeLock();
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            queue.put(CLOSE); // hinter allem bisher Angenommenen
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliverLoop() {
+        while (true) {
+            PersistenceResult r;
+            try {
+                r = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (r == CLOSE) return;
+            try {
+                target.persisted(r);
+            } catch (RuntimeException e) {
+                // ein fehlerhafter Empfänger darf die Auslieferung nicht beenden
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.danielnickel94.todo;
+
+/** Wie die UI Änderungen dauerhaft macht; wird nach jeder erfolgreichen Änderung aufgerufen. */
+@FunctionalInterface
+public interface Autosave extends AutoCloseable {
+
+    void changed();
+
+    /** Wartet, bis alle bisher gemeldeten Änderungen geschrieben sind. */
+    default boolean flush() {
+        return true;
+    }
+
+    @Override
+    default void close() {
+        flush();
+    }
+}
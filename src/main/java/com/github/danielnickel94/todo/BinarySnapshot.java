@@ -0,0 +1,133 @@
+package com.github.danielnickel94.todo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binäres Snapshot-Format ({@code .tdb}), wird per Memory-Map gelesen.
+ * <pre>
+ * Header (16 Byte):   magic "TDB1" | version int | count int | nextId int
+ * Tabelle (24 Byte/Eintrag): id int | flags int | textOffset int | textLength int | due long
+ *                     flags: Bit 0 = erledigt, Bit 1 = hat Termin, Bits 8–11 = Priorität;
+ *                     due: Fälligkeit in ms seit 1970 (nur mit Bit 1)
+ * Text-Heap:          UTF-8-Bytes aller Texte hintereinander, Offsets relativ zum Heap-Anfang
+ * </pre>
+ * Alle Zahlen big-endian. Version 1 (16 Byte je Eintrag, ohne Termin und Priorität) wird weiter gelesen.
+ */
+final class BinarySnapshot {
+
+    static final String EXTENSION = ".tdb";
+
+    private static final int MAGIC = 0x54444231; // "TDB1"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 24;
+    private static final int ENTRY_BYTES_V1 = 16;
+    private static final int FLAG_DONE = 1;
+    private static final int FLAG_DUE = 2;
+    private static final int PRIORITY_SHIFT = 8;
+
+    private BinarySnapshot() {
+    }
+
+    static boolean handles(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(EXTENSION);
+    }
+
+    static void write(Path target, List<Todo> list, int nextId) throws IOException {
+        Todo[] todos = list.toArray(new Todo[0]);
+        byte[][] texts = new byte[todos.length][];
+        long heap = 0;
+        for (int i = 0; i < texts.length; i++) {
+            String text = todos[i].getText();
+            texts[i] = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+            heap += texts[i].length;
+        }
+        if (heap > Integer.MAX_VALUE) throw new IOException("Texte zu groß für das Binärformat.");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(target), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(todos.length);
+            out.writeInt(nextId);
+            int offset = 0;
+            for (int i = 0; i < texts.length; i++) {
+                Todo t = todos[i];
+                out.writeInt(t.getId());
+                out.writeInt(flags(t));
+                out.writeInt(offset);
+                out.writeInt(texts[i].length);
+                out.writeLong(t.getDue() == null ? 0 : t.getDue().toEpochMilli());
+                offset += texts[i].length;
+            }
+            for (byte[] text : texts) out.write(text);
+        }
+    }
+
+    static int flags(Todo t) {
+        return (t.isDone() ? FLAG_DONE : 0) | (t.getDue() != null ? FLAG_DUE : 0) | t.getPriority() << PRIORITY_SHIFT;
+    }
+
+    static Todo todo(int id, String text, int flags, long due) {
+        int priority = (flags >>> PRIORITY_SHIFT) & 0xF;
+        if (priority > Todo.MAX_PRIORITY) throw new IllegalArgumentException("Ungültige Priorität " + priority + " bei ID " + id + ".");
+        return new Todo(id, text, (flags & FLAG_DONE) != 0,
+                (flags & FLAG_DUE) != 0 ? Instant.ofEpochMilli(due) : null, priority);
+    }
+
+    /** Liest und prüft den Snapshot; Strukturfehler werden als {@link IOException} gemeldet. */
+    static TodoService.State read(Path source) throws IOException {
+        try (FileChannel ch = FileChannel.open(source, StandardOpenOption.READ)) {
+            long fileSize = ch.size();
+            if (fileSize < HEADER_BYTES) throw new IOException("Datei zu kurz für einen Snapshot.");
+            if (fileSize > Integer.MAX_VALUE) throw new IOException("Snapshot zu groß.");
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+            if (buf.getInt(0) != MAGIC) throw new IOException("Kein Todo-Snapshot (Magic falsch).");
+            int version = buf.getInt(4);
+            if (version != VERSION && version != 1) throw new IOException("Nicht unterstützte Snapshot-Version: " + version);
+            int entryBytes = version == 1 ? ENTRY_BYTES_V1 : ENTRY_BYTES;
+            int count = buf.getInt(8);
+            int nextId = buf.getInt(12);
+            long heapStart = HEADER_BYTES + (long) count * entryBytes;
+            if (count < 0 || heapStart > fileSize) throw new IOException("Snapshot-Tabelle beschädigt.");
+            int heapSize = (int) (fileSize - heapStart);
+
+            List<Todo> todos = new ArrayList<>(count);
+            IntIntMap seen = new IntIntMap(count);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int e = HEADER_BYTES + i * entryBytes;
+                int id = buf.getInt(e);
+                int flags = buf.getInt(e + 4);
+                int off = buf.getInt(e + 8);
+                int len = buf.getInt(e + 12);
+                if (off < 0 || len < 0 || (long) off + len > heapSize) {
+                    throw new IOException("Text-Offset außerhalb des Heaps bei Eintrag " + i + ".");
+                }
+                if (seen.put(id, 0) != IntIntMap.MISSING) continue; // doppelte ID: erster Eintrag gewinnt
+                if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+                buf.get((int) heapStart + off, scratch, 0, len);
+                String text = new String(scratch, 0, len, StandardCharsets.UTF_8);
+                try {
+                    todos.add(todo(id, text, flags, version == 1 ? 0 : buf.getLong(e + 16)));
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException("Eintrag " + i + " beschädigt: " + ex.getMessage());
+                }
+                if (id >= nextId) nextId = id + 1;
+            }
+            return new TodoService.State(todos, Math.max(1, nextId));
+        }
+    }
+}
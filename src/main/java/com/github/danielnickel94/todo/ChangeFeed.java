@@ -0,0 +1,344 @@
+package com.github.danielnickel94.todo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fortlaufend nummerierte Änderungen eines {@link TodoService} in einem beschränkten Ringpuffer.
+ * <p>
+ * Jede gemeldete Änderung bekommt die nächste Sequenznummer (ab 1). Leser merken sich nur, bis zu
+ * welcher Nummer sie gelesen haben, und holen danach ausschließlich die neuen Änderungen – über einen
+ * {@link Cursor} im eigenen Tempo oder als {@link Flow.Subscriber} mit {@code request(n)}. Der Service
+ * wartet nie auf einen Leser: ist einer so weit zurück, dass seine Änderungen schon überschrieben
+ * sind, bekommt er eine {@link MissedChangesException} und muss neu aufsetzen.
+ * <p>
+ * Neu aufsetzen: erst {@link #sequence()} merken, dann den Bestand lesen, dann ab der gemerkten
+ * Nummer weiterlesen. Änderungen, die der Bestand schon enthält, kommen dabei evtl. noch einmal;
+ * sie setzen aber nur Zustände (Text, erledigt, Termin, vorhanden) und lassen sich gefahrlos wiederholen.
+ */
+public final class ChangeFeed implements ChangeListener, Flow.Publisher<ChangeFeed.Change>, AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 1 << 14;
+    // so viele Änderungen reicht eine Flow-Subscription höchstens am Stück weiter
+    private static final int FLOW_BATCH = 256;
+
+    /** Eine Änderung samt ihrer Sequenznummer. */
+    public sealed interface Change {
+        long sequence();
+    }
+
+    public record Added(long sequence, Todo todo) implements Change { }
+
+    public record TextUpdated(long sequence, int id, String text) implements Change { }
+
+    public record MarkedDone(long sequence, int id) implements Change { }
+
+    /** Termin oder Priorität geändert; {@code todo} ist der neue Stand. */
+    public record Scheduled(long sequence, Todo todo) implements Change { }
+
+    public record Removed(long sequence, int id) implements Change { }
+
+    /** Der Bestand wurde komplett ersetzt (Laden, Import); Leser verwerfen ihren Stand. */
+    public record Loaded(long sequence, List<Todo> todos) implements Change { }
+
+    /** Die angefragten Änderungen sind nicht mehr im Puffer; der Leser muss neu aufsetzen. */
+    public static final class MissedChangesException extends IllegalStateException {
+        private final long oldest;
+
+        MissedChangesException(long after, long oldest) {
+            super("Änderungen nach " + after + " nicht mehr verfügbar, älteste ist " + oldest + ".");
+            this.oldest = oldest;
+        }
+
+        /** Älteste noch gepufferte Sequenznummer. */
+        public long oldest() {
+            return oldest;
+        }
+    }
+
+    private final Change[] ring;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // unter lock
+    private long last;
+    private boolean closed;
+
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** {@code capacity} wird auf die nächste Zweierpotenz aufgerundet. */
+    public ChangeFeed(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("Ungültige Kapazität: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.ring = new Change[size];
+        this.mask = size - 1;
+    }
+
+    /** Sequenznummer der letzten Änderung; {@code 0}, solange es keine gab. */
+    public long sequence() {
+        lock.lock();
+        try {
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    /* ===================== ChangeListener ===================== */
+
+    @Override
+    public void added(Todo todo) {
+        lock.lock();
+        try {
+            append(new Added(last + 1, todo));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void textUpdated(int id, String text) {
+        lock.lock();
+        try {
+            append(new TextUpdated(last + 1, id, text));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void markedDone(int id) {
+        lock.lock();
+        try {
+            append(new MarkedDone(last + 1, id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void scheduled(Todo todo) {
+        lock.lock();
+        try {
+            append(new Scheduled(last + 1, todo));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removed(int id) {
+        lock.lock();
+        try {
+            append(new Removed(last + 1, id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void loaded(List<Todo> todos) {
+        lock.lock();
+        try {
+            append(new Loaded(last + 1, todos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // überschreibt ggf. die älteste Änderung; Leser erkennen das an der Sequenznummer
+    private void append(Change c) {
+        ring[(int) (c.sequence() & mask)] = c;
+        last = c.sequence();
+        appended.signalAll();
+    }
+
+    /* ===================== Lesen ===================== */
+
+    /** Liest ab der Änderung nach {@code afterSequence}; {@code sequence()} heißt „nur neue“. */
+    public Cursor cursor(long afterSequence) {
+        lock.lock();
+        try {
+            if (afterSequence < 0 || afterSequence > last) {
+                throw new IllegalArgumentException("Sequenz " + afterSequence + " liegt außerhalb von 0.." + last + ".");
+            }
+            return new Cursor(afterSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Leseposition eines einzelnen Lesers; nicht thread-sicher. */
+    public final class Cursor {
+        private long position;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+
+        /** Sequenznummer der zuletzt gelieferten Änderung. */
+        public long position() {
+            return position;
+        }
+
+        /** Bis zu {@code max} neue Änderungen, ohne zu warten; leer, wenn es keine gibt. */
+        public List<Change> poll(int max) {
+            lock.lock();
+            try {
+                return read(max);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wie {@link #poll}, wartet aber höchstens {@code timeout} auf die erste neue Änderung.
+         * Leer, wenn in der Zeit keine kam oder der Feed geschlossen wurde.
+         */
+        public List<Change> await(int max, Duration timeout) throws InterruptedException {
+            long nanos = timeout.toNanos();
+            lock.lock();
+            try {
+                while (position == last && !closed && nanos > 0) nanos = appended.awaitNanos(nanos);
+                return read(max);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // unter lock; Aufwand proportional zu max, nicht zur Puffergröße
+        private List<Change> read(int max) {
+            if (max < 1) throw new IllegalArgumentException("max muss positiv sein: " + max);
+            long oldest = Math.max(1, last - ring.length + 1);
+            if (position + 1 < oldest) throw new MissedChangesException(position, oldest);
+            int n = (int) Math.min(max, last - position);
+            List<Change> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) out.add(ring[(int) ((position + 1 + i) & mask)]);
+            position += n;
+            return out;
+        }
+    }
+
+    /* ===================== Flow ===================== */
+
+    /** Liefert nur Änderungen ab jetzt. */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Change> subscriber) {
+        subscribe(sequence(), subscriber);
+    }
+
+    /**
+     * Liefert ab der Änderung nach {@code afterSequence}, aber nie mehr als angefordert; jede
+     * Subscription hat einen eigenen virtuellen Thread. Ist der Leser zu weit zurück, endet sie mit
+     * {@code onError(MissedChangesException)}, nach {@link #close()} mit {@code onComplete()}.
+     */
+    public void subscribe(long afterSequence, Flow.Subscriber<? super Change> subscriber) {
+        FlowSubscription s = new FlowSubscription(cursor(afterSequence), subscriber);
+        subscriber.onSubscribe(s);
+        Thread.ofVirtual().name("todo-change-feed").start(s::deliverLoop);
+    }
+
+    /** Beendet alle Flow-Subscriptions nach dem bisher Gepufferten und weckt wartende Cursor. */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class FlowSubscription implements Flow.Subscription {
+        private final Cursor cursor;
+        private final Flow.Subscriber<? super Change> subscriber;
+        // unter lock
+        private long demand;
+        private boolean cancelled;
+        private long invalidRequest;
+
+        FlowSubscription(Cursor cursor, Flow.Subscriber<? super Change> subscriber) {
+            this.cursor = cursor;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if (n <= 0) invalidRequest = n; // wird im Auslieferungs-Thread gemeldet (Flow-Regel 3.9)
+                else demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void deliverLoop() {
+            try {
+                while (true) {
+                    List<Change> batch;
+                    lock.lock();
+                    try {
+                        while (!cancelled && invalidRequest == 0 && !(closed && cursor.position == last)
+                                && (demand == 0 || cursor.position == last)) {
+                            appended.await();
+                        }
+                        if (cancelled) return;
+                        if (invalidRequest != 0) {
+                            cancelled = true;
+                            batch = null;
+                        } else if (closed && cursor.position == last) {
+                            cancelled = true;
+                            batch = List.of();
+                        } else {
+                            batch = cursor.read((int) Math.min(demand, FLOW_BATCH));
+                            demand -= batch.size();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    // Empfänger immer außerhalb der Sperre aufrufen: ein langsamer Leser blockiert keinen Schreiber
+                    if (batch == null) {
+                        subscriber.onError(new IllegalArgumentException("request(" + invalidRequest + ") ist nicht erlaubt."));
+                        return;
+                    }
+                    if (batch.isEmpty()) { // geschlossen und alles ausgeliefert
+                        subscriber.onComplete();
+                        return;
+                    }
+                    for (Change c : batch) subscriber.onNext(c);
+                }
+            } catch (MissedChangesException e) {
+                subscriber.onError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                cancel(); // fehlerhafter Empfänger
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.danielnickel94.todo;
+
+import java.util.List;
+
+/**
+ * Wird von {@link TodoService} nach jeder erfolgreichen Änderung aufgerufen (gleicher Thread).
+ */
+public interface ChangeListener {
+
+    void added(Todo todo);
+
+    void textUpdated(int id, String text);
+
+    void markedDone(int id);
+
+    /** Termin oder Priorität wurde gesetzt; {@code todo} ist der neue Stand. */
+    void scheduled(Todo todo);
+
+    void removed(int id);
+
+    /** Der komplette Bestand wurde ersetzt (z. B. durch {@link TodoService#load}). */
+    void loaded(List<Todo> todos);
+}
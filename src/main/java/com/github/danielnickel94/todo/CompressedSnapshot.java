@@ -0,0 +1,433 @@
+package com.github.danielnickel94.todo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Komprimiertes Snapshot-Format ({@code .tdz}) mit Prüfsummen.
+ * <pre>
+ * Header (24 Byte):   magic "TDZ1" | version int | count int | nextId int | blocks int | headerCrc int
+ * Verzeichnis (16 Byte/Block): todos int | rawLength int | packedLength int | crc int
+ * Blöcke:             Deflate-Daten ohne zlib-Rahmen, hintereinander
+ * </pre>
+ * {@code headerCrc} ist die CRC32C über die ersten 20 Byte und das Verzeichnis, {@code crc} die
+ * eines entpackten Blocks. Block 0 enthält die IDs in Listenreihenfolge (Differenz zur vorigen ID),
+ * die übrigen je bis zu {@value #BLOCK_TODOS} Todos nach Text sortiert:
+ * <pre>
+ * id (Differenz zur vorigen) | flags | [due] | gemeinsames Präfix | Restlänge | Rest (UTF-8)
+ * </pre>
+ * Alle Zahlen in Blöcken als Varint (IDs ZigZag-kodiert), Header und Verzeichnis big-endian.
+ * {@code flags} und {@code due} wie in {@link BinarySnapshot}. Durch die Sortierung speichert jeder
+ * Text nur, worin er sich vom vorigen unterscheidet; jeder Block beginnt ohne Präfix und lässt sich
+ * so für sich entpacken. Geladen wird parallel je Block; ein einziger falscher Block verwirft die
+ * ganze Datei, bevor irgendetwas übernommen wird.
+ */
+final class CompressedSnapshot {
+
+    static final String EXTENSION = ".tdz";
+    static final int BLOCK_TODOS = 4096;
+
+    private static final int MAGIC = 0x54445A31; // "TDZ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int DIRECTORY_BYTES = 16;
+    private static final int FLAG_DUE = 2;
+    // Schutz vor absurden Längen in einer Datei, deren Verzeichnis zufällig die Prüfsumme trifft
+    private static final int MAX_RAW_BLOCK = 1 << 30;
+
+    private CompressedSnapshot() {
+    }
+
+    static boolean handles(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(EXTENSION);
+    }
+
+    /* ===================== Schreiben ===================== */
+
+    static void write(Path target, List<Todo> list, int nextId) throws IOException {
+        write(target, list, nextId, ForkJoinPool.commonPool());
+    }
+
+    static void write(Path target, List<Todo> list, int nextId, ForkJoinPool pool) throws IOException {
+        Todo[] todos = list.toArray(new Todo[0]);
+        Todo[] sorted = todos.clone();
+        Arrays.parallelSort(sorted, Comparator.comparing(CompressedSnapshot::text).thenComparingInt(Todo::getId));
+
+        int textBlocks = (sorted.length + BLOCK_TODOS - 1) / BLOCK_TODOS;
+        List<Block> blocks = new ArrayList<>(textBlocks + 1);
+        blocks.add(new OrderBlock(todos));
+        for (int b = 0; b < textBlocks; b++) {
+            blocks.add(new TextBlock(sorted, b * BLOCK_TODOS, Math.min(sorted.length, (b + 1) * BLOCK_TODOS)));
+        }
+        run(pool, blocks);
+
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + blocks.size() * DIRECTORY_BYTES);
+        head.putInt(MAGIC).putInt(VERSION).putInt(todos.length).putInt(nextId).putInt(blocks.size()).putInt(0);
+        for (Block b : blocks) head.putInt(b.todos).putInt(b.rawLength).putInt(b.packed.length).putInt(b.crc);
+        head.putInt(20, headerCrc(head.array()));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(target), 1 << 16))) {
+            out.write(head.array());
+            for (Block b : blocks) out.write(b.packed);
+        }
+    }
+
+    private static String text(Todo t) {
+        return t.getText() == null ? "" : t.getText();
+    }
+
+    /** Ein Block wird in einem eigenen Task kodiert und gepackt bzw. entpackt und dekodiert. */
+    private abstract static class Block extends RecursiveAction {
+        int todos;
+        int rawLength;
+        int crc;
+        byte[] packed;
+
+        abstract void encode(Out out);
+
+        @Override
+        protected void compute() {
+            Out out = new Out();
+            encode(out);
+            rawLength = out.len;
+            crc = crc(out.buf, 0, out.len);
+            packed = deflate(out.buf, out.len);
+        }
+    }
+
+    private static final class OrderBlock extends Block {
+        private final Todo[] order;
+
+        OrderBlock(Todo[] order) {
+            this.order = order;
+            this.todos = order.length;
+        }
+
+        @Override
+        void encode(Out out) {
+            int prev = 0;
+            for (Todo t : order) {
+                out.zigzag(t.getId() - (long) prev);
+                prev = t.getId();
+            }
+        }
+    }
+
+    private static final class TextBlock extends Block {
+        private final Todo[] sorted;
+        private final int from;
+        private final int to;
+
+        TextBlock(Todo[] sorted, int from, int to) {
+            this.sorted = sorted;
+            this.from = from;
+            this.to = to;
+            this.todos = to - from;
+        }
+
+        @Override
+        void encode(Out out) {
+            byte[] prev = new byte[0];
+            int prevId = 0;
+            for (int i = from; i < to; i++) {
+                Todo t = sorted[i];
+                byte[] text = text(t).getBytes(StandardCharsets.UTF_8);
+                int flags = BinarySnapshot.flags(t);
+                out.zigzag(t.getId() - (long) prevId);
+                out.varint(flags);
+                if ((flags & FLAG_DUE) != 0) out.zigzag(t.getDue().toEpochMilli());
+                int common = Arrays.mismatch(prev, text);
+                if (common < 0) common = text.length; // gleicher Text
+                out.varint(common);
+                out.varint(text.length - common);
+                out.bytes(text, common, text.length - common);
+                prev = text;
+                prevId = t.getId();
+            }
+        }
+    }
+
+    // schnellste Stufe: das Front-Coding hat die meisten Wiederholungen schon entfernt, höhere Stufen
+    // sparen gemessen nur noch gut 10 % Platz und kosten ein Drittel mehr Zeit beim Speichern
+    private static byte[] deflate(byte[] raw, int len) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(raw, 0, len);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, len / 2)];
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == out.length) out = Arrays.copyOf(out, out.length * 2);
+                n += deflater.deflate(out, n, out.length - n);
+            }
+            return Arrays.copyOf(out, n);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /* ===================== Lesen ===================== */
+
+    static TodoService.State read(Path source) throws IOException {
+        return read(source, ForkJoinPool.commonPool());
+    }
+
+    /** Liest und prüft alles; jeder Fehler, auch in nur einem Block, wird als {@link IOException} gemeldet. */
+    static TodoService.State read(Path source, ForkJoinPool pool) throws IOException {
+        byte[] file = Files.readAllBytes(source);
+        ByteBuffer buf = ByteBuffer.wrap(file);
+        if (file.length < HEADER_BYTES) throw new IOException("Datei zu kurz für einen Snapshot.");
+        if (buf.getInt(0) != MAGIC) throw new IOException("Kein komprimierter Todo-Snapshot (Magic falsch).");
+        int version = buf.getInt(4);
+        if (version != VERSION) throw new IOException("Nicht unterstützte Snapshot-Version: " + version);
+        int count = buf.getInt(8);
+        int nextId = buf.getInt(12);
+        int blockCount = buf.getInt(16);
+        long dataStart = HEADER_BYTES + (long) blockCount * DIRECTORY_BYTES;
+        if (count < 0 || blockCount < 1 || dataStart > file.length) throw new IOException("Snapshot-Verzeichnis beschädigt.");
+        if (headerCrc(Arrays.copyOf(file, (int) dataStart)) != buf.getInt(20)) {
+            throw new IOException("Prüfsumme des Snapshot-Verzeichnisses falsch.");
+        }
+
+        List<Unpack> blocks = new ArrayList<>(blockCount);
+        long offset = dataStart;
+        long total = 0;
+        for (int b = 0; b < blockCount; b++) {
+            int d = HEADER_BYTES + b * DIRECTORY_BYTES;
+            int todos = buf.getInt(d);
+            int rawLength = buf.getInt(d + 4);
+            int packedLength = buf.getInt(d + 8);
+            if (todos < 0 || rawLength < 0 || rawLength > MAX_RAW_BLOCK || packedLength < 0
+                    || offset + packedLength > file.length) {
+                throw new IOException("Block " + b + " liegt außerhalb der Datei.");
+            }
+            blocks.add(new Unpack(b, file, (int) offset, packedLength, rawLength, buf.getInt(d + 12), todos));
+            offset += packedLength;
+            if (b > 0) total += todos;
+        }
+        if (offset != file.length) throw new IOException("Datei hat " + (file.length - offset) + " Byte zu viel oder ist abgeschnitten.");
+        if (blocks.get(0).todos != count || total != count) throw new IOException("Anzahl der Todos stimmt nicht mit dem Header überein.");
+
+        run(pool, blocks);
+        return assemble(blocks, count, nextId);
+    }
+
+    private static final class Unpack extends RecursiveAction {
+        final int index;
+        final byte[] file;
+        final int offset;
+        final int packedLength;
+        final int rawLength;
+        final int crc;
+        final int todos;
+        int[] ids;
+        Todo[] decoded;
+
+        Unpack(int index, byte[] file, int offset, int packedLength, int rawLength, int crc, int todos) {
+            this.index = index;
+            this.file = file;
+            this.offset = offset;
+            this.packedLength = packedLength;
+            this.rawLength = rawLength;
+            this.crc = crc;
+            this.todos = todos;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                byte[] raw = inflate();
+                if (crc(raw, 0, raw.length) != crc) throw new IOException("Prüfsumme falsch.");
+                In in = new In(raw);
+                if (index == 0) decodeOrder(in);
+                else decodeTodos(in);
+                if (in.pos != raw.length) throw new IOException("unerwartete Daten am Blockende.");
+            } catch (IOException | IllegalArgumentException e) {
+                throw new UncheckedIOException(new IOException("Block " + index + " beschädigt: " + e.getMessage(), e));
+            }
+        }
+
+        private byte[] inflate() throws IOException {
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(file, offset, packedLength);
+                byte[] raw = new byte[rawLength];
+                int n = 0;
+                while (n < rawLength) {
+                    int k = inflater.inflate(raw, n, rawLength - n);
+                    if (k == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) break;
+                    n += k;
+                }
+                if (n != rawLength) throw new IOException("entpackt " + n + " statt " + rawLength + " Byte.");
+                return raw;
+            } catch (DataFormatException e) {
+                throw new IOException("Deflate-Daten ungültig: " + e.getMessage());
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private void decodeOrder(In in) throws IOException {
+            ids = new int[todos];
+            long prev = 0;
+            for (int i = 0; i < todos; i++) {
+                prev += in.zigzag();
+                ids[i] = id(prev);
+            }
+        }
+
+        private void decodeTodos(In in) throws IOException {
+            decoded = new Todo[todos];
+            byte[] text = new byte[64];
+            int textLength = 0;
+            long id = 0;
+            for (int i = 0; i < todos; i++) {
+                id += in.zigzag();
+                int flags = (int) in.varint();
+                long due = (flags & FLAG_DUE) != 0 ? in.zigzag() : 0;
+                long common = in.varint();
+                long rest = in.varint();
+                if (common > textLength || rest > in.remaining()) throw new IOException("Textlänge ungültig bei Eintrag " + i + ".");
+                int length = (int) (common + rest);
+                if (length > text.length) text = Arrays.copyOf(text, Math.max(length, text.length * 2));
+                in.read(text, (int) common, (int) rest);
+                textLength = length;
+                decoded[i] = BinarySnapshot.todo(id(id), new String(text, 0, length, StandardCharsets.UTF_8), flags, due);
+            }
+        }
+
+        private static int id(long id) throws IOException {
+            if (id != (int) id) throw new IOException("ID außerhalb des gültigen Bereichs: " + id);
+            return (int) id;
+        }
+    }
+
+    /** Stellt die Listenreihenfolge wieder her; jede ID muss genau einmal vorkommen. */
+    private static TodoService.State assemble(List<Unpack> blocks, int count, int nextId) throws IOException {
+        IntIntMap position = new IntIntMap(count);
+        int[] order = blocks.get(0).ids;
+        for (int i = 0; i < order.length; i++) {
+            if (position.put(order[i], i) != IntIntMap.MISSING) throw new IOException("Doppelte ID " + order[i] + " im Snapshot.");
+        }
+        Todo[] todos = new Todo[count];
+        for (int b = 1; b < blocks.size(); b++) {
+            for (Todo t : blocks.get(b).decoded) {
+                int i = position.get(t.getId());
+                if (i == IntIntMap.MISSING || todos[i] != null) throw new IOException("ID " + t.getId() + " passt nicht zur Reihenfolge.");
+                todos[i] = t;
+                if (t.getId() >= nextId) nextId = t.getId() + 1;
+            }
+        }
+        return new TodoService.State(List.of(todos), Math.max(1, nextId));
+    }
+
+    /* ===================== Hilfen ===================== */
+
+    private static void run(ForkJoinPool pool, List<? extends RecursiveAction> tasks) throws IOException {
+        try {
+            if (tasks.size() == 1) tasks.get(0).invoke(); // kleine Listen: kein Umweg über den Pool
+            else pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int headerCrc(byte[] head) {
+        CRC32C crc = new CRC32C();
+        crc.update(head, 0, 20);
+        crc.update(head, HEADER_BYTES, head.length - HEADER_BYTES);
+        return (int) crc.getValue();
+    }
+
+    private static int crc(byte[] b, int off, int len) {
+        CRC32C crc = new CRC32C();
+        crc.update(b, off, len);
+        return (int) crc.getValue();
+    }
+
+    /** Wachsender Puffer für Varints. */
+    private static final class Out {
+        byte[] buf = new byte[1 << 12];
+        int len;
+
+        void zigzag(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        void varint(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        void bytes(byte[] b, int off, int n) {
+            ensure(n);
+            System.arraycopy(b, off, buf, len, n);
+            len += n;
+        }
+
+        private void ensure(int n) {
+            if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(len + n, buf.length * 2));
+        }
+    }
+
+    private static final class In {
+        final byte[] buf;
+        int pos;
+
+        In(byte[] buf) {
+            this.buf = buf;
+        }
+
+        int remaining() {
+            return buf.length - pos;
+        }
+
+        long zigzag() throws IOException {
+            long v = varint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        long varint() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= buf.length) throw new IOException("Block endet mitten in einer Zahl.");
+                byte b = buf[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+            throw new IOException("Zahl zu lang.");
+        }
+
+        void read(byte[] dst, int off, int n) {
+            System.arraycopy(buf, pos, dst, off, n);
+            pos += n;
+        }
+    }
+}
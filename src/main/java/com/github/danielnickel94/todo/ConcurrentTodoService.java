@@ -0,0 +1,497 @@
+package com.github.danielnickel94.todo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.github.danielnickel94.todo.TodoMetrics.Operation;
+
+/**
+ * Thread-sichere Variante von {@link TodoService} für mehrere Frontends auf einer Instanz.
+ * <p>
+ * Schreibende Operationen laufen nacheinander unter der Schreibsperre und veröffentlichen danach
+ * einen unveränderlichen Snapshot (O(1), die Liste ist persistent). Was den Bestand in
+ * Listenreihenfolge liefert ({@code list}, {@code stream}, {@code page}), liest lock-frei diesen
+ * Snapshot und blockiert nie einen Schreiber. Suche, Status-Listen, Sortierung und Abfragen nutzen
+ * die Indizes des Service unter der Lesesperre: beliebig viele Leser gleichzeitig, die nur während
+ * eines Schreibvorgangs warten. Off-heap ohne Heap-Indizes bleiben Suche und Abfragen Scans über
+ * den Snapshot. Alle Operationen gehen ohne die Wartezeit auf eine Sperre in die
+ * {@link #metrics() Metriken} ein.
+ */
+public class ConcurrentTodoService extends TodoService {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock writeLock = lock.writeLock();
+    private final Lock readLock = lock.readLock();
+    private final boolean heapIndexes;
+    // für Lesezugriffe auf Heaps und Sortierung: off-heap verändert schon das Lesen des Speichers dessen Cache
+    private final Lock indexLock;
+    private volatile Snapshot snapshot = new Snapshot(PersistentTodoList.EMPTY, 0, 0, 0);
+    private int batchDepth; // nur unter writeLock
+
+    public ConcurrentTodoService() {
+        this(false);
+    }
+
+    public ConcurrentTodoService(boolean compactText) {
+        super(compactText);
+        this.heapIndexes = true;
+        this.indexLock = readLock;
+    }
+
+    public ConcurrentTodoService(OffHeapTodoStore store) {
+        super(store);
+        this.heapIndexes = store.heapIndexes();
+        this.indexLock = heapIndexes ? readLock : writeLock;
+        writeLock.lock();
+        try {
+            publish(); // bereits vorhandener Inhalt
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* ===================== Schreiben ===================== */
+
+    @Override
+    public int add(String text) {
+        writeLock.lock();
+        try {
+            int id = super.add(text);
+            publish();
+            return id;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateText(int id, String newText) {
+        writeLock.lock();
+        try {
+            return super.updateText(id, newText) && publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(int id) {
+        writeLock.lock();
+        try {
+            return super.remove(id) && publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean markDone(int id) {
+        writeLock.lock();
+        try {
+            return super.markDone(id) && publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean setDue(int id, Instant due) {
+        writeLock.lock();
+        try {
+            return super.setDue(id, due) && publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean setPriority(int id, int priority) {
+        writeLock.lock();
+        try {
+            return super.setPriority(id, priority) && publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean load(String fileName) {
+        writeLock.lock();
+        try {
+            return super.load(fileName) && publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ImportReport importCsv(String fileName) {
+        writeLock.lock();
+        try {
+            ImportReport report = super.importCsv(fileName);
+            if (report.ok()) publish();
+            return report;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    boolean restore(Todo t) {
+        writeLock.lock();
+        try {
+            return super.restore(t) && publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    void replaceAll(List<Todo> newTodos, int newNextId) {
+        writeLock.lock();
+        try {
+            super.replaceAll(newTodos, newNextId);
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Hält die Sperre über den ganzen Block; Leser sehen erst den fertigen Stand. */
+    @Override
+    public void batch(Consumer<Mutator> block) {
+        writeLock.lock();
+        try {
+            batchDepth++;
+            try {
+                super.batch(block);
+            } finally {
+                batchDepth--;
+            }
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    State state() {
+        writeLock.lock();
+        try {
+            return super.state();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void addListener(ChangeListener listener) {
+        writeLock.lock();
+        try {
+            super.addListener(listener);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void addListenerWithState(ChangeListener listener) {
+        writeLock.lock();
+        try {
+            super.addListenerWithState(listener);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ChangeFeed changes() {
+        writeLock.lock();
+        try {
+            return super.changes();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeListener(ChangeListener listener) {
+        writeLock.lock();
+        try {
+            super.removeListener(listener);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* ===================== Lesen ===================== */
+
+    // Ergebnisse sind unveränderlich bzw. hängen nur am Snapshot; nach dem Entsperren sicher zu benutzen
+    private <T> T locked(Lock l, Supplier<T> read) {
+        l.lock();
+        try {
+            return read.get();
+        } finally {
+            l.unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> list() {
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos;
+        } finally {
+            metrics().record(Operation.LIST, t0);
+        }
+    }
+
+    @Override
+    public List<Todo> listOpen() {
+        if (heapIndexes) return locked(readLock, super::listOpen); // Status-Bitset
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos.stream().filter(t -> !t.isDone()).toList();
+        } finally {
+            metrics().record(Operation.LIST, t0);
+        }
+    }
+
+    @Override
+    public List<Todo> listDone() {
+        if (heapIndexes) return locked(readLock, super::listDone);
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos.stream().filter(Todo::isDone).toList();
+        } finally {
+            metrics().record(Operation.LIST, t0);
+        }
+    }
+
+    @Override
+    public int countOpen() {
+        return snapshot.openCount;
+    }
+
+    @Override
+    public int countDone() {
+        return snapshot.doneCount;
+    }
+
+    @Override
+    public List<Todo> search(String query) {
+        if (heapIndexes) return locked(readLock, () -> super.search(query)); // Trigramm-Index
+        long t0 = System.nanoTime();
+        try {
+            Snapshot snap = snapshot;
+            String q = query == null ? "" : TextIndex.fold(query.trim());
+            if (q.isEmpty()) return snap.todos;
+            return snap.todos.stream()
+                    .filter(t -> t.getText() != null && TextIndex.fold(t.getText()).contains(q))
+                    .toList();
+        } finally {
+            metrics().record(Operation.SEARCH, t0);
+        }
+    }
+
+    @Override
+    public List<Todo> sortByText(boolean asc, int offset, int limit) {
+        return locked(indexLock, () -> super.sortByText(asc, offset, limit)); // Sortierindex, O(offset + limit)
+    }
+
+    @Override
+    public List<Todo> sortByText(boolean asc) {
+        return sortByText(asc, 0, Integer.MAX_VALUE);
+    }
+
+    /** Die Termin-/Prioritäts-Heaps gehören dem Schreiber; kurz sperren statt sie je Änderung zu kopieren. */
+    @Override
+    public List<Todo> dueBefore(Instant until, int limit) {
+        return locked(indexLock, () -> super.dueBefore(until, limit));
+    }
+
+    @Override
+    public List<Todo> topByPriority(int limit) {
+        return locked(indexLock, () -> super.topByPriority(limit));
+    }
+
+    @Override
+    public Stream<Todo> stream() {
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos.stream();
+        } finally {
+            metrics().record(Operation.STREAM, t0);
+        }
+    }
+
+    @Override
+    public Stream<Todo> streamOpen() {
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos.stream().filter(t -> !t.isDone());
+        } finally {
+            metrics().record(Operation.STREAM, t0);
+        }
+    }
+
+    @Override
+    public Stream<Todo> streamDone() {
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos.stream().filter(Todo::isDone);
+        } finally {
+            metrics().record(Operation.STREAM, t0);
+        }
+    }
+
+    @Override
+    public Stream<Todo> searchStream(String query) {
+        // die Kandidaten stehen nach dem Aufruf fest, der Stream liest nur noch den Snapshot
+        if (heapIndexes) return locked(readLock, () -> super.searchStream(query));
+        long t0 = System.nanoTime();
+        try {
+            Snapshot snap = snapshot;
+            String q = query == null ? "" : TextIndex.fold(query.trim());
+            if (q.isEmpty()) return snap.todos.stream();
+            return snap.todos.stream().filter(t -> t.getText() != null && TextIndex.fold(t.getText()).contains(q));
+        } finally {
+            metrics().record(Operation.STREAM, t0);
+        }
+    }
+
+    /**
+     * Anders als in {@link TodoService} ein echter Snapshot: der Sortierindex wird unter der Lesesperre
+     * einmal abgelaufen (O(n), ohne neu zu sortieren), der Stream danach läuft ohne Sperre.
+     */
+    @Override
+    public Stream<Todo> sortedStream(boolean asc) {
+        return sortByText(asc).stream();
+    }
+
+    @Override
+    public List<Todo> page(int offset, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos.slice(offset, limit);
+        } finally {
+            metrics().record(Operation.PAGE, t0);
+        }
+    }
+
+    @Override
+    public Page pageAfter(int cursor, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.todos.pageFrom(cursor, limit);
+        } finally {
+            metrics().record(Operation.PAGE, t0);
+        }
+    }
+
+    /** Mit Planer und Indizes unter der Lesesperre; off-heap Filter über den Snapshot, Sortierung per Top-K. */
+    @Override
+    public List<Todo> query(TodoQuery q) {
+        if (heapIndexes) return locked(readLock, () -> super.query(q));
+        long t0 = System.nanoTime();
+        try {
+            return snapshot.query(q);
+        } finally {
+            metrics().record(Operation.QUERY, t0);
+        }
+    }
+
+    @Override
+    QueryPlan plan(TodoQuery q) {
+        if (heapIndexes) return locked(readLock, () -> super.plan(q));
+        return new QueryPlan(QueryPlan.Access.SCAN, snapshot.todos.size(), q.order() != TodoQuery.Order.INSERTION);
+    }
+
+    /**
+     * Muss unter {@link #writeLock} aufgerufen werden; liefert immer {@code true} (für Verkettung mit {@code &&}).
+     * Die Liste des Service ist persistent, daher kostet das Veröffentlichen O(1).
+     */
+    private boolean publish() {
+        if (batchDepth > 0) return true; // wird am Ende von batch() veröffentlicht
+        // unter writeLock: alle Änderungen bis zu dieser Nummer sind im Snapshot enthalten, keine spätere
+        snapshot = new Snapshot(snapshotList(), super.countOpen(), super.countDone(), changeSequence());
+        return true;
+    }
+
+    /**
+     * Der zuletzt veröffentlichte Stand zusammen mit der Sequenznummer des {@link #changes() Feeds},
+     * bis zu der er reicht. Wer danach mit {@code changes().cursor(view.sequence())} weiterliest,
+     * bekommt genau die Änderungen, die diesem Stand noch fehlen.
+     */
+    public View view() {
+        return new View(snapshot);
+    }
+
+    /** Unveränderlicher Stand samt Sequenznummer; siehe {@link #view()}. */
+    public final class View {
+        private final Snapshot snap;
+
+        private View(Snapshot snap) {
+            this.snap = snap;
+        }
+
+        public long sequence() {
+            return snap.sequence;
+        }
+
+        /** Lazy über diesen Stand. */
+        public Stream<Todo> stream() {
+            long t0 = System.nanoTime();
+            try {
+                return snap.todos.stream();
+            } finally {
+                metrics().record(Operation.STREAM, t0);
+            }
+        }
+
+        /** Über die Indizes, solange dieser Stand noch der aktuelle ist; sonst Filter über den Snapshot. */
+        public List<Todo> query(TodoQuery q) {
+            if (heapIndexes) {
+                readLock.lock();
+                try {
+                    // unter der Lesesperre gehören die Indizes genau zum veröffentlichten Snapshot
+                    if (snapshot == snap) return ConcurrentTodoService.super.query(q);
+                } finally {
+                    readLock.unlock();
+                }
+            }
+            long t0 = System.nanoTime();
+            try {
+                return snap.query(q);
+            } finally {
+                metrics().record(Operation.QUERY, t0);
+            }
+        }
+    }
+
+    /** Unveränderlicher Stand. */
+    private static final class Snapshot {
+        final TodoSnapshot todos;
+        final int openCount;
+        final int doneCount;
+        final long sequence;
+
+        Snapshot(TodoSnapshot todos, int openCount, int doneCount, long sequence) {
+            this.todos = todos;
+            this.openCount = openCount;
+            this.doneCount = doneCount;
+            this.sequence = sequence;
+        }
+
+        List<Todo> query(TodoQuery q) {
+            Stream<Todo> matches = todos.stream().filter(q::test);
+            if (q.order() == TodoQuery.Order.INSERTION) return matches.limit(q.limit()).toList();
+            return SortedIndex.topK(matches, q.order() == TodoQuery.Order.TEXT_ASC, q.limit());
+        }
+    }
+}
@@ -1,105 +1,231 @@
 package com.github.danielnickel94.todo;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class ConsoleUI {
 
     private static final String DEFAULT_CSV = "todos.csv";
+    private static final int NEXT_LIMIT = 20;
 
     private final TodoService service;
+    private final Autosave autosave;
+    private final TodoJournal journal; // nur im Journal-Modus
+    // eine gepufferte Ausgabe statt vieler einzelner Schreibzugriffe; vor jeder Eingabe geleert
+    private final PrintWriter out = new PrintWriter(new BufferedWriter(
+            new OutputStreamWriter(System.out, System.out.charset()), 1 << 16));
+    // Meldungen anderer Threads (Speicherfehler, Erinnerungen) gehen während des Menüs über out, siehe printNotice
+    private static final Object CONSOLE = new Object();
+    private static ConsoleUI active;                                 // unter CONSOLE; das laufende Menü
+    private final List<String> pendingNotices = new ArrayList<>();   // unter CONSOLE
+    private String openPrompt;                                       // unter CONSOLE; wartet gerade auf Eingabe
+    // Laden beim Start; Menüaktionen warten erst darauf, wenn sie den Bestand brauchen
+    private CompletableFuture<Boolean> startupLoad = CompletableFuture.completedFuture(true);
 
+    /** Standard: speichert nach Änderungen gebündelt im Hintergrund nach {@value #DEFAULT_CSV}. */
     public ConsoleUI(TodoService service) {
+        this(service, new AsyncAutosave(service, DEFAULT_CSV));
+    }
+
+    /** Journal-Modus: nach jeder Änderung wird nur das Journal geschrieben, nicht die ganze CSV. */
+    public ConsoleUI(TodoService service, TodoJournal journal) {
+        this(service, journal::flush, journal);
+    }
+
+    public ConsoleUI(TodoService service, Autosave autosave) {
+        this(service, autosave, null);
+    }
+
+    private ConsoleUI(TodoService service, Autosave autosave, TodoJournal journal) {
         this.service = service;
+        this.autosave = autosave;
+        this.journal = journal;
+    }
+
+    /**
+     * Lädt {@code fileName} in einem eigenen Thread, während schon das Menü erscheint. Bis zur
+     * ersten Auswahl ist das Laden meist fertig; sonst wartet die Aktion darauf.
+     */
+    public ConsoleUI loadInBackground(String fileName) {
+        startupLoad = new CompletableFuture<>();
+        Thread.ofVirtual().name("todo-startup-load").start(() -> {
+            try {
+                startupLoad.complete(service.load(fileName));
+            } catch (Throwable t) {
+                startupLoad.completeExceptionally(t);
+            }
+        });
+        return this;
     }
 
     public void run() {
-        try (Scanner sc = new Scanner(System.in)) {
+        synchronized (CONSOLE) {
+            active = this;
+        }
+        try (Scanner sc = new Scanner(System.in); autosave) {
             boolean running = true;
+            boolean first = true;
             while (running) {
                 printMenu();
-                int choice = readIntInRange(sc, "Auswahl: ", 1, 8);
-                System.out.println();
+                if (first && Boolean.getBoolean("todo.startupTrace")) {
+                    out.flush(); // gemessen wird, bis das Menü wirklich auf der Konsole steht
+                    printStartupTime();
+                }
+                first = false;
+                int choice = readIntInRange(sc, "Auswahl: ", 1, 9);
+                out.println();
+                awaitStartupLoad();
 
                 switch (choice) {
-                    case 1 -> handleList();
+                    case 1 -> handleList(sc);
                     case 2 -> handleAdd(sc);
                     case 3 -> handleUpdate(sc);
                     case 4 -> handleRemove(sc);
                     case 5 -> handleMarkDone(sc);
                     case 6 -> handleSave(sc);
                     case 7 -> handleLoad(sc);
-                    case 8 -> {
-                        System.out.println("Beenden. Bis bald!");
+                    case 8 -> handleStats();
+                    case 9 -> {
+                        if (!autosave.flush()) out.println("Achtung: Letztes automatisches Speichern fehlgeschlagen.");
+                        out.println("Beenden. Bis bald!");
                         running = false;
                     }
                 }
-                System.out.println();
+                out.println();
+            }
+        } finally {
+            synchronized (CONSOLE) {
+                active = null;
+                pendingNotices.forEach(out::println);
+                pendingNotices.clear();
+                out.flush();
             }
         }
     }
 
     private void autosave() {
-        service.save(DEFAULT_CSV);
+        autosave.changed();
+    }
+
+    private void awaitStartupLoad() {
+        if (!startupLoad.isDone()) {
+            out.println("Lade Erledigungen ...");
+            out.flush();
+        }
+        try {
+            startupLoad.join(); // danach sieht dieser Thread den geladenen Stand
+        } catch (RuntimeException e) {
+            out.println("Laden beim Start fehlgeschlagen: " + e.getMessage());
+        }
+    }
+
+    /** Zeit vom Prozessstart bis zum ersten Menü, für {@code ./gradlew startupTime}. */
+    private static void printStartupTime() {
+        ProcessHandle.current().info().startInstant().ifPresent(start -> System.err.printf(
+                "Erstes Menü nach %d ms%n", Duration.between(start, Instant.now()).toMillis()));
     }
 
     // Menüaktionen
 
-    private void handleList() {
-        Scanner sc = new Scanner(System.in);
-        System.out.println("Anzeigen:");
-        System.out.println("1) Alle");
-        System.out.println("2) Nur offene");
-        System.out.println("3) Suchen (enthält...)");
-        System.out.println("4) Alphabetisch (A→Z)");
-        System.out.println("5) Alphabetisch (Z→A)");
-        int sub = readIntInRange(sc, "Auswahl: ", 1, 5);
-
-        List<Todo> toShow = switch (sub) {
-            case 1 -> service.list();
-            case 2 -> service.listOpen();
+    private void handleList(Scanner sc) {
+        out.println("Anzeigen:");
+        out.println("1) Alle");
+        out.println("2) Nur offene");
+        out.println("3) Suchen (enthält...)");
+        out.println("4) Alphabetisch (A→Z)");
+        out.println("5) Alphabetisch (Z→A)");
+        out.println("6) Nur erledigte");
+        out.println("7) Als Nächstes fällig");
+        out.println("8) Nach Priorität");
+        int sub = readIntInRange(sc, "Auswahl: ", 1, 8);
+
+        // lazy: nichts wird vorab in eine Liste kopiert
+        Stream<Todo> toShow = switch (sub) {
+            case 1 -> service.stream();
+            case 2 -> service.streamOpen();
             case 3 -> {
                 String q = readNonEmptyLine(sc, "Suchtext: ");
-                yield service.search(q);
+                yield service.searchStream(q);
             }
-            case 4 -> service.sortByText(true);
-            case 5 -> service.sortByText(false);
-            default -> service.list();
+            case 4 -> service.sortedStream(true);
+            case 5 -> service.sortedStream(false);
+            case 6 -> service.streamDone();
+            // beide über Heaps: nur die ersten 20 werden überhaupt bestimmt
+            case 7 -> service.nextDue(NEXT_LIMIT).stream();
+            case 8 -> service.topByPriority(NEXT_LIMIT).stream();
+            default -> service.stream();
         };
 
-        if (toShow.isEmpty()) {
-            System.out.println("keine Erledigungen vorhanden.");
+        Iterator<Todo> it = toShow.iterator();
+        if (!it.hasNext()) {
+            out.println("keine Erledigungen vorhanden.");
             return;
         }
-        System.out.println("Erledigungen:");
-        toShow.forEach(t -> System.out.println(" - " + t));
+        out.printf("Erledigungen (%d offen, %d erledigt):%n", service.countOpen(), service.countDone());
+        it.forEachRemaining(t -> out.println(" - " + t));
     }
 
     private void handleAdd(Scanner sc) {
         String text = readNonEmptyLine(sc, "Neue Erledigung: ");
         try {
             int id = service.add(text);
-            System.out.println("Hinzugefügt mit ID " + id + ".");
+            out.println("Hinzugefügt mit ID " + id + ".");
             autosave();
         } catch (IllegalArgumentException ex) {
-            System.out.println(ex.getMessage());
+            out.println(ex.getMessage());
         }
     }
 
     private void handleUpdate(Scanner sc) {
         int id = readExistingTodoId(sc);
         if (id == -1) return; // keine Todos vorhanden
-        String neu = readNonEmptyLine(sc, "Neuer Text: ");
-        boolean ok = service.updateText(id, neu);
-        System.out.println(ok ? "Aktualisiert." : "ID nicht gefunden.");
+        String neu = readLineAllowEmpty(sc, "Neuer Text (Enter behält ihn): ").trim();
+        boolean ok = neu.isEmpty() || service.updateText(id, neu);
+        if (ok) ok = readDue(sc, id) && readPriority(sc, id);
+        out.println(ok ? "Aktualisiert." : "ID nicht gefunden.");
         if (ok) autosave();
     }
 
+    /** Termin optional: Enter behält ihn, {@code -} entfernt ihn. */
+    private boolean readDue(Scanner sc, int id) {
+        while (true) {
+            String raw = readLineAllowEmpty(sc, "Fällig am (TT.MM.JJJJ [HH:MM], - entfernt, Enter behält): ").trim();
+            if (raw.isEmpty()) return true;
+            try {
+                return service.setDue(id, raw.equals("-") ? null : Todo.parseDue(raw));
+            } catch (IllegalArgumentException e) {
+                out.println(e.getMessage());
+            }
+        }
+    }
+
+    /** Priorität optional: Enter behält sie, 0 entfernt sie. */
+    private boolean readPriority(Scanner sc, int id) {
+        while (true) {
+            String raw = readLineAllowEmpty(sc, "Priorität (0-" + Todo.MAX_PRIORITY + ", Enter behält): ").trim();
+            if (raw.isEmpty()) return true;
+            try {
+                return service.setPriority(id, Integer.parseInt(raw));
+            } catch (IllegalArgumentException e) { // auch NumberFormatException
+                out.printf("Bitte eine Zahl zwischen 0 und %d eingeben.%n", Todo.MAX_PRIORITY);
+            }
+        }
+    }
+
     private void handleRemove(Scanner sc) {
         int id = readExistingTodoId(sc);
         if (id == -1) return;
         boolean ok = service.remove(id);
-        System.out.println(ok ? "Gelöscht." : "ID nicht gefunden.");
+        out.println(ok ? "Gelöscht." : "ID nicht gefunden.");
         if (ok) autosave();
     }
 
@@ -107,18 +233,19 @@ public class ConsoleUI {
         int id = readExistingTodoId(sc);
         if (id == -1) return;
         boolean ok = service.markDone(id);
-        System.out.println(ok ? "Als erledigt markiert." : "ID nicht gefunden.");
+        out.println(ok ? "Als erledigt markiert." : "ID nicht gefunden.");
         if (ok) autosave();
     }
 
     private void handleSave(Scanner sc) {
         String file = readLineAllowEmpty(sc, "Dateiname zum Speichern (Enter für \"" + DEFAULT_CSV + "\"): ");
         String target = file.isBlank() ? DEFAULT_CSV : file.trim();
+        autosave.flush(); // sonst überschreibt ein noch laufendes Autosave evtl. diesen Stand
         boolean ok = service.save(target);
         if (ok) {
-            System.out.println("Gespeichert nach: " + target);
+            out.println("Gespeichert nach: " + target);
         } else {
-            System.out.println("Speichern fehlgeschlagen.");
+            out.println("Speichern fehlgeschlagen.");
         }
     }
 
@@ -126,56 +253,139 @@ public class ConsoleUI {
     private void handleLoad(Scanner sc) {
         String file = readLineAllowEmpty(sc, "Dateiname zum Laden (Enter für \"" + DEFAULT_CSV + "\"): ");
         String source = file.isBlank() ? DEFAULT_CSV : file.trim();
-        boolean ok = service.load(source);
+        autosave.flush(); // ausstehendes Speichern zuerst abschließen, sonst läse man einen alten Stand
+        // Journal-Modus: der Snapshot allein ist ohne das Log veraltet, also vorher kompaktieren
+        if (journal != null && !journal.checkpoint()) {
+            out.println("Laden abgebrochen: Journal konnte nicht kompaktiert werden.");
+            return;
+        }
+        boolean ok = TodoService.isSnapshot(source)
+                ? service.load(source)
+                : importCsv(source);
         if (ok) {
-            System.out.println("Geladen von: " + source);
-            handleList();
+            out.println("Geladen von: " + source);
+            handleList(sc);
         } else {
-            System.out.println("Laden abgebrochen. Vorheriger Stand bleibt erhalten.");
+            out.println("Laden abgebrochen. Vorheriger Stand bleibt erhalten.");
+        }
+    }
+
+
+    /** Aufrufe und Laufzeiten seit dem Start, dazu gelesene/geschriebene Bytes. */
+    private void handleStats() {
+        out.printf("Bestand: %d offen, %d erledigt%n", service.countOpen(), service.countDone());
+        out.println(service.metrics().report());
+    }
+
+
+    /** CSV über den parallelen Import laden und übersprungene Zeilen melden. */
+    private boolean importCsv(String source) {
+        ImportReport report = service.importCsv(source);
+        if (!report.ok()) {
+            out.println(report.failure());
+            return false;
+        }
+        out.println(report.imported() + " Erledigungen importiert.");
+        if (!report.errors().isEmpty()) {
+            out.println(report.errors().size() + " Zeilen übersprungen:");
+            report.errors().stream().limit(10).forEach(e -> out.println(" - " + e));
+            if (report.errors().size() > 10) out.println(" - ...");
+        }
+        return true;
+    }
+
+
+    /** Fehlermeldungen aus Speichern/Laden; für {@link AsyncPersistenceSink}, läuft also in dessen Thread. */
+    static void printFailure(PersistenceResult r) {
+        if (r.ok() || r.operation() == TodoMetrics.Operation.IMPORT) return; // der Import meldet sich über seinen Bericht
+        String action = r.operation() == TodoMetrics.Operation.SAVE ? "Speichern" : "Laden";
+        printNotice("Fehler beim " + action + ": " + r.error());
+    }
+
+
+    /** Für {@link ReminderScheduler}; läuft in dessen Timer-Thread. */
+    static void printReminder(Todo t) {
+        printNotice("Erinnerung: #" + t.getId() + " " + t.getText() + " ist fällig (" + Todo.formatDue(t.getDue()) + ").");
+    }
+
+
+    /**
+     * Meldung aus einem beliebigen Thread. Wartet das Menü gerade auf Eingabe, erscheint sie auf
+     * eigener Zeile und die Eingabeaufforderung wird wiederholt; schreibt es gerade, erscheint sie vor
+     * der nächsten Eingabeaufforderung. Ohne laufendes Menü geht sie direkt auf die Konsole.
+     */
+    static void printNotice(String message) {
+        synchronized (CONSOLE) {
+            ConsoleUI ui = active;
+            if (ui == null) {
+                System.out.println(message);
+            } else if (ui.openPrompt == null) {
+                ui.pendingNotices.add(message);
+            } else {
+                ui.out.println();
+                ui.out.println(message);
+                ui.out.print(ui.openPrompt);
+                ui.out.flush();
+            }
         }
     }
 
 
     /* ===================== Eingabe-Helfer ===================== */
 
+    /** Zeigt die gepufferte Ausgabe samt wartender Meldungen und {@code prompt}, dann eine Zeile lesen. */
+    private String prompt(Scanner sc, String prompt) {
+        synchronized (CONSOLE) {
+            pendingNotices.forEach(out::println);
+            pendingNotices.clear();
+            out.print(prompt);
+            out.flush();
+            openPrompt = prompt;
+        }
+        try {
+            return sc.nextLine();
+        } finally {
+            synchronized (CONSOLE) {
+                openPrompt = null;
+            }
+        }
+    }
+
     /** Liest eine nicht-leere Zeile (trimmt) und fragt bei Leer-/Nur-Whitespace erneut. */
-    private static String readNonEmptyLine(Scanner sc, String prompt) {
+    private String readNonEmptyLine(Scanner sc, String prompt) {
         while (true) {
-            System.out.print(prompt);
-            String line = sc.nextLine();
+            String line = prompt(sc, prompt);
             if (line != null && !line.trim().isEmpty()) {
                 return line.trim();
             }
-            System.out.println("Eingabe darf nicht leer sein. Bitte erneut versuchen.");
+            out.println("Eingabe darf nicht leer sein. Bitte erneut versuchen.");
         }
     }
 
     /** Liest eine Zeile, darf leer sein (z. B. für optionalen Dateinamen). */
-    private static String readLineAllowEmpty(Scanner sc, String prompt) {
-        System.out.print(prompt);
-        String line = sc.nextLine();
+    private String readLineAllowEmpty(Scanner sc, String prompt) {
+        String line = prompt(sc, prompt);
         return line == null ? "" : line;
     }
 
     /** Liest eine Ganzzahl robust; bei Fehlern wird erneut gefragt. */
-    private static int readInt(Scanner sc, String prompt) {
+    private int readInt(Scanner sc, String prompt) {
         while (true) {
-            System.out.print(prompt);
-            String raw = sc.nextLine();
+            String raw = prompt(sc, prompt);
             try {
                 return Integer.parseInt(raw.trim());
             } catch (NumberFormatException e) {
-                System.out.println("Bitte eine gültige Zahl eingeben.");
+                out.println("Bitte eine gültige Zahl eingeben.");
             }
         }
     }
 
     /** Liest eine Ganzzahl im Bereich [min, max]. */
-    private static int readIntInRange(Scanner sc, String prompt, int min, int max) {
+    private int readIntInRange(Scanner sc, String prompt, int min, int max) {
         while (true) {
             int v = readInt(sc, prompt);
             if (v >= min && v <= max) return v;
-            System.out.printf("Bitte eine Zahl zwischen %d und %d eingeben.%n", min, max);
+            out.printf("Bitte eine Zahl zwischen %d und %d eingeben.%n", min, max);
         }
     }
 
@@ -184,37 +394,35 @@ public class ConsoleUI {
      * Fragt bei unbekannter ID erneut.
      */
     private int readExistingTodoId(Scanner sc) {
-        // wir lesen über service.list(); keine Änderungen an der Service-API
-        // (Achtung: keine Seiteneffekte, nur Anzeige + Auswahl)
-        // Diese Methode ist in der UI-Klasse, daher Zugriff über this.service
-        // → einfach die Liste holen:
-        List<Todo> todos = new java.util.ArrayList<>(/* defensive copy */ service.list());
+        // list() ist ein unveränderlicher Snapshot, eine Kopie ist nicht nötig
+        List<Todo> todos = service.list();
         if (todos.isEmpty()) {
-            System.out.println("Es gibt noch keine Erledigungen.");
+            out.println("Es gibt noch keine Erledigungen.");
             return -1;
         }
-        System.out.println("Vorhandene IDs:");
-        todos.forEach(t -> System.out.println(" - " + t.getId() + ": " + t.getText()));
+        out.println("Vorhandene IDs:");
+        todos.forEach(t -> out.println(" - " + t.getId() + ": " + t.getText()));
         while (true) {
             int id = readInt(sc, "ID eingeben: ");
             boolean exists = todos.stream().anyMatch(t -> t.getId() == id);
             if (exists) return id;
-            System.out.println("Diese ID existiert nicht. Bitte erneut versuchen.");
+            out.println("Diese ID existiert nicht. Bitte erneut versuchen.");
         }
     }
 
     /* ===================== Anzeige ===================== */
 
-    private static void printMenu() {
-        System.out.println("=== TodoApp ===");
-        System.out.println("1) Anzeigen");
-        System.out.println("2) Hinzufügen");
-        System.out.println("3) Verändern");
-        System.out.println("4) Löschen");
-        System.out.println("5) Erledigen");
-        System.out.println("6) Speichern");
-        System.out.println("7) Laden");
-        System.out.println("8) Beenden");
+    private void printMenu() {
+        out.println("=== TodoApp ===");
+        out.println("1) Anzeigen");
+        out.println("2) Hinzufügen");
+        out.println("3) Verändern");
+        out.println("4) Löschen");
+        out.println("5) Erledigen");
+        out.println("6) Speichern");
+        out.println("7) Laden");
+        out.println("8) Statistik");
+        out.println("9) Beenden");
     }
 
 }
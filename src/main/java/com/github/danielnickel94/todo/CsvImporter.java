@@ -0,0 +1,282 @@
+package com.github.danielnickel94.todo;
+
+import com.github.danielnickel94.todo.ImportReport.LineError;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Paralleler CSV-Import für sehr große Dateien ({@code id;done;text} je Zeile, zum Termin siehe
+ * {@link TodoService#csvStatus}).
+ * <p>
+ * Die Datei wird in Byte-Bereiche an Zeilengrenzen geteilt, jeder Bereich per Memory-Map gelesen
+ * und in einem Fork-Join-Pool geparst. Der Scanner arbeitet direkt auf den Bytes; pro Zeile wird
+ * nur der Text als {@link String} erzeugt. Fehlerhafte Zeilen werden mit Zeilennummer gemeldet statt
+ * stillschweigend verworfen. Zeilen enden mit {@code \n}, {@code \r\n} oder {@code \r}.
+ */
+final class CsvImporter {
+
+    static final int DEFAULT_CHUNK_BYTES = 16 << 20;
+
+    private final int chunkBytes;
+    private final ForkJoinPool pool;
+
+    CsvImporter() {
+        this(DEFAULT_CHUNK_BYTES, ForkJoinPool.commonPool());
+    }
+
+    CsvImporter(int chunkBytes, ForkJoinPool pool) {
+        this.chunkBytes = chunkBytes;
+        this.pool = pool;
+    }
+
+    /** Geparster Inhalt samt Fehlern; doppelte IDs zählen als Fehler (erster Eintrag gewinnt). */
+    record Result(TodoService.State state, long lines, List<LineError> errors) { }
+
+    Result read(Path source) throws IOException {
+        try (FileChannel ch = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = ch.size();
+            List<long[]> ranges = split(ch, size);
+            List<ChunkTask> tasks = new ArrayList<>(ranges.size());
+            for (long[] r : ranges) tasks.add(new ChunkTask(ch, r[0], r[1]));
+            try {
+                pool.invoke(new RecursiveTask<Void>() {
+                    @Override
+                    protected Void compute() {
+                        ForkJoinTask.invokeAll(tasks);
+                        return null;
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return merge(tasks);
+        }
+    }
+
+    /**
+     * Teilt in Bereiche von etwa {@link #chunkBytes}, jeweils direkt hinter einem Zeilenumbruch endend.
+     * Ein Bereich wird als Ganzes eingeblendet und darf daher höchstens 2 GB groß sein; eine längere
+     * Zeile bricht den Import ab.
+     */
+    private List<long[]> split(FileChannel ch, long size) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkBytes);
+            // bis hinter das nächste Zeilenende vorlaufen; "\r\n" wird nicht auseinandergerissen
+            search:
+            while (end < size && end - start <= Integer.MAX_VALUE) {
+                probe.clear();
+                int n = ch.read(probe, end);
+                if (n <= 0) {
+                    end = size;
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    byte b = probe.get(i);
+                    if (b == '\n' || b == '\r') {
+                        end += i + 1;
+                        if (b == '\r' && end < size && (i + 1 < n ? probe.get(i + 1) : byteAt(ch, end)) == '\n') end++;
+                        break search;
+                    }
+                }
+                end += n;
+                if (probe.capacity() < 1 << 20) probe = ByteBuffer.allocate(probe.capacity() * 2); // lange Zeile
+            }
+            end = Math.min(end, size);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Zeile länger als 2 GB (nach Byte " + start + "), Import abgebrochen.");
+            }
+            ranges.add(new long[]{start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    private static byte byteAt(FileChannel ch, long pos) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return ch.read(one, pos) == 1 ? one.get(0) : 0;
+    }
+
+    private static Result merge(List<ChunkTask> tasks) {
+        int total = 0;
+        for (ChunkTask t : tasks) total += t.todos.size();
+        List<Todo> todos = new ArrayList<>(total);
+        List<LineError> errors = new ArrayList<>();
+        IntIntMap seen = new IntIntMap(total);
+        int nextId = 1;
+        long lineBase = 0;
+        for (ChunkTask t : tasks) {
+            for (long[] e : t.errorLines) errors.add(new LineError(lineBase + e[0], ChunkTask.REASONS[(int) e[1]]));
+            for (int i = 0; i < t.todos.size(); i++) {
+                Todo todo = t.todos.get(i);
+                if (seen.put(todo.getId(), 0) != IntIntMap.MISSING) {
+                    errors.add(new LineError(lineBase + t.todoLines[i], "doppelte ID " + todo.getId()));
+                    continue;
+                }
+                todos.add(todo);
+                if (todo.getId() >= nextId) nextId = todo.getId() + 1;
+            }
+            lineBase += t.lines;
+        }
+        errors.sort((a, b) -> Long.compare(a.line(), b.line()));
+        return new Result(new TodoService.State(todos, nextId), lineBase, errors);
+    }
+
+    /** Parst einen Bereich; Zeilennummern sind relativ zum Bereich. */
+    private static final class ChunkTask extends RecursiveTask<Void> {
+        static final String[] REASONS = {
+                "zu wenige Felder (erwartet id;done;text)",
+                "ID ist keine gültige Zahl",
+                "ungültiger Termin oder ungültige Priorität",
+        };
+        private static final int TOO_FEW_FIELDS = 0;
+        private static final int BAD_ID = 1;
+        private static final int BAD_SCHEDULE = 2;
+
+        private final FileChannel ch;
+        private final long start;
+        private final long end;
+
+        final List<Todo> todos = new ArrayList<>();
+        int[] todoLines = new int[64]; // Zeile je Eintrag in todos, ohne Boxing
+        final List<long[]> errorLines = new ArrayList<>(); // {zeile, grund}
+        long lines;
+
+        ChunkTask(FileChannel ch, long start, long end) {
+            this.ch = ch;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Void compute() {
+            try {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                parse(buf, (int) (end - start));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        private void parse(ByteBuffer buf, int limit) {
+            byte[] scratch = new byte[256];
+            int pos = 0;
+            // UTF-8-BOM am Dateianfang überspringen
+            if (start == 0 && limit >= 3 && (buf.get(0) & 0xFF) == 0xEF && (buf.get(1) & 0xFF) == 0xBB
+                    && (buf.get(2) & 0xFF) == 0xBF) {
+                pos = 3;
+            }
+            while (pos < limit) {
+                int lineEnd = lineEnd(buf, pos, limit);
+                int next = lineEnd + 1;
+                if (next < limit && buf.get(lineEnd) == '\r' && buf.get(next) == '\n') next++;
+                long line = ++lines;
+
+                if (lineEnd == pos) { // leere Zeile: wie bisher still überspringen
+                    pos = next;
+                    continue;
+                }
+                int semi1 = indexOf(buf, pos, lineEnd);
+                int semi2 = semi1 < 0 ? -1 : indexOf(buf, semi1 + 1, lineEnd);
+                if (semi2 < 0) {
+                    errorLines.add(new long[]{line, TOO_FEW_FIELDS});
+                    pos = next;
+                    continue;
+                }
+                long id = parseInt(buf, pos, semi1);
+                if (id == Long.MIN_VALUE) {
+                    errorLines.add(new long[]{line, BAD_ID});
+                    pos = next;
+                    continue;
+                }
+                int len = lineEnd - semi2 - 1;
+                if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+                buf.get(semi2 + 1, scratch, 0, len);
+                String text = new String(scratch, 0, len, StandardCharsets.UTF_8);
+                Todo todo;
+                if (indexOf(buf, semi1 + 1, semi2, (byte) ',') < 0) { // häufigster Fall: ohne Termin/Priorität
+                    todo = new Todo((int) id, text, isTrue(buf, semi1 + 1, semi2));
+                } else {
+                    byte[] status = new byte[semi2 - semi1 - 1];
+                    buf.get(semi1 + 1, status);
+                    try {
+                        todo = TodoService.fromCsv((int) id, new String(status, StandardCharsets.US_ASCII).trim(), text);
+                    } catch (IllegalArgumentException e) {
+                        errorLines.add(new long[]{line, BAD_SCHEDULE});
+                        pos = next;
+                        continue;
+                    }
+                }
+                if (todos.size() == todoLines.length) todoLines = Arrays.copyOf(todoLines, todoLines.length * 2);
+                todoLines[todos.size()] = (int) line;
+                todos.add(todo);
+                pos = next;
+            }
+        }
+
+        /** Position des nächsten {@code \n} oder {@code \r}, sonst {@code limit}. */
+        private static int lineEnd(ByteBuffer buf, int from, int limit) {
+            for (int i = from; i < limit; i++) {
+                byte b = buf.get(i);
+                if (b == '\n' || b == '\r') return i;
+            }
+            return limit;
+        }
+
+        private static int indexOf(ByteBuffer buf, int from, int to) {
+            return indexOf(buf, from, to, (byte) ';');
+        }
+
+        private static int indexOf(ByteBuffer buf, int from, int to, byte b) {
+            for (int i = from; i < to; i++) if (buf.get(i) == b) return i;
+            return -1;
+        }
+
+        /** Wie {@code Integer.parseInt(s.trim())}; {@link Long#MIN_VALUE} bei Fehler. */
+        private static long parseInt(ByteBuffer buf, int from, int to) {
+            while (from < to && (buf.get(from) & 0xFF) <= ' ') from++;
+            while (to > from && (buf.get(to - 1) & 0xFF) <= ' ') to--;
+            if (from == to) return Long.MIN_VALUE;
+            boolean neg = false;
+            byte first = buf.get(from);
+            if (first == '-' || first == '+') {
+                neg = first == '-';
+                if (++from == to) return Long.MIN_VALUE;
+            }
+            long v = 0;
+            for (int i = from; i < to; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) return Long.MIN_VALUE;
+                v = v * 10 + d;
+                if (v > (long) Integer.MAX_VALUE + 1) return Long.MIN_VALUE;
+            }
+            v = neg ? -v : v;
+            return v < Integer.MIN_VALUE || v > Integer.MAX_VALUE ? Long.MIN_VALUE : v;
+        }
+
+        /** Wie {@code Boolean.parseBoolean(s.trim())}. */
+        private static boolean isTrue(ByteBuffer buf, int from, int to) {
+            while (from < to && (buf.get(from) & 0xFF) <= ' ') from++;
+            while (to > from && (buf.get(to - 1) & 0xFF) <= ' ') to--;
+            if (to - from != 4) return false;
+            return (buf.get(from) | 0x20) == 't' && (buf.get(from + 1) | 0x20) == 'r'
+                    && (buf.get(from + 2) | 0x20) == 'u' && (buf.get(from + 3) | 0x20) == 'e';
+        }
+    }
+}
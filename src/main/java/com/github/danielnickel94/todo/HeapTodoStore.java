@@ -0,0 +1,34 @@
+package com.github.danielnickel94.todo;
+
+import java.util.List;
+
+/** Standardablage auf dem Heap: eine {@link PersistentTodoList}, Snapshots kosten O(1). */
+final class HeapTodoStore implements TodoStore {
+
+    private PersistentTodoList todos = PersistentTodoList.EMPTY;
+
+    @Override
+    public Todo get(int key) {
+        return todos.getByKey(key);
+    }
+
+    @Override
+    public void put(int key, Todo todo) {
+        todos = todos.put(key, todo);
+    }
+
+    @Override
+    public void remove(int key) {
+        todos = todos.removeKey(key);
+    }
+
+    @Override
+    public void replaceAll(List<Todo> newTodos) {
+        todos = PersistentTodoList.of(newTodos);
+    }
+
+    @Override
+    public TodoSnapshot snapshot() {
+        return todos;
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.danielnickel94.todo;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/** Aufsteigend sortierte int-Menge in einem Array; Anhängen größerer Werte ist der schnelle Normalfall. */
+class IdSet {
+    int[] ids = new int[4];
+    int size;
+
+    boolean add(int id) {
+        // IDs wachsen meist monoton → Anhängen ist der Normalfall
+        if (size > 0 && ids[size - 1] >= id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return false;
+            insertAt(-pos - 1, id);
+            return true;
+        }
+        insertAt(size, id);
+        return true;
+    }
+
+    boolean remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) return false;
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    IntStream stream(boolean asc) {
+        int n = size;
+        int[] a = ids;
+        return asc ? Arrays.stream(a, 0, n) : IntStream.range(0, n).map(i -> a[n - 1 - i]);
+    }
+
+    private void insertAt(int pos, int id) {
+        if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.danielnickel94.todo;
+
+import java.util.List;
+
+/**
+ * Ergebnis von {@link TodoService#importCsv}.
+ *
+ * @param ok       {@code true}, wenn die Datei gelesen und übernommen wurde
+ * @param lines    gelesene Zeilen
+ * @param imported übernommene Todos
+ * @param errors   übersprungene Zeilen mit Grund
+ * @param failure  Grund, warum nichts übernommen wurde (sonst {@code null})
+ */
+public record ImportReport(boolean ok, long lines, int imported, List<LineError> errors, String failure) {
+
+    /** Eine übersprungene Zeile (1-basiert). */
+    public record LineError(long line, String reason) {
+        @Override
+        public String toString() {
+            return "Zeile " + line + ": " + reason;
+        }
+    }
+
+    static ImportReport failed(String failure) {
+        return new ImportReport(false, 0, 0, List.of(), failure);
+    }
+}
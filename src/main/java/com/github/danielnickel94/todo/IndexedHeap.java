@@ -0,0 +1,169 @@
+package com.github.danielnickel94.todo;
+
+import java.util.Arrays;
+
+/**
+ * Min-Heap über IDs mit {@code long}-Schlüssel (z. B. Fälligkeit in ms), bei gleichem Schlüssel
+ * kleinere ID zuerst. Eine Positionstabelle ID → Heap-Platz erlaubt Ändern und Entfernen beliebiger
+ * IDs in O(log n); das Kleinste steht in O(1) bereit, die {@code k} kleinsten in O(k log k).
+ */
+final class IndexedHeap {
+
+    private int[] ids = new int[16];
+    private long[] keys = new long[16];
+    private final IntIntMap pos = new IntIntMap();
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int id) {
+        return pos.containsKey(id);
+    }
+
+    /** Fügt ein oder ändert den Schlüssel einer vorhandenen ID. */
+    void set(int id, long key) {
+        int i = pos.get(id);
+        if (i == IntIntMap.MISSING) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            place(size++, id, key);
+            up(size - 1);
+            return;
+        }
+        long old = keys[i];
+        keys[i] = key;
+        if (key < old) up(i);
+        else down(i);
+    }
+
+    void remove(int id) {
+        int i = pos.remove(id);
+        if (i == IntIntMap.MISSING) return;
+        int last = --size;
+        if (i == last) return;
+        int moved = ids[last];
+        place(i, moved, keys[last]);
+        up(i);
+        down(pos.get(moved));
+    }
+
+    void clear() {
+        size = 0;
+        pos.clear();
+    }
+
+    /** ID mit dem kleinsten Schlüssel; nur bei {@code size() > 0}. */
+    int peekId() {
+        return ids[0];
+    }
+
+    long peekKey() {
+        return keys[0];
+    }
+
+    /** Die {@code k} kleinsten IDs aufsteigend, ohne den Heap zu verändern. */
+    int[] smallest(int k) {
+        return smallest(k, Long.MAX_VALUE);
+    }
+
+    /**
+     * Höchstens {@code k} IDs mit Schlüssel {@code <= maxKey}, aufsteigend. Läuft nur die obersten
+     * Heap-Plätze ab: ein kleiner Hilfs-Heap hält die Kandidaten-Positionen, je Treffer kommen die
+     * beiden Kinder hinzu.
+     */
+    int[] smallest(int k, long maxKey) {
+        if (k < 0) throw new IllegalArgumentException("limit darf nicht negativ sein.");
+        int n = Math.min(k, size);
+        int[] out = new int[n];
+        if (n == 0) return out;
+        int[] frontier = new int[2 * n + 1]; // Heap von Positionen
+        int fSize = 0;
+        frontier[fSize++] = 0;
+        int count = 0;
+        while (count < n && fSize > 0) {
+            int p = frontier[0];
+            frontier[0] = frontier[--fSize];
+            siftFrontier(frontier, fSize);
+            if (keys[p] > maxKey) break; // alles Weitere ist noch größer
+            out[count++] = ids[p];
+            for (int c = 2 * p + 1; c <= 2 * p + 2 && c < size; c++) {
+                frontier[fSize] = c;
+                int j = fSize++;
+                while (j > 0 && before(frontier[j], frontier[(j - 1) / 2])) {
+                    int parent = (j - 1) / 2;
+                    int tmp = frontier[j];
+                    frontier[j] = frontier[parent];
+                    frontier[parent] = tmp;
+                    j = parent;
+                }
+            }
+        }
+        return count == n ? out : Arrays.copyOf(out, count);
+    }
+
+    private void siftFrontier(int[] f, int fSize) {
+        int j = 0;
+        while (true) {
+            int l = 2 * j + 1;
+            if (l >= fSize) return;
+            int m = l + 1 < fSize && before(f[l + 1], f[l]) ? l + 1 : l;
+            if (!before(f[m], f[j])) return;
+            int tmp = f[j];
+            f[j] = f[m];
+            f[m] = tmp;
+            j = m;
+        }
+    }
+
+    /* ===================== Heap ===================== */
+
+    private void up(int i) {
+        int id = ids[i];
+        long key = keys[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(parent, key, id)) break;
+            place(i, ids[parent], keys[parent]);
+            i = parent;
+        }
+        place(i, id, key);
+    }
+
+    private void down(int i) {
+        int id = ids[i];
+        long key = keys[i];
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= size) break;
+            if (c + 1 < size && before(c + 1, c)) c++;
+            if (!before(c, key, id)) break;
+            place(i, ids[c], keys[c]);
+            i = c;
+        }
+        place(i, id, key);
+    }
+
+    private void place(int i, int id, long key) {
+        ids[i] = id;
+        keys[i] = key;
+        pos.put(id, i);
+    }
+
+    // (key, id) kleiner als der Eintrag an Position i?
+    private boolean less(int i, long key, int id) {
+        return key < keys[i] || (key == keys[i] && id < ids[i]);
+    }
+
+    // Eintrag an Position a vor dem an Position b?
+    private boolean before(int a, int b) {
+        return before(a, keys[b], ids[b]);
+    }
+
+    private boolean before(int a, long key, int id) {
+        return keys[a] < key || (keys[a] == key && ids[a] < id);
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.danielnickel94.todo;
+
+import java.util.Arrays;
+
+/**
+ * Kleine Hash-Map von {@code int} auf {@code int} ohne Boxing (offene Adressierung, lineares Sondieren).
+ * Werte müssen {@code >= 0} sein; {@link #MISSING} signalisiert "nicht vorhanden".
+ */
+final class IntIntMap {
+
+    static final int MISSING = -1;
+
+    private int[] keys;
+    private int[] vals;   // MISSING = freier Platz
+    private int size;
+    private int mask;
+
+    IntIntMap() {
+        this(16);
+    }
+
+    IntIntMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+        allocate(cap);
+    }
+
+    private void allocate(int cap) {
+        keys = new int[cap];
+        vals = new int[cap];
+        Arrays.fill(vals, MISSING);
+        mask = cap - 1;
+        size = 0;
+    }
+
+    int size() { return size; }
+
+    int get(int key) {
+        int i = slot(key);
+        while (vals[i] != MISSING) {
+            if (keys[i] == key) return vals[i];
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    /** Setzt den Wert und liefert den vorherigen (oder {@link #MISSING}). */
+    int put(int key, int value) {
+        if (value < 0) throw new IllegalArgumentException("Wert muss >= 0 sein: " + value);
+        int i = slot(key);
+        while (vals[i] != MISSING) {
+            if (keys[i] == key) {
+                int old = vals[i];
+                vals[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        vals[i] = value;
+        if (++size > (mask + 1) * 3 / 4) grow();
+        return MISSING;
+    }
+
+    /** Entfernt den Schlüssel und liefert den alten Wert (oder {@link #MISSING}). */
+    int remove(int key) {
+        int i = slot(key);
+        while (vals[i] != MISSING) {
+            if (keys[i] == key) {
+                int old = vals[i];
+                shiftBack(i);
+                size--;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    void clear() {
+        Arrays.fill(vals, MISSING);
+        size = 0;
+    }
+
+    // Rückwärtsverschieben statt Grabsteinen: hält Suchketten kurz
+    private void shiftBack(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (vals[i] == MISSING) break;
+            int home = slot(keys[i]);
+            // Eintrag darf nur in die Lücke, wenn sein Heimplatz nicht zwischen Lücke und i liegt
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                vals[gap] = vals[i];
+                gap = i;
+            }
+        }
+        vals[gap] = MISSING;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldVals = vals;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldVals[i] != MISSING) put(oldKeys[i], oldVals[i]);
+        }
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
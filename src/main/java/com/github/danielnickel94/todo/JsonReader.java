@@ -0,0 +1,113 @@
+package com.github.danielnickel94.todo;
+
+/**
+ * Minimaler Leser für die kleinen Anfrage-Bodies des {@link TodoHttpServer}: ein flaches
+ * JSON-Objekt, dessen Werte Zeichenketten, Zahlen, {@code true}/{@code false} oder {@code null} sind.
+ */
+final class JsonReader {
+
+    private final String s;
+    private int pos;
+
+    private JsonReader(String s) {
+        this.s = s;
+    }
+
+    /**
+     * Wert des Felds {@code name} oder {@code null}, wenn es fehlt oder {@code null} ist. Eine Zahl
+     * oder ein Wahrheitswert in diesem Feld ist ein Fehler, kein Text.
+     */
+    static String stringField(String json, String name) {
+        JsonReader r = new JsonReader(json);
+        String found = null;
+        r.expect('{');
+        if (!r.consume('}')) {
+            do {
+                String key = r.string();
+                r.expect(':');
+                r.skipWhitespace();
+                boolean quoted = r.pos < r.s.length() && r.s.charAt(r.pos) == '"';
+                String value = r.value();
+                if (key.equals(name)) {
+                    if (value != null && !quoted) throw r.error("Zeichenkette für \"" + name + "\" erwartet");
+                    found = value;
+                }
+            } while (r.consume(','));
+            r.expect('}');
+        }
+        r.skipWhitespace();
+        if (r.pos != r.s.length()) throw r.error("Unerwartete Zeichen am Ende");
+        return found;
+    }
+
+    private String value() {
+        skipWhitespace();
+        if (pos < s.length() && s.charAt(pos) == '"') return string();
+        int start = pos;
+        while (pos < s.length() && "-+.eE0123456789truefalsn".indexOf(s.charAt(pos)) >= 0) pos++;
+        String literal = s.substring(start, pos);
+        if (literal.equals("null")) return null;
+        if (literal.equals("true") || literal.equals("false")) return literal;
+        try {
+            Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            throw error("Wert erwartet");
+        }
+        return literal;
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (pos >= s.length()) throw error("Zeichenkette nicht beendet");
+            char c = s.charAt(pos++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= s.length()) throw error("Zeichenkette nicht beendet");
+            char e = s.charAt(pos++);
+            switch (e) {
+                case '"', '\\', '/' -> sb.append(e);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > s.length()) throw error("Unvollständige \\u-Folge");
+                    try {
+                        sb.append((char) Integer.parseInt(s, pos, pos + 4, 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("Ungültige \\u-Folge");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("Unbekannte Maskierung \\" + e);
+            }
+        }
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) throw error("'" + c + "' erwartet");
+    }
+
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (pos < s.length() && s.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " an Position " + pos);
+    }
+}
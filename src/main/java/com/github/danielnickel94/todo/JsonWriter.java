@@ -0,0 +1,145 @@
+package com.github.danielnickel94.todo;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Schreibt JSON direkt in einen {@link Writer}, ohne Zwischen-Strings: Zeichenketten werden
+ * Zeichen für Zeichen maskiert, Kommas ergeben sich aus dem Verschachtelungszustand. So lassen
+ * sich auch sehr große Listen aus einem Stream heraus ausgeben.
+ */
+final class JsonWriter implements Flushable {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final char[] digits = new char[20];
+    // je Ebene: wurde dort schon ein Wert geschrieben? (für das Komma davor)
+    private boolean[] hasValue = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) out.write("null");
+        else string(value);
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        separate();
+        if (value == Long.MIN_VALUE) { // hat keinen positiven Gegenwert
+            out.write("-9223372036854775808");
+            return this;
+        }
+        int pos = digits.length;
+        long v = Math.abs(value);
+        do {
+            digits[--pos] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (value < 0) digits[--pos] = '-';
+        out.write(digits, pos, digits.length - pos);
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /** {@code {"id":1,"text":"...","done":false}}, mit Termin/Priorität zusätzlich {@code "due":"2026-10-20T07:00:00Z","priority":3}. */
+    JsonWriter todo(Todo t) throws IOException {
+        beginObject()
+                .name("id").value(t.getId())
+                .name("text").value(t.getText())
+                .name("done").value(t.isDone());
+        if (t.getDue() != null) name("due").value(t.getDue().toString());
+        if (t.getPriority() != 0) name("priority").value(t.getPriority());
+        return endObject();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private JsonWriter open(char c) throws IOException {
+        separate();
+        out.write(c);
+        if (++depth == hasValue.length) hasValue = Arrays.copyOf(hasValue, depth * 2);
+        hasValue[depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char c) throws IOException {
+        if (depth == 0) throw new IllegalStateException("Keine offene Ebene.");
+        depth--;
+        out.write(c);
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) { // Wert gehört zum gerade geschriebenen Namen
+            afterName = false;
+            return;
+        }
+        if (hasValue[depth]) out.write(',');
+        hasValue[depth] = true;
+    }
+
+    private void string(String s) throws IOException {
+        out.write('"');
+        int from = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != 0x2028 && c != 0x2029) continue;
+            out.write(s, from, i - from); // unkritischen Teil am Stück
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> { // Steuerzeichen und Zeilentrenner (für eingebettetes JavaScript)
+                    out.write("\\u");
+                    for (int shift = 12; shift >= 0; shift -= 4) out.write(HEX[(c >> shift) & 0xF]);
+                }
+            }
+            from = i + 1;
+        }
+        out.write(s, from, s.length() - from);
+        out.write('"');
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.danielnickel94.todo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latenz-Histogramm nach dem Vorbild von HdrHistogram: Werte bis 31 ns exakt, darüber 32 Stufen
+ * je Zweierpotenz (relativer Fehler unter 3,2 %). Alle Fächer liegen in einem festen Array,
+ * {@link #record} legt daher nichts an und ist ohne Sperre thread-sicher.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    // Exponenten 0..(62 - SUB_BITS) über den exakten Bereich 0..SUB-1
+    private static final int BUCKETS = SUB + (63 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0; // nanoTime ist monoton, aber sicher ist sicher
+        counts.incrementAndGet(bucket(nanos));
+        total.addAndGet(nanos);
+        long m = max.get();
+        while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+    }
+
+    static int bucket(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (msb < SUB_BITS) return (int) value;
+        int shift = msb - SUB_BITS; // Fachbreite 2^shift
+        return SUB + shift * SUB + (int) (value >>> shift) - SUB;
+    }
+
+    /** Größter Wert, der noch in das Fach fällt. */
+    static long upperBound(int bucket) {
+        if (bucket < SUB) return bucket;
+        int shift = (bucket - SUB) / SUB;
+        long start = (long) (SUB + (bucket - SUB) % SUB) << shift;
+        return start + (1L << shift) - 1;
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /** Momentaufnahme für die Auswertung; darf (anders als {@link #record}) Speicher anlegen. */
+    Snapshot snapshot() {
+        long[] c = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += c[i] = counts.get(i);
+        return new Snapshot(c, n, total.get(), max.get());
+    }
+
+    /** Ausgewerteter Stand; Zeiten in Nanosekunden. */
+    record Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+
+        double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /** Obergrenze des Fachs, in dem das {@code p}-Quantil (0..100) liegt, höchstens das Maximum. */
+        long percentile(double p) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), maxNanos);
+            }
+            return maxNanos;
+        }
+    }
+}
@@ -1,13 +1,148 @@
 package com.github.danielnickel94.todo;
 
-import java.util.Scanner;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
 
 public class Main {
     public static void main(String[] args) {
-        TodoService service = new TodoService();
-        service.load("todos.csv");
-        new ConsoleUI(service).run();
+        // Fehler beim Speichern/Laden gibt ein eigener Thread aus, der Autosave wartet nie auf die Konsole
+        int status;
+        try (AsyncPersistenceSink messages = new AsyncPersistenceSink(ConsoleUI::printFailure)) {
+            status = run(args, messages);
+        }
+        if (status != 0) System.exit(status);
+    }
+
+    /** Liefert den Exit-Code; Skript- und Server-Modus melden Fehler darüber. */
+    private static int run(String[] args, PersistenceListener messages) {
+        // --script [datei]: Befehle ohne Menü ausführen (ohne Datei oder mit "-" von stdin)
+        int script = Arrays.asList(args).indexOf("--script");
+        if (script >= 0) {
+            String file = script + 1 < args.length && !args[script + 1].startsWith("--") ? args[script + 1] : "-";
+            return runScript(file, Arrays.asList(args).contains("--compact"), messages);
+        }
+
+        // --server: ein gemeinsamer Service per HTTP/JSON statt der Konsole, Port mit --port=<n>
+        if (Arrays.asList(args).contains("--server")) {
+            return serve(args, messages);
+        }
+
+        // --offheap: Todos liegen in einer eingeblendeten Datei statt auf dem Heap; jede Änderung
+        // steht sofort darin, ein separates Laden/Speichern entfällt
+        if (Arrays.asList(args).contains("--offheap")) {
+            try (OffHeapTodoStore store = OffHeapTodoStore.open(TodoService.inAppDir("todos" + OffHeapTodoStore.EXTENSION))) {
+                TodoService service = new TodoService(store);
+                Thread.ofVirtual().name("todo-jmx").start(() -> registerMetrics(service));
+                service.addPersistenceListener(messages);
+                try (ReminderScheduler _ = new ReminderScheduler(service, ConsoleUI::printReminder)) {
+                    new ConsoleUI(service, () -> { }).run();
+                }
+            } catch (IOException e) {
+                System.out.println("Speicherdatei konnte nicht geöffnet werden: " + e.getMessage());
+            }
+            return 0;
+        }
+
+        // --compact: gleiche Texte nur einmal im Speicher (viele wiederkehrende Aufgaben)
+        TodoService service = new TodoService(Arrays.asList(args).contains("--compact"));
+        // Metriken für JConsole/VisualVM; Speichern/Laden zusätzlich als JFR-Ereignisse.
+        // Das JMX-Subsystem braucht beim ersten Zugriff spürbar Zeit, daher nicht vor dem Menü.
+        Thread.ofVirtual().name("todo-jmx").start(() -> registerMetrics(service));
+        service.addPersistenceListener(messages);
+
+        // --journal: Änderungen anhängen statt bei jedem Autosave die ganze CSV zu schreiben
+        if (Arrays.asList(args).contains("--journal")) {
+            try (TodoJournal journal = TodoJournal.open(service, "todos.csv");
+                 ReminderScheduler _ = new ReminderScheduler(service, ConsoleUI::printReminder)) {
+                new ConsoleUI(service, journal).run();
+            } catch (IOException e) {
+                System.out.println("Journal konnte nicht geöffnet werden: " + e.getMessage());
+            }
+            return 0;
+        }
 
+        // Erinnerungen vor dem Laden anmelden: das Laden meldet den Bestand dann selbst
+        try (ReminderScheduler _ = new ReminderScheduler(service, ConsoleUI::printReminder)) {
+            new ConsoleUI(service).loadInBackground("todos.csv").run();
+        }
+        return 0;
+    }
+
+    /** Exit-Code 1, wenn ein Befehl fehlschlug; die Ausgabe geht gesammelt über einen großen Puffer. */
+    private static int runScript(String file, boolean compact, PersistenceListener messages) {
+        TodoService service = new TodoService(compact);
+        service.addPersistenceListener(messages);
+        service.load("todos.csv"); // das Skript arbeitet auf dem gespeicherten Stand
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()), 1 << 16);
+        try (BufferedReader in = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in), 1 << 16)
+                : Files.newBufferedReader(Path.of(file));
+             AsyncAutosave autosave = new AsyncAutosave(service, "todos.csv")) {
+            return new ScriptRunner(service, autosave, out).run(in) == 0 ? 0 : 1;
+        } catch (IOException e) {
+            System.out.println("Skript konnte nicht gelesen werden: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    // JMX ist nur zur Diagnose: ohne Anmeldung läuft die App weiter; die Meldung stört kein Menü
+    private static void registerMetrics(TodoService service) {
+        if (!service.metrics().register("ToDoApp")) {
+            ConsoleUI.printNotice("Metriken konnten nicht per JMX angemeldet werden (Name \"ToDoApp\" schon vergeben?).");
+        }
+    }
+
+    /** Exit-Code 1 bei ungültigem Port oder wenn der Server nicht starten kann. */
+    private static int serve(String[] args, PersistenceListener messages) {
+        String portArg = Arrays.stream(args).filter(a -> a.startsWith("--port="))
+                .map(a -> a.substring("--port=".length()))
+                .findFirst().orElse("8080");
+        int port;
+        try {
+            port = Integer.parseInt(portArg);
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        if (port < 0 || port > 0xFFFF) {
+            System.out.println("Ungültiger Port: " + portArg + " (erwartet 0 bis 65535)");
+            return 1;
+        }
+        ConcurrentTodoService service = new ConcurrentTodoService(Arrays.asList(args).contains("--compact"));
+        registerMetrics(service);
+        service.addPersistenceListener(messages);
+        service.load("todos.csv");
 
+        // Strg+C: Server sauber beenden (ausstehendes Speichern inklusive), erst dann die JVM
+        CountDownLatch stop = new CountDownLatch(1);
+        Thread main = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stop.countDown();
+            try {
+                main.join();
+            } catch (InterruptedException ignored) {
+                // JVM endet ohnehin
+            }
+        }));
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        try (TodoHttpServer server = new TodoHttpServer(service, new AsyncAutosave(service, "todos.csv"), address).start()) {
+            System.out.println("Server läuft auf http://localhost:" + server.port() + "/todos (beenden mit Strg+C)");
+            stop.await();
+        } catch (IOException e) {
+            System.out.println("Server konnte nicht gestartet werden: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
     }
 }
@@ -0,0 +1,506 @@
+package com.github.danielnickel94.todo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Todo-Ablage außerhalb des Heaps für Bestände, die größer als der Heap werden.
+ * <p>
+ * Datensätze (ID, Status, UTF-8-Text) werden nur angehängt, nie überschrieben: in Blöcke eines
+ * {@link Arena}-Speichers oder, mit {@link #open(Path)}, in eine per Memory-Map eingeblendete Datei.
+ * Auf dem Heap liegt nur eine Tabelle Schlüssel → Position in Seiten zu {@value #PAGE} Einträgen.
+ * Ein Snapshot kopiert lediglich die Seitenzeiger; geänderte Seiten werden danach beim ersten
+ * Schreiben kopiert (Copy-on-Write). Todo-Objekte entstehen erst beim Lesen.
+ * <p>
+ * Dateiformat: Kopf (Magic {@code TDM1}, Blockgröße als Zweierpotenz, logisches Ende), danach
+ * Datensätze {@code PUT key id done [due priority] text}, {@code REMOVE key} und {@code CLEAR}. Beim Öffnen wird
+ * das Log bis zum gespeicherten Ende eingespielt; ein Prozessabsturz verliert nichts, gegen
+ * Stromausfall hilft {@link #force()}. Überwiegen verworfene Datensätze, wird die Datei beim
+ * Öffnen kompaktiert.
+ * <p>
+ * Nicht thread-sicher für Schreiber; Snapshots dürfen aus anderen Threads gelesen werden,
+ * bis der Speicher geschlossen wird.
+ */
+public final class OffHeapTodoStore implements TodoStore, AutoCloseable {
+
+    public static final String EXTENSION = ".tdm";
+
+    static final int DEFAULT_CHUNK_BITS = 26; // 64 MiB je Block
+    private static final int MAGIC = 0x54444D31; // "TDM1"
+    private static final int HEADER = 16;
+    private static final int PUT = 1;
+    private static final int REMOVE = 2;
+    private static final int CLEAR = 3;
+    private static final int PUT_HEADER = 16;
+    private static final int DONE_BIT = 1 << 8;
+    private static final int SCHEDULED_BIT = 1 << 9; // danach due long + priority int vor dem Text
+    private static final int SCHEDULE_BYTES = 12;
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE - 1;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+
+    private final Arena arena = Arena.ofShared();
+    private final FileChannel channel; // null: nur im Speicher
+    private final int chunkBits;
+    private MemorySegment[] chunks = new MemorySegment[0];
+    private long end = HEADER;
+
+    // Schlüssel -> Position des PUT-Datensatzes, 0 = nicht vorhanden
+    private long[][] pages = new long[16][];
+    private int[] pageLive = new int[16];
+    private int[] pageGen = new int[16]; // Seite gehört nur uns, wenn pageGen == gen
+    private int gen = 1;
+    private int size;
+    private int keyLimit;
+    private Snap current; // null: seit dem letzten snapshot() geändert
+
+    private OffHeapTodoStore(FileChannel channel, int chunkBits) {
+        this.channel = channel;
+        this.chunkBits = chunkBits;
+    }
+
+    /**
+     * Rein im Speicher; der Inhalt verschwindet mit {@link #close()}. Zählt gegen
+     * {@code -XX:MaxDirectMemorySize} (Standard: so groß wie der Heap), eine Datei dagegen nicht.
+     */
+    public static OffHeapTodoStore inMemory() {
+        OffHeapTodoStore store = new OffHeapTodoStore(null, DEFAULT_CHUNK_BITS);
+        store.chunk(0);
+        return store;
+    }
+
+    /** Öffnet oder legt eine Speicherdatei an; vorhandener Inhalt steht sofort ohne Parsen bereit. */
+    public static OffHeapTodoStore open(Path file) throws IOException {
+        return open(file, DEFAULT_CHUNK_BITS);
+    }
+
+    static OffHeapTodoStore open(Path file, int chunkBits) throws IOException {
+        OffHeapTodoStore store = openRaw(file, chunkBits);
+        if (store.garbage() > Math.max(store.end / 2, 1 << 20)) {
+            store = compact(file, store);
+        }
+        return store;
+    }
+
+    private static OffHeapTodoStore openRaw(Path file, int chunkBits) throws IOException {
+        FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (ch.size() == 0) {
+                OffHeapTodoStore store = new OffHeapTodoStore(ch, chunkBits);
+                MemorySegment head = store.chunk(0);
+                head.set(INT, 0, MAGIC);
+                head.set(INT, 4, chunkBits);
+                head.set(LONG, 8, HEADER);
+                return store;
+            }
+            if (ch.size() < HEADER) throw new IOException("Keine Todo-Speicherdatei (zu kurz).");
+            MemorySegment probe = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER, Arena.ofAuto());
+            if (probe.get(INT, 0) != MAGIC) throw new IOException("Keine Todo-Speicherdatei (falsche Kennung).");
+            int bits = probe.get(INT, 4);
+            long end = probe.get(LONG, 8);
+            if (bits < 12 || bits > 30 || end < HEADER || end > ch.size()) {
+                throw new IOException("Beschädigter Dateikopf.");
+            }
+            OffHeapTodoStore store = new OffHeapTodoStore(ch, bits);
+            store.replay(end);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Schreibt nur die gültigen Datensätze in eine neue Datei (gleiche Schlüssel) und ersetzt die alte. */
+    private static OffHeapTodoStore compact(Path file, OffHeapTodoStore old) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try (OffHeapTodoStore fresh = openRaw(tmp, old.chunkBits)) {
+            TodoSnapshot.Cursor it = old.snapshot().iteratorAt(0);
+            while (it.hasNext()) {
+                Todo t = it.next();
+                fresh.put(it.lastKey(), t);
+            }
+            fresh.force();
+        } finally {
+            old.close();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return openRaw(file, old.chunkBits);
+    }
+
+    /* ===================== TodoStore ===================== */
+
+    @Override
+    public Todo get(int key) {
+        long pos = slot(pages, key);
+        return pos == 0 ? null : decode(chunks, chunkBits, pos);
+    }
+
+    @Override
+    public void put(int key, Todo todo) {
+        byte[] text = todo.getText() == null ? null : todo.getText().getBytes(StandardCharsets.UTF_8);
+        int len = text == null ? -1 : text.length;
+        int head = PUT | (todo.isDone() ? DONE_BIT : 0) | (todo.isScheduled() ? SCHEDULED_BIT : 0);
+        int bytes = putBytes(head, len);
+        long pos = reserve(bytes);
+        MemorySegment seg = chunks[(int) (pos >>> chunkBits)];
+        long at = pos & chunkMask();
+        seg.set(INT, at, head);
+        seg.set(INT, at + 4, key);
+        seg.set(INT, at + 8, todo.getId());
+        seg.set(INT, at + 12, len);
+        long textAt = at + PUT_HEADER;
+        if (todo.isScheduled()) {
+            seg.set(LONG, textAt, todo.getDue() == null ? Long.MIN_VALUE : todo.getDue().toEpochMilli());
+            seg.set(INT, textAt + 8, todo.getPriority());
+            textAt += SCHEDULE_BYTES;
+        }
+        if (len > 0) MemorySegment.copy(text, 0, seg, ValueLayout.JAVA_BYTE, textAt, len);
+        commit(pos + bytes);
+        setSlot(key, pos);
+    }
+
+    @Override
+    public void remove(int key) {
+        if (slot(pages, key) == 0) return;
+        long pos = reserve(8);
+        MemorySegment seg = chunks[(int) (pos >>> chunkBits)];
+        seg.set(INT, pos & chunkMask(), REMOVE);
+        seg.set(INT, (pos & chunkMask()) + 4, key);
+        commit(pos + 8);
+        setSlot(key, 0);
+    }
+
+    @Override
+    public void replaceAll(List<Todo> todos) {
+        long pos = reserve(8);
+        chunks[(int) (pos >>> chunkBits)].set(INT, pos & chunkMask(), CLEAR);
+        commit(pos + 8);
+        resetSlots();
+        for (int i = 0; i < todos.size(); i++) put(i, todos.get(i));
+    }
+
+    @Override
+    public TodoSnapshot snapshot() {
+        Snap s = current;
+        if (s == null) {
+            int used = (keyLimit + PAGE - 1) >>> PAGE_BITS;
+            s = new Snap(Arrays.copyOf(pages, used), Arrays.copyOf(pageLive, used), chunks, chunkBits, size, keyLimit);
+            current = s;
+            gen++; // ab jetzt gehören alle Seiten auch dem Snapshot
+        }
+        return s;
+    }
+
+    @Override
+    public boolean heapIndexes() {
+        return false;
+    }
+
+    /** Schreibt eingeblendete Dateiblöcke auf den Datenträger; ohne Datei wirkungslos. */
+    public void force() {
+        if (channel == null) return;
+        for (MemorySegment c : chunks) c.force();
+    }
+
+    /** Gibt den Speicher frei; Snapshots sind danach nicht mehr lesbar. */
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+        } finally {
+            arena.close();
+            if (channel != null) channel.close();
+        }
+    }
+
+    /* ===================== Log ===================== */
+
+    private long chunkMask() {
+        return (1L << chunkBits) - 1;
+    }
+
+    /** Platz für einen Datensatz; er wird nie über eine Blockgrenze geteilt. */
+    private long reserve(int bytes) {
+        long chunkSize = 1L << chunkBits;
+        if (bytes > chunkSize - HEADER) {
+            throw new IllegalArgumentException("Text zu lang für den Off-Heap-Speicher (" + bytes + " Bytes).");
+        }
+        long pos = end;
+        if ((pos & chunkMask()) + bytes > chunkSize) pos = ((pos >>> chunkBits) + 1) << chunkBits;
+        chunk((int) (pos >>> chunkBits));
+        return pos;
+    }
+
+    private void commit(long newEnd) {
+        end = (newEnd + 3) & ~3L; // 4-Byte-ausgerichtet
+        chunks[0].set(LONG, 8, end);
+    }
+
+    /** Blendet Block {@code i} ein bzw. legt ihn an. */
+    private MemorySegment chunk(int i) {
+        if (i < chunks.length) return chunks[i];
+        MemorySegment[] grown = Arrays.copyOf(chunks, i + 1); // neues Array: Snapshots behalten ihr altes
+        long chunkSize = 1L << chunkBits;
+        try {
+            for (int c = chunks.length; c <= i; c++) {
+                grown[c] = channel == null
+                        ? arena.allocate(chunkSize, 8)
+                        : channel.map(FileChannel.MapMode.READ_WRITE, (long) c << chunkBits, chunkSize, arena);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Speicherdatei kann nicht wachsen: " + e.getMessage(), e);
+        }
+        chunks = grown;
+        return grown[i];
+    }
+
+    private void replay(long logicalEnd) throws IOException {
+        long chunkSize = 1L << chunkBits;
+        chunk((int) ((logicalEnd - 1) >>> chunkBits));
+        long pos = HEADER;
+        while (pos < logicalEnd) {
+            long at = pos & chunkMask();
+            if (chunkSize - at < 8) {
+                pos = ((pos >>> chunkBits) + 1) << chunkBits;
+                continue;
+            }
+            MemorySegment seg = chunks[(int) (pos >>> chunkBits)];
+            int kind = seg.get(INT, at) & 0xFF;
+            switch (kind) {
+                case 0 -> { // Rest des Blocks ungenutzt
+                    pos = ((pos >>> chunkBits) + 1) << chunkBits;
+                    continue;
+                }
+                case PUT -> {
+                    int key = seg.get(INT, at + 4);
+                    int bytes = putBytes(seg.get(INT, at), seg.get(INT, at + 12));
+                    if (key < 0 || at + bytes > chunkSize) throw corrupt(pos);
+                    setSlot(key, pos);
+                    pos += bytes;
+                }
+                case REMOVE -> {
+                    int key = seg.get(INT, at + 4);
+                    if (key < 0) throw corrupt(pos);
+                    setSlot(key, 0);
+                    pos += 8;
+                }
+                case CLEAR -> {
+                    resetSlots();
+                    pos += 8;
+                }
+                default -> throw corrupt(pos);
+            }
+            pos = (pos + 3) & ~3L;
+        }
+        end = logicalEnd;
+    }
+
+    private static int putBytes(int head, int len) {
+        return PUT_HEADER + ((head & SCHEDULED_BIT) != 0 ? SCHEDULE_BYTES : 0) + Math.max(len, 0);
+    }
+
+    private static IOException corrupt(long pos) {
+        return new IOException("Beschädigter Datensatz bei Offset " + pos + ".");
+    }
+
+    /** Bytes im Log, die zu keinem aktuellen Todo mehr gehören. */
+    private long garbage() {
+        long live = 0;
+        for (int p = 0; p < pages.length; p++) {
+            if (pages[p] == null) continue;
+            for (long pos : pages[p]) {
+                if (pos == 0) continue;
+                MemorySegment seg = chunks[(int) (pos >>> chunkBits)];
+                live += putBytes(seg.get(INT, pos & chunkMask()), seg.get(INT, (pos & chunkMask()) + 12));
+            }
+        }
+        return end - HEADER - live;
+    }
+
+    /* ===================== Schlüsseltabelle ===================== */
+
+    private void setSlot(int key, long pos) {
+        int p = key >>> PAGE_BITS;
+        if (p >= pages.length) {
+            int n = Math.max(p + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, n);
+            pageLive = Arrays.copyOf(pageLive, n);
+            pageGen = Arrays.copyOf(pageGen, n);
+        }
+        long[] page = pages[p];
+        if (page == null) {
+            if (pos == 0) return;
+            page = pages[p] = new long[PAGE];
+            pageGen[p] = gen;
+        } else if (pageGen[p] != gen) {
+            page = pages[p] = page.clone();
+            pageGen[p] = gen;
+        }
+        long old = page[key & PAGE_MASK];
+        page[key & PAGE_MASK] = pos;
+        if (old == 0 && pos != 0) {
+            pageLive[p]++;
+            size++;
+        } else if (old != 0 && pos == 0) {
+            pageLive[p]--;
+            size--;
+        }
+        if (key >= keyLimit) keyLimit = key + 1;
+        current = null;
+    }
+
+    private void resetSlots() {
+        pages = new long[16][];
+        pageLive = new int[16];
+        pageGen = new int[16];
+        size = 0;
+        keyLimit = 0;
+        current = null;
+    }
+
+    private static long slot(long[][] pages, int key) {
+        if (key < 0) return 0;
+        int p = key >>> PAGE_BITS;
+        if (p >= pages.length || pages[p] == null) return 0;
+        return pages[p][key & PAGE_MASK];
+    }
+
+    private static Todo decode(MemorySegment[] chunks, int chunkBits, long pos) {
+        MemorySegment seg = chunks[(int) (pos >>> chunkBits)];
+        long at = pos & ((1L << chunkBits) - 1);
+        int head = seg.get(INT, at);
+        int id = seg.get(INT, at + 8);
+        int len = seg.get(INT, at + 12);
+        long textAt = at + PUT_HEADER;
+        Instant due = null;
+        int priority = 0;
+        if ((head & SCHEDULED_BIT) != 0) {
+            long millis = seg.get(LONG, textAt);
+            if (millis != Long.MIN_VALUE) due = Instant.ofEpochMilli(millis);
+            priority = seg.get(INT, textAt + 8);
+            textAt += SCHEDULE_BYTES;
+        }
+        String text = null;
+        if (len >= 0) {
+            byte[] bytes = new byte[len];
+            MemorySegment.copy(seg, ValueLayout.JAVA_BYTE, textAt, bytes, 0, len);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Todo(id, text, (head & DONE_BIT) != 0, due, priority);
+    }
+
+    /** Unveränderlicher Stand: eingefrorene Seiten plus die bis dahin eingeblendeten Blöcke. */
+    private static final class Snap extends TodoSnapshot {
+        private final long[][] pages;
+        private final int[] pageLive;
+        private final MemorySegment[] chunks;
+        private final int chunkBits;
+        private final int size;
+        private final int keyLimit;
+
+        Snap(long[][] pages, int[] pageLive, MemorySegment[] chunks, int chunkBits, int size, int keyLimit) {
+            this.pages = pages;
+            this.pageLive = pageLive;
+            this.chunks = chunks;
+            this.chunkBits = chunkBits;
+            this.size = size;
+            this.keyLimit = keyLimit;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Todo get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index);
+            return getByKey(keyAt(index));
+        }
+
+        @Override
+        Todo getByKey(int key) {
+            long pos = slot(pages, key);
+            return pos == 0 ? null : decode(chunks, chunkBits, pos);
+        }
+
+        @Override
+        Cursor iteratorAt(int index) {
+            return new SlotCursor(index < 0 || index >= size ? keyLimit : keyAt(index));
+        }
+
+        @Override
+        Cursor iteratorFromKey(int key) {
+            return new SlotCursor(Math.max(key, 0));
+        }
+
+        /** Schlüssel des {@code index}-ten Eintrags: ganze Seiten über ihre Zähler überspringen. */
+        private int keyAt(int index) {
+            int p = 0;
+            while (index >= pageLive[p]) index -= pageLive[p++];
+            long[] page = pages[p];
+            for (int i = 0; ; i++) {
+                if (page[i] != 0 && index-- == 0) return (p << PAGE_BITS) + i;
+            }
+        }
+
+        private int nextKey(int key) {
+            while (key < keyLimit) {
+                int p = key >>> PAGE_BITS;
+                if (pageLive[p] == 0) {
+                    key = (p + 1) << PAGE_BITS;
+                    continue;
+                }
+                if (pages[p][key & PAGE_MASK] != 0) return key;
+                key++;
+            }
+            return keyLimit;
+        }
+
+        private final class SlotCursor implements Cursor {
+            private int next;
+            private int lastKey = -1;
+
+            SlotCursor(int from) {
+                next = nextKey(from);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < keyLimit;
+            }
+
+            @Override
+            public Todo next() {
+                if (next >= keyLimit) throw new NoSuchElementException();
+                lastKey = next;
+                next = nextKey(next + 1);
+                return getByKey(lastKey);
+            }
+
+            @Override
+            public int lastKey() {
+                return lastKey;
+            }
+        }
+    }
+}
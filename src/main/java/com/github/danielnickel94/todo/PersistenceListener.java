@@ -0,0 +1,12 @@
+package com.github.danielnickel94.todo;
+
+/**
+ * Wird von {@link TodoService} nach jedem Speichern und Laden aufgerufen, auch bei Fehlern.
+ * Der Aufruf kommt aus dem Thread, der gespeichert hat (z. B. dem Autosave), und sollte daher
+ * nicht blockieren; siehe {@link AsyncPersistenceSink}.
+ */
+@FunctionalInterface
+public interface PersistenceListener {
+
+    void persisted(PersistenceResult result);
+}
@@ -0,0 +1,20 @@
+package com.github.danielnickel94.todo;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Ergebnis eines Speicher- oder Ladevorgangs.
+ *
+ * @param operation {@code SAVE}, {@code LOAD} oder {@code IMPORT}
+ * @param bytes     Dateigröße; 0, wenn nichts gelesen oder geschrieben wurde
+ * @param todos     geschriebene bzw. übernommene Todos
+ * @param error     Fehlermeldung oder {@code null} bei Erfolg
+ */
+public record PersistenceResult(TodoMetrics.Operation operation, Path path, long bytes, int todos,
+                                Duration duration, String error) {
+
+    public boolean ok() {
+        return error == null;
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.danielnickel94.todo;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Unveränderliche, geordnete Todo-Liste als persistenter AVL-Baum (Pfadkopie).
+ * <p>
+ * Einträge sind nach einem Ordnungsschlüssel (Einfügereihenfolge) sortiert. Jede Änderung liefert
+ * eine neue Instanz in O(log n) und teilt alle unveränderten Knoten mit der alten;
+ * alte Instanzen bleiben gültig und können gefahrlos weitergegeben werden.
+ * {@link #get(int)} arbeitet über Teilbaumgrößen ebenfalls in O(log n).
+ */
+final class PersistentTodoList extends TodoSnapshot {
+
+    static final PersistentTodoList EMPTY = new PersistentTodoList(null);
+
+    private final Node root;
+
+    private PersistentTodoList(Node root) {
+        this.root = root;
+    }
+
+    /** Baut einen balancierten Baum mit den Schlüsseln {@code 0..n-1} in O(n). */
+    static PersistentTodoList of(List<Todo> todos) {
+        Todo[] arr = todos.toArray(new Todo[0]);
+        return new PersistentTodoList(build(arr, 0, arr.length - 1));
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public Todo get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index);
+        Node n = root;
+        while (true) {
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                n = n.left;
+            } else if (index == leftSize) {
+                return n.value;
+            } else {
+                index -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    @Override
+    Todo getByKey(int key) {
+        Node n = root;
+        while (n != null) {
+            if (key < n.key) n = n.left;
+            else if (key > n.key) n = n.right;
+            else return n.value;
+        }
+        return null;
+    }
+
+    /** Fügt ein oder ersetzt den Wert zum Schlüssel. */
+    PersistentTodoList put(int key, Todo value) {
+        return new PersistentTodoList(put(root, key, value));
+    }
+
+    PersistentTodoList removeKey(int key) {
+        Node r = remove(root, key);
+        return r == root ? this : new PersistentTodoList(r);
+    }
+
+    /** Der Einstieg kostet O(log n). */
+    @Override
+    Cursor iteratorAt(int index) {
+        NodeCursor c = new NodeCursor();
+        Node n = root;
+        while (n != null) {
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                c.stack.push(n);
+                n = n.left;
+            } else if (index == leftSize) {
+                c.stack.push(n);
+                break;
+            } else {
+                index -= leftSize + 1;
+                n = n.right;
+            }
+        }
+        return c;
+    }
+
+    /** Der Einstieg kostet O(log n). */
+    @Override
+    Cursor iteratorFromKey(int key) {
+        NodeCursor c = new NodeCursor();
+        Node n = root;
+        while (n != null) {
+            if (key <= n.key) {
+                c.stack.push(n);
+                if (key == n.key) break;
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+        }
+        return c;
+    }
+
+    /** In-Order-Iterator über einen expliziten Stapel. */
+    private static final class NodeCursor implements Cursor {
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+        private int lastKey = -1;
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Todo next() {
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            Node n = stack.pop();
+            for (Node r = n.right; r != null; r = r.left) stack.push(r);
+            lastKey = n.key;
+            return n.value;
+        }
+
+        @Override
+        public int lastKey() {
+            return lastKey;
+        }
+    }
+
+    /* ===================== AVL ===================== */
+
+    private static final class Node {
+        final int key;
+        final Todo value;
+        final Node left;
+        final Node right;
+        final int height;
+        final int size;
+
+        Node(int key, Todo value, Node left, Node right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static Node build(Todo[] arr, int lo, int hi) {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        return new Node(mid, arr[mid], build(arr, lo, mid - 1), build(arr, mid + 1, hi));
+    }
+
+    private static Node put(Node n, int key, Todo value) {
+        if (n == null) return new Node(key, value, null, null);
+        if (key < n.key) return balance(n.key, n.value, put(n.left, key, value), n.right);
+        if (key > n.key) return balance(n.key, n.value, n.left, put(n.right, key, value));
+        return new Node(key, value, n.left, n.right);
+    }
+
+    private static Node remove(Node n, int key) {
+        if (n == null) return null;
+        if (key < n.key) {
+            Node l = remove(n.left, key);
+            return l == n.left ? n : balance(n.key, n.value, l, n.right);
+        }
+        if (key > n.key) {
+            Node r = remove(n.right, key);
+            return r == n.right ? n : balance(n.key, n.value, n.left, r);
+        }
+        if (n.left == null) return n.right;
+        if (n.right == null) return n.left;
+        Node min = n.right;
+        while (min.left != null) min = min.left;
+        return balance(min.key, min.value, n.left, remove(n.right, min.key));
+    }
+
+    private static Node balance(int key, Todo value, Node l, Node r) {
+        int diff = height(l) - height(r);
+        if (diff > 1) {
+            if (height(l.left) >= height(l.right)) {
+                return new Node(l.key, l.value, l.left, new Node(key, value, l.right, r));
+            }
+            Node lr = l.right;
+            return new Node(lr.key, lr.value,
+                    new Node(l.key, l.value, l.left, lr.left),
+                    new Node(key, value, lr.right, r));
+        }
+        if (diff < -1) {
+            if (height(r.right) >= height(r.left)) {
+                return new Node(r.key, r.value, new Node(key, value, l, r.left), r.right);
+            }
+            Node rl = r.left;
+            return new Node(rl.key, rl.value,
+                    new Node(key, value, l, rl.left),
+                    new Node(r.key, r.value, rl.right, r.right));
+        }
+        return new Node(key, value, l, r);
+    }
+}
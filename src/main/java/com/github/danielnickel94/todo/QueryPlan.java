@@ -0,0 +1,36 @@
+package com.github.danielnickel94.todo;
+
+/**
+ * Vom Service gewählter Zugriffsweg für eine {@link TodoQuery}.
+ *
+ * @param access   Quelle der Kandidaten
+ * @param estimate geschätzte Kandidatenzahl (Obergrenze)
+ * @param topK     Sortierung über einen begrenzten Heap statt über den Sortierindex
+ */
+record QueryPlan(Access access, long estimate, boolean topK) {
+
+    enum Access {
+        /** Alle Todos in Listenreihenfolge. */
+        SCAN,
+        /** Offen- bzw. Erledigt-Bitset. */
+        STATUS_BITS,
+        /** Trigramm-Index. */
+        TEXT_INDEX,
+        /** ID-Index über einen kleinen ID-Bereich. */
+        ID_RANGE,
+        /** Sortierindex, bricht nach dem Limit ab. */
+        SORTED_VIEW
+    }
+
+    String describe(TodoQuery q) {
+        StringBuilder sb = new StringBuilder(access.name()).append(" (~").append(estimate).append(" Kandidaten)");
+        sb.append(" -> Filter");
+        if (topK) {
+            sb.append(" -> Top-").append(q.limit() == Integer.MAX_VALUE ? "alle" : String.valueOf(q.limit()));
+            sb.append(q.order() == TodoQuery.Order.TEXT_ASC ? " nach Text aufsteigend" : " nach Text absteigend");
+        } else if (q.limit() != Integer.MAX_VALUE) {
+            sb.append(" -> Abbruch nach ").append(q.limit());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.danielnickel94.todo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Erinnert an offene Todos, sobald ihr Termin erreicht ist; beim Start schon überfällige sofort.
+ * <p>
+ * Ein einziger Timer-Thread schläft bis zum frühesten Termin und wird nur geweckt, wenn sich dieser
+ * ändert – kein Abfragen im Takt, egal wie viele Todos einen Termin haben. Die anstehenden
+ * Erinnerungen hält der Scheduler selbst (Heap nach Termin), gepflegt über die {@link ChangeListener}-
+ * Meldungen des Service; er liest den Service nach dem Anmelden nie wieder. Jedes Todo wird einmal je
+ * gesetztem Termin erinnert; erledigte und gelöschte gar nicht.
+ */
+public final class ReminderScheduler implements ChangeListener, AutoCloseable {
+
+    private final TodoService service;
+    private final Consumer<Todo> reminder;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // unter lock
+    private final IndexedHeap dueHeap = new IndexedHeap();
+    private final Map<Integer, Todo> pending = new HashMap<>();
+    private final Map<Integer, Long> reminded = new HashMap<>(); // id → Termin, an den schon erinnert wurde
+    private boolean closed;
+    private final Thread timer;
+
+    /** {@code reminder} läuft im Timer-Thread; er sollte kurz sein, sonst verspäten sich spätere Erinnerungen. */
+    public ReminderScheduler(TodoService service, Consumer<Todo> reminder) {
+        this.service = service;
+        this.reminder = reminder;
+        service.addListenerWithState(this);
+        this.timer = Thread.ofVirtual().name("todo-reminder").start(this::loop);
+    }
+
+    /** Anzahl noch ausstehender Erinnerungen. */
+    public int pending() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Meldet sich beim Service ab und beendet den Timer; ausstehende Erinnerungen verfallen. */
+    @Override
+    public void close() {
+        service.removeListener(this);
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            timer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* ===================== Timer ===================== */
+
+    private void loop() {
+        try {
+            while (true) {
+                List<Todo> due = new ArrayList<>();
+                lock.lock();
+                try {
+                    long wait;
+                    while (!closed && (wait = untilNext()) > 0) {
+                        if (wait == Long.MAX_VALUE) changed.await();
+                        else changed.await(wait, TimeUnit.MILLISECONDS);
+                    }
+                    if (closed) return;
+                    long now = System.currentTimeMillis();
+                    while (dueHeap.size() > 0 && dueHeap.peekKey() <= now) {
+                        int id = dueHeap.peekId();
+                        reminded.put(id, dueHeap.peekKey());
+                        dueHeap.remove(id);
+                        due.add(pending.remove(id));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                // außerhalb der Sperre: eine langsame Ausgabe hält keine Änderung am Service auf
+                for (Todo t : due) {
+                    try {
+                        reminder.accept(t);
+                    } catch (RuntimeException e) {
+                        // ein fehlerhafter Empfänger darf den Timer nicht beenden
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // unter lock; ms bis zum frühesten Termin, Long.MAX_VALUE ohne Termin
+    private long untilNext() {
+        return dueHeap.size() == 0 ? Long.MAX_VALUE : dueHeap.peekKey() - System.currentTimeMillis();
+    }
+
+    /* ===================== ChangeListener ===================== */
+
+    @Override
+    public void added(Todo todo) {
+        lock.lock();
+        try {
+            track(todo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void textUpdated(int id, String text) {
+        lock.lock();
+        try {
+            Todo t = pending.get(id);
+            if (t != null) pending.put(id, t.withText(text)); // Termin bleibt, also kein Wecken nötig
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void markedDone(int id) {
+        lock.lock();
+        try {
+            reminded.remove(id);
+            untrack(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void scheduled(Todo todo) {
+        lock.lock();
+        try {
+            track(todo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removed(int id) {
+        lock.lock();
+        try {
+            reminded.remove(id);
+            untrack(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void loaded(List<Todo> todos) {
+        lock.lock();
+        try {
+            dueHeap.clear();
+            pending.clear();
+            Map<Integer, Long> before = new HashMap<>(reminded);
+            reminded.clear();
+            for (Todo t : todos) {
+                Long r = before.get(t.getId()); // gleicher Termin nach dem Laden → nicht noch einmal
+                if (r != null) reminded.put(t.getId(), r);
+                track(t);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // unter lock; weckt den Timer nur, wenn sich der früheste Termin ändern kann
+    private void track(Todo t) {
+        if (t.getDue() == null || t.isDone()) {
+            reminded.remove(t.getId());
+            untrack(t.getId());
+            return;
+        }
+        long due = t.getDue().toEpochMilli();
+        Long r = reminded.get(t.getId());
+        if (r != null) {
+            if (r == due) return; // z. B. nur die Priorität geändert: an diesen Termin wurde schon erinnert
+            reminded.remove(t.getId());
+        }
+        boolean earlier = dueHeap.size() == 0 || due <= dueHeap.peekKey() || dueHeap.peekId() == t.getId();
+        dueHeap.set(t.getId(), due);
+        pending.put(t.getId(), t);
+        if (earlier) changed.signalAll();
+    }
+
+    private void untrack(int id) {
+        if (pending.remove(id) == null) return;
+        // der Timer schläft evtl. bis zu diesem Termin; er prüft beim nächsten Aufwachen ohnehin neu
+        dueHeap.remove(id);
+    }
+}
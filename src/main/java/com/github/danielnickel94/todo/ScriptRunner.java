@@ -0,0 +1,173 @@
+package com.github.danielnickel94.todo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Führt Befehle zeilenweise ohne Menü aus, z. B. aus einer Datei oder einer Pipe:
+ * <pre>
+ * add Einkaufen          → neue ID
+ * update 17 Neuer Text   → ok / nicht gefunden
+ * done 17 | remove 17    → ok / nicht gefunden
+ * due 17 20.10.2026 14:00 | due 17 -   → Termin setzen / entfernen
+ * prio 17 3              → Priorität 0-9
+ * next [n] | top [n]     → die n (Standard 20) nächstfälligen / wichtigsten offenen Todos
+ * list [open|done]       → Todos, eine Zeile je Todo
+ * search was | sort [asc|desc] | count
+ * save [datei] | load [datei]
+ * # Kommentar
+ * </pre>
+ * Alle Ausgaben gehen in einen gepufferten {@link Writer}; gespeichert wird nicht nach jedem
+ * Befehl, sondern einmal am Ende über den {@link Autosave}.
+ */
+public final class ScriptRunner {
+
+    private static final String DEFAULT_CSV = "todos.csv";
+    private static final int NEXT_LIMIT = 20;
+
+    private final TodoService service;
+    private final Autosave autosave;
+    private final Writer out;
+    private boolean changed;
+    private int errors;
+
+    /** {@code out} sollte gepuffert sein; geleert wird erst am Ende von {@link #run}. */
+    public ScriptRunner(TodoService service, Autosave autosave, Writer out) {
+        this.service = service;
+        this.autosave = autosave;
+        this.out = out;
+    }
+
+    /** Führt alle Zeilen aus und liefert die Anzahl fehlerhafter Befehle. */
+    public int run(BufferedReader in) throws IOException {
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            String cmd = line.strip();
+            if (cmd.isEmpty() || cmd.startsWith("#")) continue;
+            try {
+                execute(cmd);
+            } catch (IllegalArgumentException e) {
+                error(lineNo, e.getMessage());
+            }
+        }
+        if (changed) {
+            autosave.changed(); // einmal für das ganze Skript
+            if (!autosave.flush()) error(lineNo, "Automatisches Speichern fehlgeschlagen.");
+        }
+        out.flush();
+        return errors;
+    }
+
+    private void execute(String cmd) throws IOException {
+        int space = cmd.indexOf(' ');
+        String verb = space < 0 ? cmd : cmd.substring(0, space);
+        String arg = space < 0 ? "" : cmd.substring(space + 1).strip();
+        switch (verb) {
+            case "add" -> {
+                int id = service.add(arg);
+                changed = true;
+                out.write(Integer.toString(id));
+                out.write('\n');
+            }
+            case "update" -> {
+                int split = arg.indexOf(' ');
+                if (split < 0) throw new IllegalArgumentException("Aufruf: update <id> <text>");
+                String text = arg.substring(split + 1).strip();
+                if (text.isEmpty()) throw new IllegalArgumentException("Text darf nicht leer sein.");
+                result(service.updateText(id(arg.substring(0, split)), text), arg.substring(0, split));
+            }
+            case "done" -> result(service.markDone(id(arg)), arg);
+            case "remove" -> result(service.remove(id(arg)), arg);
+            case "due" -> {
+                int split = arg.indexOf(' ');
+                if (split < 0) throw new IllegalArgumentException("Aufruf: due <id> <datum|->");
+                String raw = arg.substring(split + 1).strip();
+                result(service.setDue(id(arg.substring(0, split)), raw.equals("-") ? null : Todo.parseDue(raw)), arg.substring(0, split));
+            }
+            case "prio" -> {
+                String[] p = arg.split("\\s+");
+                if (p.length != 2) throw new IllegalArgumentException("Aufruf: prio <id> <0-" + Todo.MAX_PRIORITY + ">");
+                result(service.setPriority(id(p[0]), number(p[1])), p[0]);
+            }
+            case "next" -> print(service.nextDue(arg.isEmpty() ? NEXT_LIMIT : number(arg)).stream());
+            case "top" -> print(service.topByPriority(arg.isEmpty() ? NEXT_LIMIT : number(arg)).stream());
+            case "list" -> print(switch (arg) {
+                case "" -> service.stream();
+                case "open" -> service.streamOpen();
+                case "done" -> service.streamDone();
+                default -> throw new IllegalArgumentException("Aufruf: list [open|done]");
+            });
+            case "search" -> print(service.searchStream(arg));
+            case "sort" -> print(service.sortedStream(!arg.equals("desc")));
+            case "count" -> {
+                out.write(service.countOpen() + " offen, " + service.countDone() + " erledigt");
+                out.write('\n');
+            }
+            case "save" -> {
+                if (!service.save(arg.isEmpty() ? DEFAULT_CSV : arg)) throw new IllegalArgumentException("Speichern fehlgeschlagen.");
+                out.write("ok\n");
+            }
+            case "load" -> {
+                autosave.flush(); // ausstehendes Speichern nicht über den neuen Stand schreiben lassen
+                if (!service.load(arg.isEmpty() ? DEFAULT_CSV : arg)) throw new IllegalArgumentException("Laden fehlgeschlagen.");
+                changed = false;
+                out.write("ok\n");
+            }
+            default -> throw new IllegalArgumentException("Unbekannter Befehl: " + verb);
+        }
+    }
+
+    private void result(boolean ok, String id) throws IOException {
+        if (!ok) throw new IllegalArgumentException("ID nicht gefunden: " + id);
+        changed = true;
+        out.write("ok\n");
+    }
+
+    private static int id(String raw) {
+        try {
+            return Integer.parseInt(raw.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültige ID: " + raw);
+        }
+    }
+
+    private static int number(String raw) {
+        try {
+            return Integer.parseInt(raw.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültige Zahl: " + raw);
+        }
+    }
+
+    /** {@code [✔] #17 Text (fällig 20.10.2026 14:00) !3} wie {@link Todo#toString()}, aber ohne Formatierungs-Strings. */
+    private void print(Stream<Todo> todos) throws IOException {
+        for (Iterator<Todo> it = todos.iterator(); it.hasNext(); ) {
+            Todo t = it.next();
+            out.write(t.isDone() ? "[✔] #" : "[ ] #");
+            out.write(Integer.toString(t.getId()));
+            out.write(' ');
+            out.write(String.valueOf(t.getText()));
+            if (t.getDue() != null) {
+                out.write(" (fällig ");
+                out.write(Todo.formatDue(t.getDue()));
+                out.write(')');
+            }
+            if (t.getPriority() != 0) {
+                out.write(" !");
+                out.write(Integer.toString(t.getPriority()));
+            }
+            out.write('\n');
+        }
+    }
+
+    private void error(int lineNo, String message) throws IOException {
+        errors++;
+        out.write("Fehler in Zeile " + lineNo + ": " + message);
+        out.write('\n');
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.danielnickel94.todo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Dauerhaft sortierte Sicht auf die Todos, Groß-/Kleinschreibung ignorierend.
+ * Schlüssel ist ein vorberechneter Vergleichsschlüssel plus ID, damit gleiche Texte eindeutig bleiben.
+ * <p>
+ * Mit {@link TextPool} (kompakter Modus) gibt es je Vergleichsschlüssel nur einen Eintrag mit einer
+ * ID-Menge; die Todos selbst werden beim Lesen über {@code lookup} nachgeschlagen.
+ */
+final class SortedIndex {
+
+    private final TreeMap<Key, Todo> tree = new TreeMap<>();
+    private final TextPool pool;
+    private final TreeMap<String, IdSet> groups; // nur kompakt
+    private final IntFunction<Todo> lookup;      // nur kompakt
+    private final Supplier<Stream<Todo>> unindexed; // ohne Index: sortiert bei Bedarf
+
+    SortedIndex() {
+        this(null, null);
+    }
+
+    SortedIndex(TextPool pool, IntFunction<Todo> lookup) {
+        this(pool, lookup, null);
+    }
+
+    private SortedIndex(TextPool pool, IntFunction<Todo> lookup, Supplier<Stream<Todo>> unindexed) {
+        this.pool = pool;
+        this.lookup = lookup;
+        this.groups = pool != null ? new TreeMap<>() : null;
+        this.unindexed = unindexed;
+    }
+
+    /** Führt keinen Index; jede sortierte Sicht sortiert {@code all} neu (O(n log n)). */
+    static SortedIndex disabled(Supplier<Stream<Todo>> all) {
+        return new SortedIndex(null, null, all);
+    }
+
+    /** Ob sortierte Sichten ohne Sortieraufwand gelesen werden können. */
+    boolean indexed() {
+        return unindexed == null;
+    }
+
+    /**
+     * Vergleichsschlüssel mit derselben Ordnung wie {@link String#compareToIgnoreCase}:
+     * jedes Zeichen wird wie dort über Groß- und dann Kleinbuchstaben normalisiert.
+     */
+    static String collationKey(String text) {
+        if (text == null) return "";
+        char[] out = new char[text.length()];
+        boolean changed = false;
+        for (int i = 0; i < out.length; i++) {
+            char c = text.charAt(i);
+            out[i] = Character.toLowerCase(Character.toUpperCase(c));
+            changed |= out[i] != c;
+        }
+        return changed ? new String(out) : text;
+    }
+
+    /** Nimmt auf oder ersetzt den Wert zu derselben ID (z. B. nach dem Erledigen). */
+    void add(Todo t) {
+        if (unindexed != null) return;
+        if (groups != null) {
+            groups.computeIfAbsent(pool.collationKey(t.getText()), k -> new IdSet()).add(t.getId());
+            return;
+        }
+        tree.put(new Key(collationKey(t.getText()), t.getId()), t);
+    }
+
+    void remove(int id, String text) {
+        if (unindexed != null) return;
+        if (groups != null) {
+            String key = pool.collationKey(text);
+            IdSet ids = groups.get(key);
+            if (ids != null && ids.remove(id) && ids.size == 0) groups.remove(key);
+            return;
+        }
+        tree.remove(new Key(collationKey(text), id));
+    }
+
+    void clear() {
+        tree.clear();
+        if (groups != null) groups.clear();
+    }
+
+    /** Liefert höchstens {@code limit} Todos ab Position {@code offset} in der gewünschten Richtung. */
+    List<Todo> page(boolean asc, int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit dürfen nicht negativ sein.");
+        if (unindexed != null) {
+            // nur die ersten offset + limit landen im Heap, nicht der ganze (evtl. off-heap liegende) Bestand
+            List<Todo> top = topK(unindexed.get(), asc, (int) Math.min((long) offset + limit, Integer.MAX_VALUE));
+            return top.subList(Math.min(offset, top.size()), top.size());
+        }
+        return stream(asc).skip(offset).limit(limit).toList();
+    }
+
+    /**
+     * Lazy in der gewünschten Richtung; vor der nächsten Änderung verbrauchen (ohne Pool fail-fast).
+     * Ohne Index ({@link #disabled}) nicht lazy: sortiert wird vorab alles, das braucht O(n) Heap.
+     * Für große Bestände dann {@link #page} verwenden.
+     */
+    Stream<Todo> stream(boolean asc) {
+        if (unindexed != null) return topK(unindexed.get(), asc, Integer.MAX_VALUE).stream();
+        if (groups != null) {
+            return (asc ? groups : groups.descendingMap()).values().stream()
+                    .flatMapToInt(ids -> ids.stream(asc))
+                    .mapToObj(lookup);
+        }
+        return (asc ? tree : tree.descendingMap()).values().stream();
+    }
+
+    /**
+     * Die {@code k} ersten Todos in Sortierreihenfolge über einen begrenzten Heap:
+     * O(m log k) für m Eingaben statt alles zu sortieren.
+     */
+    static List<Todo> topK(Stream<Todo> in, boolean asc, int k) {
+        if (k == 0) return List.of();
+        Comparator<Ranked> order = asc ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(Math.min(k, 1024), order.reversed()); // schlechtester oben
+        in.forEach(t -> {
+            Ranked r = new Ranked(new Key(collationKey(t.getText()), t.getId()), t);
+            if (heap.size() < k) {
+                heap.add(r);
+            } else if (order.compare(r, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(r);
+            }
+        });
+        Ranked[] sorted = heap.toArray(new Ranked[0]);
+        Arrays.sort(sorted, order);
+        List<Todo> out = new ArrayList<>(sorted.length);
+        for (Ranked r : sorted) out.add(r.todo);
+        return List.copyOf(out);
+    }
+
+    private record Ranked(Key key, Todo todo) implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked o) {
+            return key.compareTo(o.key);
+        }
+    }
+
+    private record Key(String collation, int id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key o) {
+            int c = collation.compareTo(o.collation);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.danielnickel94.todo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invertierter Trigramm-Index über den kleingeschriebenen Text der Todos.
+ * Liefert für eine Suche nur Kandidaten-IDs; ob der Text wirklich passt, prüft der Aufrufer.
+ * <p>
+ * Gruppiert (kompakter Modus) werden die Trigramme nur einmal je unterschiedlichem Text
+ * eingetragen; je Todo kostet der Index dann nur noch einen Eintrag in der ID-Menge seines Textes.
+ */
+final class TextIndex {
+
+    static final int GRAM = 3;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // nur gruppiert: gefalteter Text -> Gruppe, Postings enthalten dann Gruppen-Handles statt IDs
+    private final Map<String, Group> groups;
+    private final List<Group> byHandle = new ArrayList<>();
+    private final IdSet freeHandles = new IdSet();
+
+    private final boolean enabled;
+
+    TextIndex() {
+        this(false);
+    }
+
+    TextIndex(boolean grouped) {
+        this(grouped, true);
+    }
+
+    private TextIndex(boolean grouped, boolean enabled) {
+        this.groups = grouped ? new HashMap<>() : null;
+        this.enabled = enabled;
+    }
+
+    /** Führt keinen Index; Suchen prüfen dann alle Todos. */
+    static TextIndex disabled() {
+        return new TextIndex(false, false);
+    }
+
+    /** Gleiche Faltung wie bisher in {@code search}: {@link String#toLowerCase()}. */
+    static String fold(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    void add(int id, String text) {
+        if (!enabled) return;
+        String f = fold(text);
+        if (groups == null) {
+            for (int i = 0; i + GRAM <= f.length(); i++) {
+                postings.computeIfAbsent(key(f, i), k -> new Postings()).add(id);
+            }
+            return;
+        }
+        Group g = groups.get(f);
+        if (g == null) {
+            g = newGroup(f);
+            groups.put(f, g);
+        }
+        if (g.ids.add(id)) {
+            for (long k : g.keys) postings.get(k).weight++;
+        }
+    }
+
+    void remove(int id, String text) {
+        if (!enabled) return;
+        String f = fold(text);
+        if (groups == null) {
+            for (int i = 0; i + GRAM <= f.length(); i++) {
+                Long k = key(f, i);
+                Postings p = postings.get(k);
+                if (p != null && p.remove(id) && p.size == 0) postings.remove(k);
+            }
+            return;
+        }
+        Group g = groups.get(f);
+        if (g == null || !g.ids.remove(id)) return;
+        for (long k : g.keys) postings.get(k).weight--;
+        if (g.ids.size == 0) dropGroup(f, g);
+    }
+
+    void clear() {
+        postings.clear();
+        if (groups != null) {
+            groups.clear();
+            byHandle.clear();
+            freeHandles.size = 0;
+        }
+    }
+
+    /**
+     * Kandidaten-IDs (aufsteigend) für eine bereits gefaltete Suchanfrage,
+     * oder {@code null}, wenn die Anfrage zu kurz ist (oder kein Index geführt wird) und der
+     * Aufrufer alles prüfen muss.
+     */
+    int[] candidates(String foldedQuery) {
+        if (!enabled || foldedQuery.length() < GRAM) return null;
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= foldedQuery.length(); i++) {
+            Postings p = postings.get(key(foldedQuery, i));
+            if (p == null) return new int[0]; // ein Trigramm kommt nirgends vor
+            lists.add(p);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int n = result.length;
+        for (int l = 1; l < lists.size() && n > 0; l++) {
+            Postings p = lists.get(l);
+            int m = 0;
+            for (int i = 0; i < n; i++) {
+                if (Arrays.binarySearch(p.ids, 0, p.size, result[i]) >= 0) result[m++] = result[i];
+            }
+            n = m;
+        }
+        if (groups != null) return idsOf(result, n);
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Obergrenze für die Trefferzahl ohne Schnittmengenbildung (kürzeste Postingliste),
+     * oder {@code -1}, wenn die Anfrage zu kurz für den Index ist oder keiner geführt wird.
+     */
+    int estimate(String foldedQuery) {
+        if (!enabled || foldedQuery.length() < GRAM) return -1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM <= foldedQuery.length(); i++) {
+            Postings p = postings.get(key(foldedQuery, i));
+            if (p == null) return 0;
+            min = Math.min(min, groups == null ? p.size : p.weight);
+        }
+        return min;
+    }
+
+    private Group newGroup(String folded) {
+        int handle;
+        if (freeHandles.size > 0) {
+            handle = freeHandles.ids[--freeHandles.size];
+        } else {
+            handle = byHandle.size();
+            byHandle.add(null);
+        }
+        long[] keys = new long[Math.max(0, folded.length() - GRAM + 1)];
+        for (int i = 0; i < keys.length; i++) keys[i] = key(folded, i);
+        Group g = new Group(handle, Arrays.stream(keys).distinct().toArray());
+        for (long k : g.keys) postings.computeIfAbsent(k, x -> new Postings()).add(handle);
+        byHandle.set(handle, g);
+        return g;
+    }
+
+    private void dropGroup(String folded, Group g) {
+        for (long k : g.keys) {
+            Postings p = postings.get(k);
+            if (p.remove(g.handle) && p.size == 0) postings.remove(k);
+        }
+        groups.remove(folded);
+        byHandle.set(g.handle, null);
+        freeHandles.add(g.handle);
+    }
+
+    /** Vereinigung der ID-Mengen der Gruppen; die Mengen sind disjunkt. */
+    private int[] idsOf(int[] handles, int n) {
+        int total = 0;
+        for (int i = 0; i < n; i++) total += byHandle.get(handles[i]).ids.size;
+        int[] out = new int[total];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            IdSet ids = byHandle.get(handles[i]).ids;
+            System.arraycopy(ids.ids, 0, out, pos, ids.size);
+            pos += ids.size;
+        }
+        if (n > 1) Arrays.sort(out);
+        return out;
+    }
+
+    private static Long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** Sortierte ID- bzw. Handle-Liste ohne Duplikate; {@code weight} zählt gruppiert die Todos dahinter. */
+    private static final class Postings extends IdSet {
+        int weight;
+    }
+
+    /** Alle Todos mit demselben gefalteten Text. */
+    private static final class Group {
+        final int handle;
+        final long[] keys; // unterschiedliche Trigramme des Textes
+        final IdSet ids = new IdSet();
+
+        Group(int handle, long[] keys) {
+            this.handle = handle;
+            this.keys = keys;
+        }
+    }
+}
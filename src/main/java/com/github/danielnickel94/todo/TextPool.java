@@ -0,0 +1,61 @@
+package com.github.danielnickel94.todo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kanonisierender Pool für Todo-Texte: gleiche Texte teilen sich eine {@link String}-Instanz und
+ * einen Vergleichsschlüssel für den {@link SortedIndex}. Bei vielen wiederkehrenden Aufgaben
+ * ("Einkaufen", "Müll rausbringen") liegt so jeder Text nur einmal im Speicher.
+ * <p>
+ * Einträge werden gezählt und beim letzten {@link #release} entfernt, der Pool wächst also nicht
+ * mit gelöschten oder geänderten Texten.
+ */
+final class TextPool {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private static final class Entry {
+        final String text;
+        String collation; // beim ersten Bedarf
+        int refs;
+
+        Entry(String text) {
+            this.text = text;
+        }
+    }
+
+    /** Liefert die kanonische Instanz und zählt eine Referenz mehr. */
+    String intern(String text) {
+        if (text == null) return null;
+        Entry e = entries.computeIfAbsent(text, Entry::new);
+        e.refs++;
+        return e.text;
+    }
+
+    void release(String text) {
+        if (text == null) return;
+        Entry e = entries.get(text);
+        if (e != null && --e.refs == 0) entries.remove(text);
+    }
+
+    /** Geteilter Vergleichsschlüssel; für Texte außerhalb des Pools wird er frisch berechnet. */
+    String collationKey(String text) {
+        Entry e = text == null ? null : entries.get(text);
+        if (e == null) return SortedIndex.collationKey(text);
+        if (e.collation == null) {
+            String key = SortedIndex.collationKey(text);
+            e.collation = key.equals(text) ? e.text : key; // schon normalisiert: keine zweite Kopie
+        }
+        return e.collation;
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    /** Anzahl unterschiedlicher Texte. */
+    int size() {
+        return entries.size();
+    }
+}
@@ -1,33 +1,118 @@
 package com.github.danielnickel94.todo;
 
-public class Todo {
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/** Unveränderlicher Wert; Änderungen erzeugen eine neue Version über {@code with...}. */
+public final class Todo {
+
+    public static final int MAX_PRIORITY = 9;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    // nur ein Datum angegeben: Erinnerung zu Arbeitsbeginn statt um Mitternacht
+    private static final LocalTime DEFAULT_TIME = LocalTime.of(9, 0);
+
     private final int id;
-    private String text;
-    private boolean done;
+    private final String text;
+    private final boolean done;
+    private final Instant due;    // null: ohne Termin
+    private final int priority;   // 0: ohne, sonst 1..MAX_PRIORITY, größer = wichtiger
 
     public Todo(int id, String text) {
-        this.id = id;
-        this.text = text;
-        this.done = false;
+        this(id, text, false);
     }
 
     public Todo(int id, String text, boolean done) {
+        this(id, text, done, null, 0);
+    }
+
+    public Todo(int id, String text, boolean done, Instant due, int priority) {
+        if (priority < 0 || priority > MAX_PRIORITY) {
+            throw new IllegalArgumentException("Priorität muss zwischen 0 und " + MAX_PRIORITY + " liegen: " + priority);
+        }
         this.id = id;
         this.text = text;
         this.done = done;
+        this.due = due == null ? null : millis(due);
+        this.priority = priority;
     }
 
     public int getId() { return id; }
     public String getText() { return text; }
     public boolean isDone() { return done; }
+    public Instant getDue() { return due; }
+    public int getPriority() { return priority; }
+
+    /** Hat Termin oder Priorität. */
+    public boolean isScheduled() { return due != null || priority != 0; }
 
-    public void setText(String text) { this.text = text; }
-    public void setDone(boolean done) { this.done = done; }
+    public Todo withText(String text) { return new Todo(id, text, done, due, priority); }
+    public Todo withDone(boolean done) { return done == this.done ? this : new Todo(id, text, done, due, priority); }
+    public Todo withDue(Instant due) { return Objects.equals(due, this.due) ? this : new Todo(id, text, done, due, priority); }
+    public Todo withPriority(int priority) { return priority == this.priority ? this : new Todo(id, text, done, due, priority); }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Todo t && id == t.id && done == t.done && Objects.equals(text, t.text)
+                && Objects.equals(due, t.due) && priority == t.priority;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, text, done, due, priority);
+    }
 
     @Override
     public String toString() {
         String status = done ? "✔" : " ";
-        return String.format("[%s] #%d %s", status, id, text);
+        String s = String.format("[%s] #%d %s", status, id, text);
+        if (due != null) s += " (fällig " + formatDue(due) + ")";
+        if (priority != 0) s += " !" + priority;
+        return s;
     }
-}
 
+    /* ===================== Termine ===================== */
+
+    // alle Formate speichern Millisekunden; so bleibt ein Todo beim Speichern und Laden gleich
+    private static Instant millis(Instant due) {
+        try {
+            return Instant.ofEpochMilli(due.toEpochMilli());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Datum außerhalb des gültigen Bereichs: " + due);
+        }
+    }
+
+    /** Ortszeit, z. B. {@code 20.10.2026 14:00}. */
+    public static String formatDue(Instant due) {
+        return DATE_TIME.format(due.atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * Versteht {@code 20.10.2026}, {@code 20.10.2026 14:00}, {@code 2026-10-20}, {@code 2026-10-20T14:00}
+     * (jeweils Ortszeit, ohne Uhrzeit 9:00) und {@code 2026-10-20T12:00:00Z}.
+     */
+    public static Instant parseDue(String raw) {
+        String s = raw.strip();
+        ZoneId zone = ZoneId.systemDefault();
+        try {
+            if (s.endsWith("Z") || s.matches(".*[+-]\\d\\d:\\d\\d")) return Instant.parse(s);
+            if (s.contains(".")) {
+                return s.contains(":")
+                        ? LocalDateTime.parse(s, DATE_TIME).atZone(zone).toInstant()
+                        : LocalDate.parse(s, DATE).atTime(DEFAULT_TIME).atZone(zone).toInstant();
+            }
+            return s.contains("T")
+                    ? LocalDateTime.parse(s).atZone(zone).toInstant()
+                    : LocalDate.parse(s).atTime(DEFAULT_TIME).atZone(zone).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Ungültiges Datum: " + raw + " (z. B. 20.10.2026 14:00)");
+        }
+    }
+}
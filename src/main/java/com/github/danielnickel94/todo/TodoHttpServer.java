@@ -0,0 +1,334 @@
+package com.github.danielnickel94.todo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Stellt einen {@link ConcurrentTodoService} als JSON-Schnittstelle bereit; jede Anfrage läuft in
+ * einem eigenen virtuellen Thread.
+ * <pre>
+ * GET    /todos                     alle, als Stream geschrieben
+ * GET    /todos?q=..&amp;status=open&amp;sort=asc&amp;limit=50
+ * POST   /todos          {"text":"..."}  → 201 {"id":n}
+ * PUT    /todos/{id}     {"text":"..."}  → 204
+ * POST   /todos/{id}/done                → 204
+ * DELETE /todos/{id}                     → 204
+ * GET    /changes?after=n&amp;limit=1000&amp;wait=30
+ *        → {"sequence":m,"changes":[...]}, nur Änderungen nach n; 410, wenn n schon aus dem Puffer ist
+ * </pre>
+ * {@code GET /todos} liefert im Header {@code X-Sequence} den Stand des {@link ChangeFeed}, ab dem ein
+ * Client mit {@code /changes?after=...} inkrementell weiterlesen kann.
+ */
+public final class TodoHttpServer implements AutoCloseable {
+
+    private static final int MAX_BODY = 64 * 1024;
+    private static final int MAX_CHANGES = 10_000;
+    private static final int MAX_WAIT_SECONDS = 30;
+
+    private final ConcurrentTodoService service;
+    private final Autosave autosave;
+    private final ChangeFeed changes;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Port 0 wählt einen freien Port, siehe {@link #port()}. */
+    public TodoHttpServer(ConcurrentTodoService service, Autosave autosave, InetSocketAddress address) throws IOException {
+        this.service = service;
+        this.autosave = autosave;
+        this.changes = service.changes();
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/todos", ex -> respond(ex, this::handle));
+        server.createContext("/changes", ex -> respond(ex, this::handleChanges));
+        server.setExecutor(executor);
+    }
+
+    public TodoHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Beendet laufende Anfragen (höchstens 1 s, wartende {@code /changes} sofort) und schreibt ausstehende Änderungen. */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow(); // weckt lange wartende /changes-Anfragen
+        executor.close();
+        autosave.close();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String rest = path.substring(Math.min(path.length(), "/todos".length()));
+        if (!rest.isEmpty() && !rest.startsWith("/")) { // der Kontext passt auch auf /todosX
+            error(ex, 404, "Unbekannter Pfad: " + path);
+            return;
+        }
+        String[] parts = rest.split("/");
+        // parts[0] ist leer; /todos/{id}[/done]
+        String method = ex.getRequestMethod();
+        if (parts.length <= 1) {
+            switch (method) {
+                case "GET" -> list(ex);
+                case "POST" -> add(ex);
+                default -> error(ex, 405, "Methode nicht erlaubt.");
+            }
+            return;
+        }
+        int id;
+        try {
+            id = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            error(ex, 404, "Unbekannte ID: " + parts[1]);
+            return;
+        }
+        if (parts.length == 3 && parts[2].equals("done") && method.equals("POST")) {
+            changed(ex, service.markDone(id), id);
+        } else if (parts.length > 2) {
+            error(ex, 404, "Unbekannter Pfad: " + path);
+        } else {
+            switch (method) {
+                case "PUT" -> update(ex, id);
+                case "DELETE" -> changed(ex, service.remove(id), id);
+                default -> error(ex, 405, "Methode nicht erlaubt.");
+            }
+        }
+    }
+
+    private void list(HttpExchange ex) throws IOException {
+        Map<String, String> params = query(ex.getRequestURI().getRawQuery());
+        // Stand und Sequenznummer aus demselben Snapshot: X-Sequence nennt genau die letzte enthaltene Änderung
+        ConcurrentTodoService.View view = service.view();
+        Stream<Todo> todos;
+        if (params.isEmpty()) {
+            todos = view.stream(); // lazy über den Snapshot
+        } else {
+            TodoQuery q = TodoQuery.all();
+            String status = params.getOrDefault("status", "all");
+            switch (status) {
+                case "open" -> q = q.open();
+                case "done" -> q = q.done();
+                case "all" -> { }
+                default -> {
+                    error(ex, 400, "status muss all, open oder done sein.");
+                    return;
+                }
+            }
+            if (params.containsKey("q")) q = q.containing(params.get("q"));
+            switch (params.getOrDefault("sort", "")) {
+                case "asc" -> q = q.sortedByText(true);
+                case "desc" -> q = q.sortedByText(false);
+                case "" -> { }
+                default -> {
+                    error(ex, 400, "sort muss asc oder desc sein.");
+                    return;
+                }
+            }
+            if (params.containsKey("limit")) {
+                try {
+                    q = q.limit(Integer.parseInt(params.get("limit")));
+                } catch (IllegalArgumentException e) {
+                    error(ex, 400, "Ungültiges limit: " + params.get("limit"));
+                    return;
+                }
+            }
+            todos = view.query(q).stream();
+        }
+
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.getResponseHeaders().set("X-Sequence", Long.toString(view.sequence()));
+        ex.sendResponseHeaders(200, 0); // Länge unbekannt → chunked
+        try (Writer w = writer(ex)) {
+            JsonWriter json = new JsonWriter(w).beginArray();
+            for (Iterator<Todo> it = todos.iterator(); it.hasNext(); ) json.todo(it.next());
+            json.endArray();
+        }
+    }
+
+    private void handleChanges(HttpExchange ex) throws IOException {
+        if (!ex.getRequestMethod().equals("GET")) {
+            error(ex, 405, "Methode nicht erlaubt.");
+            return;
+        }
+        Map<String, String> params = query(ex.getRequestURI().getRawQuery());
+        long after;
+        int limit;
+        int wait;
+        try {
+            after = Long.parseLong(params.getOrDefault("after", "0"));
+            limit = Math.min(Integer.parseInt(params.getOrDefault("limit", "1000")), MAX_CHANGES);
+            wait = Math.min(Integer.parseInt(params.getOrDefault("wait", "0")), MAX_WAIT_SECONDS);
+        } catch (NumberFormatException e) {
+            error(ex, 400, "after, limit und wait müssen Zahlen sein.");
+            return;
+        }
+        List<ChangeFeed.Change> delta;
+        ChangeFeed.Cursor cursor;
+        try {
+            cursor = changes.cursor(after);
+            delta = wait > 0 ? cursor.await(limit, Duration.ofSeconds(wait)) : cursor.poll(limit);
+        } catch (ChangeFeed.MissedChangesException e) {
+            error(ex, 410, e.getMessage() + " Bestand neu über GET /todos holen.");
+            return;
+        } catch (IllegalArgumentException e) {
+            error(ex, 400, e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            return; // Server wird beendet
+        }
+
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(200, 0);
+        try (Writer w = writer(ex)) {
+            JsonWriter json = new JsonWriter(w).beginObject()
+                    .name("sequence").value(cursor.position())
+                    .name("changes").beginArray();
+            for (ChangeFeed.Change c : delta) change(json, c);
+            json.endArray().endObject();
+        }
+    }
+
+    /** {@code {"seq":7,"type":"added","id":3,"text":"...","done":false}}, je nach Art mit weniger Feldern. */
+    private static void change(JsonWriter json, ChangeFeed.Change c) throws IOException {
+        json.beginObject().name("seq").value(c.sequence()).name("type");
+        switch (c) {
+            case ChangeFeed.Added a -> json.value("added")
+                    .name("id").value(a.todo().getId())
+                    .name("text").value(a.todo().getText())
+                    .name("done").value(a.todo().isDone());
+            case ChangeFeed.TextUpdated u -> json.value("text").name("id").value(u.id()).name("text").value(u.text());
+            case ChangeFeed.MarkedDone d -> json.value("done").name("id").value(d.id());
+            case ChangeFeed.Scheduled sc -> {
+                json.value("scheduled").name("id").value(sc.todo().getId())
+                        .name("due").value(sc.todo().getDue() == null ? null : sc.todo().getDue().toString())
+                        .name("priority").value(sc.todo().getPriority());
+            }
+            case ChangeFeed.Removed r -> json.value("removed").name("id").value(r.id());
+            case ChangeFeed.Loaded l -> {
+                json.value("loaded").name("todos").beginArray();
+                for (Todo t : l.todos()) json.todo(t);
+                json.endArray();
+            }
+        }
+        json.endObject();
+    }
+
+    private void add(HttpExchange ex) throws IOException {
+        String text = readText(ex);
+        if (text == null) return;
+        int id;
+        try {
+            id = service.add(text);
+        } catch (IllegalArgumentException e) {
+            error(ex, 400, e.getMessage());
+            return;
+        }
+        autosave.changed();
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.getResponseHeaders().set("Location", "/todos/" + id);
+        ex.sendResponseHeaders(201, 0);
+        try (Writer w = writer(ex)) {
+            new JsonWriter(w).beginObject().name("id").value(id).endObject();
+        }
+    }
+
+    private void update(HttpExchange ex, int id) throws IOException {
+        String text = readText(ex);
+        if (text == null) return;
+        if (text.isBlank()) {
+            error(ex, 400, "Text darf nicht leer sein.");
+            return;
+        }
+        changed(ex, service.updateText(id, text.trim()), id);
+    }
+
+    private void changed(HttpExchange ex, boolean ok, int id) throws IOException {
+        if (!ok) {
+            error(ex, 404, "ID nicht gefunden: " + id);
+            return;
+        }
+        autosave.changed();
+        ex.sendResponseHeaders(204, -1);
+    }
+
+    /** Feld {@code text} aus dem JSON-Body; {@code null}, wenn schon mit 400 geantwortet wurde. */
+    private static String readText(HttpExchange ex) throws IOException {
+        byte[] body;
+        try (InputStream in = ex.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY + 1);
+        }
+        if (body.length > MAX_BODY) {
+            error(ex, 413, "Anfrage zu groß.");
+            return null;
+        }
+        try {
+            String text = JsonReader.stringField(new String(body, StandardCharsets.UTF_8), "text");
+            if (text == null) error(ex, 400, "Feld \"text\" fehlt.");
+            return text;
+        } catch (IllegalArgumentException e) {
+            error(ex, 400, "Ungültiges JSON: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Führt {@code handler} aus und schließt danach die Antwort. Ein unerwarteter Fehler wird zu 500,
+     * solange noch keine Kopfzeilen gesendet sind; danach lässt sich der Status nicht mehr ändern. Dann
+     * wird weitergeworfen: der HttpServer schließt die Verbindung ohne abschließenden Chunk, und der
+     * Client erkennt die Antwort als abgebrochen, statt eine halbe Liste für vollständig zu halten.
+     */
+    private static void respond(HttpExchange ex, HttpHandler handler) throws IOException {
+        try {
+            handler.handle(ex);
+        } catch (RuntimeException e) {
+            if (ex.getResponseCode() != -1) throw e;
+            error(ex, 500, "Interner Fehler: " + e.getMessage());
+        }
+        ex.close(); // nicht bei IOException: auch dann bricht der HttpServer die Verbindung ab
+    }
+
+    private static void error(HttpExchange ex, int status, String message) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, 0);
+        try (Writer w = writer(ex)) {
+            new JsonWriter(w).beginObject().name("error").value(message).endObject();
+        }
+    }
+
+    private static Writer writer(HttpExchange ex) {
+        return new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+}
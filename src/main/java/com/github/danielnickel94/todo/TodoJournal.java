@@ -0,0 +1,301 @@
+package com.github.danielnickel94.todo;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Journal-Modus: Jede Änderung wird als eine Zeile an {@code <datei>.log} angehängt,
+ * statt die komplette CSV neu zu schreiben. Beim Öffnen werden Snapshot und Log wieder eingespielt.
+ * <p>
+ * Wird das Log größer als die Schwelle, wird es nach {@code <datei>.log.old} rotiert und im
+ * Hintergrund ein neuer Snapshot geschrieben. Alle Einträge sind beim Wiedereinspielen idempotent,
+ * daher schadet ein Absturz mitten in der Kompaktierung nicht.
+ * <p>
+ * Format (eine Zeile pro Eintrag, Text mit {@code \\}, {@code \n}, {@code \r} maskiert):
+ * {@code A;id;done;text}, {@code U;id;text}, {@code D;id}, {@code S;id;done,termin,priorität},
+ * {@code R;id}, {@code C} (Bestand leeren). {@code done} hat das Format aus {@link TodoService#csvStatus}.
+ */
+public final class TodoJournal implements ChangeListener, AutoCloseable {
+
+    static final long DEFAULT_COMPACT_BYTES = 1 << 20;
+
+    private final TodoService service;
+    private final Path snapshot;
+    private final Path log;
+    private final Path oldLog;
+    private final long compactThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "todo-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private OutputStream out;
+    private long logBytes;
+    private Future<?> compaction = CompletableFuture.completedFuture(null);
+
+    private TodoJournal(TodoService service, Path snapshot, long compactThreshold) throws IOException {
+        this.service = service;
+        this.snapshot = snapshot;
+        this.log = sibling(snapshot, ".log");
+        this.oldLog = sibling(snapshot, ".log.old");
+        this.compactThreshold = compactThreshold;
+        openLog();
+    }
+
+    public static TodoJournal open(TodoService service, String fileName) throws IOException {
+        return open(service, fileName, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * Lädt Snapshot + Log in den Service und hängt das Journal als Listener an.
+     * Fehlt der Snapshot, wird mit dem aktuellen Bestand des Service begonnen.
+     */
+    public static TodoJournal open(TodoService service, String fileName, long compactThreshold) throws IOException {
+        Path snapshot = TodoService.inAppDir(fileName);
+        if (Files.exists(snapshot) && !service.load(snapshot.toString())) {
+            throw new IOException("Snapshot nicht lesbar: " + snapshot.toAbsolutePath());
+        }
+        Path log = sibling(snapshot, ".log");
+        Path oldLog = sibling(snapshot, ".log.old");
+        boolean replayed = replay(service, oldLog) | replay(service, log);
+
+        if (replayed) {
+            // Eingespieltes sofort in einen frischen Snapshot übernehmen
+            if (!service.save(snapshot.toString(), service.state())) {
+                throw new IOException("Snapshot nicht schreibbar: " + snapshot.toAbsolutePath());
+            }
+            Files.deleteIfExists(oldLog);
+            Files.deleteIfExists(log);
+        }
+        TodoJournal journal = new TodoJournal(service, snapshot, compactThreshold);
+        service.addListener(journal);
+        return journal;
+    }
+
+    /* ===================== ChangeListener ===================== */
+
+    @Override
+    public void added(Todo todo) {
+        append("A;" + todo.getId() + ";" + TodoService.csvStatus(todo) + ";" + escape(todo.getText()));
+    }
+
+    @Override
+    public void textUpdated(int id, String text) {
+        append("U;" + id + ";" + escape(text));
+    }
+
+    @Override
+    public void markedDone(int id) {
+        append("D;" + id);
+    }
+
+    @Override
+    public void scheduled(Todo todo) {
+        append("S;" + todo.getId() + ";" + TodoService.csvStatus(todo));
+    }
+
+    @Override
+    public void removed(int id) {
+        append("R;" + id);
+    }
+
+    @Override
+    public void loaded(List<Todo> todos) {
+        append("C");
+        for (Todo t : todos) added(t);
+    }
+
+    /* ===================== Schreiben ===================== */
+
+    /** Schreibt gepufferte Einträge ins Log und stößt bei Bedarf die Kompaktierung an. */
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            failed(log, "Journal nicht geschrieben", e);
+            return;
+        }
+        if (logBytes >= compactThreshold) compact();
+    }
+
+    @Override
+    public void close() {
+        service.removeListener(this);
+        flush();
+        awaitCompaction();
+        compactor.shutdown();
+        try {
+            out.close();
+        } catch (IOException e) {
+            failed(log, "Journal nicht geschlossen", e);
+        }
+    }
+
+    private void append(String record) {
+        byte[] bytes = (record + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            out.write(bytes);
+            logBytes += bytes.length;
+            service.metrics().written(bytes.length);
+        } catch (IOException e) {
+            failed(log, "Journal nicht geschrieben", e);
+        }
+    }
+
+    /** Rotiert das Log und schreibt den Snapshot im Hintergrund; höchstens eine Kompaktierung gleichzeitig. */
+    private void compact() {
+        if (!compaction.isDone()) return;
+        TodoService.State state = service.state(); // unveränderlich, sicher für den Hintergrund-Thread
+        try {
+            if (!Files.exists(oldLog)) {
+                out.close();
+                Files.move(log, oldLog, StandardCopyOption.ATOMIC_MOVE);
+                openLog();
+            }
+            // sonst: letzte Kompaktierung ist fehlgeschlagen → Snapshot erneut versuchen, .old bleibt bis dahin
+        } catch (IOException e) {
+            failed(log, "Journal nicht rotiert", e);
+            return;
+        }
+        compaction = compactor.submit(() -> {
+            try {
+                // schlägt das Schreiben fehl, bleibt .old für den nächsten Versuch (Fehler meldet der Service)
+                if (service.save(snapshot.toString(), state)) Files.deleteIfExists(oldLog);
+            } catch (IOException e) {
+                failed(oldLog, "Journal nicht kompaktiert", e);
+            }
+        });
+    }
+
+    /**
+     * Schreibt den aktuellen Bestand sofort als Snapshot und leert das Log; danach enthält die
+     * Snapshot-Datei allein den ganzen Stand. Vor dem Laden aufrufen: sonst läse man die Datei ohne
+     * die nur im Log stehenden Änderungen, und der Lade-Eintrag würde diese endgültig überschreiben.
+     */
+    public boolean checkpoint() {
+        flush();
+        awaitCompaction();
+        if (!service.save(snapshot.toString(), service.state())) return false; // Fehler meldet der Service
+        try {
+            out.close();
+            Files.deleteIfExists(oldLog);
+            Files.deleteIfExists(log);
+            openLog();
+            return true;
+        } catch (IOException e) {
+            failed(log, "Journal nicht kompaktiert", e);
+            return false;
+        }
+    }
+
+    void awaitCompaction() {
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            failed(snapshot, "Journal nicht kompaktiert", e.getCause());
+        }
+    }
+
+    // läuft auch im Kompaktierungs-Thread; die Listener bekommen es wie einen fehlgeschlagenen Speichervorgang
+    private void failed(Path path, String what, Throwable e) {
+        service.persistenceFailed(TodoMetrics.Operation.SAVE, path, what + ": " + TodoService.message(e));
+    }
+
+    private void openLog() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(log,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE));
+        logBytes = Files.size(log);
+    }
+
+    /* ===================== Einspielen ===================== */
+
+    /** Spielt ein Log ein; eine unvollständige letzte Zeile (Absturz beim Schreiben) wird ignoriert. */
+    private static boolean replay(TodoService service, Path file) throws IOException {
+        if (!Files.exists(file)) return false;
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        int start = 0;
+        int nl;
+        while ((nl = content.indexOf('\n', start)) >= 0) {
+            apply(service, content.substring(start, nl));
+            start = nl + 1;
+        }
+        return true;
+    }
+
+    private static void apply(TodoService service, String record) {
+        if (record.isEmpty()) return;
+        String[] p = record.split(";", record.charAt(0) == 'A' ? 4 : 3);
+        try {
+            switch (p[0]) {
+                case "A" -> service.restore(TodoService.fromCsv(Integer.parseInt(p[1]), p[2], unescape(p[3])));
+                case "U" -> service.updateText(Integer.parseInt(p[1]), unescape(p[2]));
+                case "D" -> service.markDone(Integer.parseInt(p[1]));
+                case "S" -> {
+                    Todo s = TodoService.fromCsv(Integer.parseInt(p[1]), p[2], null);
+                    service.setDue(s.getId(), s.getDue());
+                    service.setPriority(s.getId(), s.getPriority());
+                }
+                case "R" -> service.remove(Integer.parseInt(p[1]));
+                case "C" -> service.replaceAll(List.of(), 1);
+                default -> { } // unbekannter Eintrag: überspringen
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            // beschädigte Zeile überspringen
+        }
+    }
+
+    static String escape(String text) {
+        if (text == null) return "";
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String rep = switch (c) {
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                default -> null;
+            };
+            if (rep == null) {
+                if (sb != null) sb.append(c);
+                continue;
+            }
+            if (sb == null) sb = new StringBuilder(text.length() + 8).append(text, 0, i);
+            sb.append(rep);
+        }
+        return sb == null ? text : sb.toString();
+    }
+
+    static String unescape(String text) {
+        if (text.indexOf('\\') < 0) return text;
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char n = text.charAt(++i);
+                sb.append(n == 'n' ? '\n' : n == 'r' ? '\r' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+}
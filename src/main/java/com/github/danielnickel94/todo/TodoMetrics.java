@@ -0,0 +1,274 @@
+package com.github.danielnickel94.todo;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zähler und Latenzen eines {@link TodoService}: je öffentlicher Operation ein
+ * {@link LatencyHistogram}, dazu gelesene und geschriebene Bytes der Persistenz.
+ * <p>
+ * Erfassen kostet zwei {@link System#nanoTime()}-Aufrufe und ein paar atomare Additionen, ohne
+ * Speicher anzulegen. Auslesen geht über {@link #report()} (Konsole), JMX ({@link #register})
+ * und für Speichern/Laden zusätzlich über JFR-Ereignisse.
+ */
+public final class TodoMetrics {
+
+    public enum Operation {
+        ADD, UPDATE, REMOVE, MARK_DONE, SCHEDULE, BATCH,
+        LIST, SEARCH, SORT, PAGE, QUERY,
+        NEXT, // nächste Termine, wichtigste Prioritäten
+        STREAM, // nur das Erzeugen; der (lazy) Durchlauf zählt nicht mit
+        SAVE, LOAD, IMPORT;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final String DOMAIN = "com.github.danielnickel94.todo";
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder ioFailures = new LongAdder();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    TodoMetrics() {
+        for (int i = 0; i < latencies.length; i++) latencies[i] = new LatencyHistogram();
+    }
+
+    /** Erfasst die Dauer seit {@code startNanos} (aus {@link System#nanoTime()}). */
+    void record(Operation op, long startNanos) {
+        latencies[op.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    void written(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    void failed() {
+        ioFailures.increment();
+    }
+
+    /** Schließt einen Lese- oder Schreibvorgang ab: Latenz, Bytes und JFR-Ereignis. */
+    void finish(Operation op, long startNanos, PersistenceEvent event) {
+        record(op, startNanos);
+        if (!event.success) ioFailures.increment();
+        else if (event instanceof SaveEvent) bytesWritten.add(event.bytes);
+        else bytesRead.add(event.bytes);
+        event.commit(); // nur aktiv, wenn eine JFR-Aufzeichnung das Ereignis eingeschaltet hat
+    }
+
+    /* ===================== Auswertung ===================== */
+
+    public long count(Operation op) {
+        return latencies[op.ordinal()].snapshot().count();
+    }
+
+    public long bytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long bytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long ioFailures() {
+        return ioFailures.sum();
+    }
+
+    LatencyHistogram.Snapshot latency(Operation op) {
+        return latencies[op.ordinal()].snapshot();
+    }
+
+    public void reset() {
+        for (LatencyHistogram h : latencies) h.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+        ioFailures.reset();
+    }
+
+    /** Tabelle aller bisher benutzten Operationen (Zeiten in µs) und der Persistenz-Zähler. */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s %9s %10s %10s %10s %10s%n", "Operation", "Anzahl", "Mittel µs", "p50 µs", "p99 µs", "Max µs"));
+        for (Operation op : Operation.values()) {
+            LatencyHistogram.Snapshot s = latency(op);
+            if (s.count() == 0) continue;
+            sb.append(String.format("%-10s %9d %10.1f %10.1f %10.1f %10.1f%n", op.label(), s.count(),
+                    s.meanNanos() / 1e3, s.percentile(50) / 1e3, s.percentile(99) / 1e3, s.maxNanos() / 1e3));
+        }
+        sb.append(String.format("Gelesen: %d Bytes, geschrieben: %d Bytes, Fehler: %d", bytesRead(), bytesWritten(), ioFailures()));
+        return sb.toString();
+    }
+
+    /* ===================== JMX ===================== */
+
+    /** Latenzen einer Operation in Mikrosekunden. */
+    public interface OperationMXBean {
+        long getCount();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        double getMaxMicros();
+    }
+
+    public interface PersistenceMXBean {
+        long getBytesRead();
+
+        long getBytesWritten();
+
+        long getFailures();
+
+        void reset();
+    }
+
+    /**
+     * Meldet die Metriken beim Plattform-MBeanServer an, z. B. für JConsole oder VisualVM unter
+     * {@code com.github.danielnickel94.todo:type=TodoService,name=<name>,...}. Gibt nichts aus;
+     * {@code false}, wenn der Name schon vergeben ist oder die Anmeldung scheitert.
+     */
+    public synchronized boolean register(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        int before = registered.size();
+        try {
+            String base = DOMAIN + ":type=TodoService,name=" + ObjectName.quote(name);
+            for (Operation op : Operation.values()) {
+                registerBean(server, new ObjectName(base + ",operation=" + op.label()), new OperationBean(op));
+            }
+            registerBean(server, new ObjectName(base + ",operation=persistence"), new PersistenceBean());
+            return true;
+        } catch (JMException e) {
+            unregister(server, registered.subList(before, registered.size())); // nur diesen Versuch zurücknehmen
+            return false;
+        }
+    }
+
+    public synchronized void unregister() {
+        unregister(ManagementFactory.getPlatformMBeanServer(), registered);
+    }
+
+    private static void unregister(MBeanServer server, List<ObjectName> names) {
+        for (ObjectName n : names) {
+            try {
+                server.unregisterMBean(n);
+            } catch (JMException ignored) {
+                // schon abgemeldet
+            }
+        }
+        names.clear();
+    }
+
+    private void registerBean(MBeanServer server, ObjectName objectName, Object bean) throws JMException {
+        server.registerMBean(bean, objectName);
+        registered.add(objectName);
+    }
+
+    private final class OperationBean implements OperationMXBean {
+        private final Operation op;
+
+        OperationBean(Operation op) {
+            this.op = op;
+        }
+
+        @Override
+        public long getCount() {
+            return latency(op).count();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return latency(op).meanNanos() / 1e3;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return latency(op).percentile(50) / 1e3;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return latency(op).percentile(99) / 1e3;
+        }
+
+        @Override
+        public double getP999Micros() {
+            return latency(op).percentile(99.9) / 1e3;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return latency(op).maxNanos() / 1e3;
+        }
+    }
+
+    private final class PersistenceBean implements PersistenceMXBean {
+        @Override
+        public long getBytesRead() {
+            return bytesRead();
+        }
+
+        @Override
+        public long getBytesWritten() {
+            return bytesWritten();
+        }
+
+        @Override
+        public long getFailures() {
+            return ioFailures();
+        }
+
+        @Override
+        public void reset() {
+            TodoMetrics.this.reset();
+        }
+    }
+
+    /* ===================== JFR ===================== */
+
+    /** Gemeinsame Felder der Persistenz-Ereignisse; ohne laufende Aufzeichnung kostet das nichts. */
+    @Category("ToDoApp")
+    abstract static class PersistenceEvent extends Event {
+        @Label("Datei")
+        String path;
+
+        @Label("Größe")
+        @DataAmount
+        long bytes;
+
+        @Label("Todos")
+        int todos;
+
+        @Label("Erfolgreich")
+        boolean success;
+
+        @Label("Fehler")
+        String error;
+    }
+
+    @Name(DOMAIN + ".Save")
+    @Label("Todos speichern")
+    static final class SaveEvent extends PersistenceEvent { }
+
+    @Name(DOMAIN + ".Load")
+    @Label("Todos laden")
+    static final class LoadEvent extends PersistenceEvent { }
+}
@@ -0,0 +1,97 @@
+package com.github.danielnickel94.todo;
+
+/**
+ * Unveränderliche Abfrage über {@link TodoService#query}: Status, Textfilter, ID-Bereich,
+ * Sortierung und Limit lassen sich beliebig kombinieren, jede Methode liefert eine neue Abfrage.
+ * <pre>{@code
+ * TodoQuery.all().open().containing("einkaufen").sortedByText(false).limit(50)
+ * }</pre>
+ * Welcher Index benutzt wird, entscheidet der Service; {@link TodoService#explain} zeigt den Plan.
+ */
+public final class TodoQuery {
+
+    public enum Status { ALL, OPEN, DONE }
+
+    public enum Order { INSERTION, TEXT_ASC, TEXT_DESC }
+
+    private static final TodoQuery ALL = new TodoQuery(Status.ALL, "", Integer.MIN_VALUE, Integer.MAX_VALUE,
+            Order.INSERTION, Integer.MAX_VALUE);
+
+    private final Status status;
+    private final String text; // bereits gefaltet, leer = kein Filter
+    private final int minId;
+    private final int maxId;
+    private final Order order;
+    private final int limit;
+
+    private TodoQuery(Status status, String text, int minId, int maxId, Order order, int limit) {
+        this.status = status;
+        this.text = text;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.order = order;
+        this.limit = limit;
+    }
+
+    public static TodoQuery all() {
+        return ALL;
+    }
+
+    public TodoQuery open() {
+        return new TodoQuery(Status.OPEN, text, minId, maxId, order, limit);
+    }
+
+    public TodoQuery done() {
+        return new TodoQuery(Status.DONE, text, minId, maxId, order, limit);
+    }
+
+    /** Text enthält {@code query}, Groß-/Kleinschreibung wie bei {@link TodoService#search} ignoriert. */
+    public TodoQuery containing(String query) {
+        String q = query == null ? "" : TextIndex.fold(query.trim());
+        return new TodoQuery(status, q, minId, maxId, order, limit);
+    }
+
+    /** IDs von {@code min} bis einschließlich {@code max}. */
+    public TodoQuery idBetween(int min, int max) {
+        if (min > max) throw new IllegalArgumentException("min darf nicht größer als max sein.");
+        return new TodoQuery(status, text, min, max, order, limit);
+    }
+
+    public TodoQuery sortedByText(boolean asc) {
+        return new TodoQuery(status, text, minId, maxId, asc ? Order.TEXT_ASC : Order.TEXT_DESC, limit);
+    }
+
+    public TodoQuery limit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit darf nicht negativ sein.");
+        return new TodoQuery(status, text, minId, maxId, order, limit);
+    }
+
+    Status status() { return status; }
+    String text() { return text; }
+    int minId() { return minId; }
+    int maxId() { return maxId; }
+    Order order() { return order; }
+    int limit() { return limit; }
+
+    boolean hasIdRange() {
+        return minId != Integer.MIN_VALUE || maxId != Integer.MAX_VALUE;
+    }
+
+    /** Prüft alle Filter; unabhängig davon, über welchen Index der Kandidat gefunden wurde. */
+    boolean test(Todo t) {
+        if (status == Status.OPEN && t.isDone()) return false;
+        if (status == Status.DONE && !t.isDone()) return false;
+        if (t.getId() < minId || t.getId() > maxId) return false;
+        return text.isEmpty() || (t.getText() != null && TextIndex.fold(t.getText()).contains(text));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("status=").append(status);
+        if (!text.isEmpty()) sb.append(", text~'").append(text).append('\'');
+        if (hasIdRange()) sb.append(", id=").append(minId).append("..").append(maxId);
+        sb.append(", order=").append(order);
+        if (limit != Integer.MAX_VALUE) sb.append(", limit=").append(limit);
+        return sb.toString();
+    }
+}
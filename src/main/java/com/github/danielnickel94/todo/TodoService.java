@@ -1,24 +1,112 @@
 package com.github.danielnickel94.todo;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.github.danielnickel94.todo.ImportReport.LineError;
+import com.github.danielnickel94.todo.TodoMetrics.Operation;
 
 public class TodoService {
-    private final List<Todo> todos = new ArrayList<>();
+    // Einfügereihenfolge; list() gibt einfach den aktuellen Snapshot des Speichers heraus
+    private final TodoStore store;
+    private final IntIntMap index = new IntIntMap(); // id -> Ordnungsschlüssel im Speicher
+    private final TextIndex textIndex;
+    private final TextPool textPool; // nur im kompakten Modus
+    private final SortedIndex sortedIndex;
+    private final List<ChangeListener> listeners = new ArrayList<>();
+    private final TodoMetrics metrics = new TodoMetrics();
+    // auch aus Autosave- und Journal-Threads gelesen
+    private final List<PersistenceListener> persistenceListeners = new CopyOnWriteArrayList<>();
+    // Status je Ordnungsschlüssel; gelöschte Schlüssel stehen in keinem der beiden Sets
+    private final BitSet openOrds = new BitSet();
+    private final BitSet doneOrds = new BitSet();
+    // nur offene Todos: mit Termin (Schlüssel Fälligkeit in ms) bzw. mit Priorität (Schlüssel -Priorität)
+    private final IndexedHeap dueHeap = new IndexedHeap();
+    private final IndexedHeap priorityHeap = new IndexedHeap();
+    private int openCount;
+    private int doneCount;
+    private int nextOrd;
     private int nextId = 1;
+    // während batch(): Benachrichtigungen erst beim erfolgreichen Abschluss ausliefern
+    private List<Consumer<ChangeListener>> pendingEvents;
+    private ChangeFeed changes; // erst beim ersten changes() angelegt
+
+    // größter Termin, der noch in Millisekunden als long passt
+    private static final Instant MAX_DUE = Instant.ofEpochMilli(Long.MAX_VALUE);
 
     private static final Path APP_DIR = Paths.get(
             System.getenv("APPDATA") != null ? System.getenv("APPDATA") : System.getProperty("user.home"),
             "ToDoApp"
     );
 
-    private static Path inAppDir(String fileName) throws IOException {
+    public TodoService() {
+        this(false);
+    }
+
+    /**
+     * @param compactText gleiche Texte nur einmal im Speicher halten (lohnt bei vielen
+     *                    wiederkehrenden Aufgaben; kostet einen Hash-Zugriff je Änderung)
+     */
+    public TodoService(boolean compactText) {
+        this(new HeapTodoStore(), compactText);
+    }
+
+    /**
+     * Todos liegen außerhalb des Heaps, auf dem Heap bleiben nur ID-Index und Status-Bits.
+     * Ein bereits gefüllter Speicher (z. B. eine wieder geöffnete Datei) wird übernommen.
+     */
+    public TodoService(OffHeapTodoStore store) {
+        this(store, false);
+    }
+
+    TodoService(TodoStore store, boolean compactText) {
+        this.store = store;
+        this.textPool = compactText ? new TextPool() : null;
+        if (!store.heapIndexes()) {
+            this.textIndex = TextIndex.disabled();
+            this.sortedIndex = SortedIndex.disabled(() -> store.snapshot().stream());
+        } else {
+            this.textIndex = new TextIndex(compactText);
+            this.sortedIndex = compactText
+                    ? new SortedIndex(textPool, id -> store.get(index.get(id)))
+                    : new SortedIndex();
+        }
+        attach();
+    }
+
+    /** Indiziert, was schon im Speicher liegt; Schlüssel und IDs laufen danach weiter. */
+    private void attach() {
+        TodoSnapshot.Cursor it = store.snapshot().iteratorAt(0);
+        while (it.hasNext()) {
+            Todo t = it.next();
+            indexTodo(t, it.lastKey());
+            nextOrd = it.lastKey() + 1;
+            if (t.getId() >= nextId) nextId = t.getId() + 1;
+        }
+    }
+
+    static Path inAppDir(String fileName) throws IOException {
         Path p = Paths.get(fileName);
         if (p.isAbsolute()) {
             // Wenn absoluter Pfad übergeben wurde (z. B. aus @TempDir), genau dort speichern.
@@ -33,120 +121,932 @@ public class TodoService {
 
 
     public int add(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            throw new IllegalArgumentException("Text darf nicht leer sein.");
+        long t0 = System.nanoTime();
+        try {
+            if (text == null || text.trim().isEmpty()) {
+                throw new IllegalArgumentException("Text darf nicht leer sein.");
+            }
+            Todo t = new Todo(nextId++, intern(text.trim()));
+            append(t);
+            fire(l -> l.added(t));
+            return t.getId();
+        } finally {
+            metrics.record(Operation.ADD, t0);
         }
-        Todo t = new Todo(nextId++, text.trim());
-        todos.add(t);
-        return t.getId();
     }
 
     public boolean updateText(int id, String newText) {
-        Todo t = find(id);
-        if (t == null) return false;
-        t.setText(newText);
-        return true;
+        long t0 = System.nanoTime();
+        try {
+            int ord = index.get(id);
+            if (ord == IntIntMap.MISSING) return false;
+            Todo old = store.get(ord);
+            String text = intern(newText);
+            Todo t = old.withText(text);
+            store.put(ord, t);
+            textIndex.remove(id, old.getText());
+            sortedIndex.remove(id, old.getText());
+            release(old.getText());
+            textIndex.add(id, text);
+            sortedIndex.add(t);
+            fire(l -> l.textUpdated(id, text));
+            return true;
+        } finally {
+            metrics.record(Operation.UPDATE, t0);
+        }
     }
 
     public boolean remove(int id) {
-        Todo t = find(id);
-        return t != null && todos.remove(t);
+        long t0 = System.nanoTime();
+        try {
+            int ord = index.remove(id);
+            if (ord == IntIntMap.MISSING) return false;
+            Todo old = store.get(ord);
+            String text = old.getText();
+            store.remove(ord);
+            setStatus(ord, old.isDone(), false);
+            unschedule(id);
+            textIndex.remove(id, text);
+            sortedIndex.remove(id, text);
+            release(text);
+            fire(l -> l.removed(id));
+            return true;
+        } finally {
+            metrics.record(Operation.REMOVE, t0);
+        }
     }
 
     public boolean markDone(int id) {
-        Todo t = find(id);
-        if (t == null) return false;
-        t.setDone(true);
-        return true;
+        long t0 = System.nanoTime();
+        try {
+            int ord = index.get(id);
+            if (ord == IntIntMap.MISSING) return false;
+            Todo old = store.get(ord);
+            Todo t = old.withDone(true);
+            if (t != old) {
+                store.put(ord, t);
+                sortedIndex.add(t);
+                setStatus(ord, false, false);
+                setStatus(ord, true, true);
+                unschedule(id);
+                fire(l -> l.markedDone(id)); // schon erledigt: nichts zu melden, wie bei reschedule
+            }
+            return true;
+        } finally {
+            metrics.record(Operation.MARK_DONE, t0);
+        }
+    }
+
+    /** Setzt oder entfernt ({@code null}) den Termin. */
+    public boolean setDue(int id, Instant due) {
+        return reschedule(id, t -> t.withDue(due));
+    }
+
+    /** 0 (keine) bis {@link Todo#MAX_PRIORITY}; größer ist wichtiger. */
+    public boolean setPriority(int id, int priority) {
+        if (priority < 0 || priority > Todo.MAX_PRIORITY) {
+            throw new IllegalArgumentException("Priorität muss zwischen 0 und " + Todo.MAX_PRIORITY + " liegen.");
+        }
+        return reschedule(id, t -> t.withPriority(priority));
+    }
+
+    private boolean reschedule(int id, UnaryOperator<Todo> change) {
+        long t0 = System.nanoTime();
+        try {
+            int ord = index.get(id);
+            if (ord == IntIntMap.MISSING) return false;
+            Todo old = store.get(ord);
+            Todo t = change.apply(old);
+            if (t != old) {
+                store.put(ord, t);
+                sortedIndex.add(t);
+                schedule(t);
+                fire(l -> l.scheduled(t));
+            }
+            return true;
+        } finally {
+            metrics.record(Operation.SCHEDULE, t0);
+        }
+    }
+
+    /* ===================== Stapelverarbeitung ===================== */
+
+    /** Schreibzugriff innerhalb von {@link #batch(Consumer)}. */
+    public interface Mutator {
+        int add(String text);
+
+        boolean updateText(int id, String newText);
+
+        boolean markDone(int id);
+
+        boolean setDue(int id, Instant due);
+
+        boolean setPriority(int id, int priority);
+
+        boolean remove(int id);
+    }
+
+    /**
+     * Führt mehrere Änderungen als eine Einheit aus: Wirft der Block eine Exception, wird der
+     * vorherige Stand wiederhergestellt und nichts an die Listener gemeldet. Sonst werden alle
+     * Änderungen erst am Ende gemeldet, sodass z. B. nur einmal gespeichert werden muss.
+     */
+    public void batch(Consumer<Mutator> block) {
+        long t0 = System.nanoTime();
+        try {
+            if (pendingEvents != null) { // verschachtelt: gehört zum äußeren Block
+                block.accept(mutator());
+                return;
+            }
+            TodoSnapshot savedTodos = store.snapshot();
+            int savedNextId = nextId;
+            pendingEvents = new ArrayList<>();
+            List<Consumer<ChangeListener>> events;
+            try {
+                block.accept(mutator());
+                events = pendingEvents;
+            } catch (RuntimeException | Error e) {
+                replaceAll(List.copyOf(savedTodos), savedNextId); // wie bei load: alter Stand bleibt
+                throw e;
+            } finally {
+                pendingEvents = null;
+            }
+            for (Consumer<ChangeListener> event : events) fire(event);
+        } finally {
+            metrics.record(Operation.BATCH, t0);
+        }
+    }
+
+    /** Fügt alle Texte hinzu; ist einer leer, wird keiner übernommen. */
+    public int[] addAll(Collection<String> texts) {
+        int[] ids = new int[texts.size()];
+        batch(m -> {
+            int i = 0;
+            for (String text : texts) ids[i++] = m.add(text);
+        });
+        return ids;
+    }
+
+    /** Markiert alle vorhandenen IDs als erledigt und liefert deren Anzahl. */
+    public int markDone(int... ids) {
+        int[] count = {0};
+        batch(m -> {
+            for (int id : ids) if (m.markDone(id)) count[0]++;
+        });
+        return count[0];
+    }
+
+    /** Entfernt alle Todos, deren ID das Prädikat erfüllt, und liefert deren Anzahl. */
+    public int removeAll(IntPredicate idFilter) {
+        int[] removed = {0};
+        batch(m -> {
+            int[] matches = store.snapshot().stream().mapToInt(Todo::getId).filter(idFilter).toArray();
+            for (int id : matches) if (m.remove(id)) removed[0]++;
+        });
+        return removed[0];
+    }
+
+    private Mutator mutator() {
+        return new Mutator() {
+            @Override
+            public int add(String text) {
+                return TodoService.this.add(text);
+            }
+
+            @Override
+            public boolean updateText(int id, String newText) {
+                return TodoService.this.updateText(id, newText);
+            }
+
+            @Override
+            public boolean markDone(int id) {
+                return TodoService.this.markDone(id);
+            }
+
+            @Override
+            public boolean setDue(int id, Instant due) {
+                return TodoService.this.setDue(id, due);
+            }
+
+            @Override
+            public boolean setPriority(int id, int priority) {
+                return TodoService.this.setPriority(id, priority);
+            }
+
+            @Override
+            public boolean remove(int id) {
+                return TodoService.this.remove(id);
+            }
+        };
     }
 
+    private void fire(Consumer<ChangeListener> event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+            return;
+        }
+        for (ChangeListener l : listeners) event.accept(l);
+    }
+
+    /** Unveränderlicher Snapshot in O(1); spätere Änderungen wirken sich nicht darauf aus. */
     public List<Todo> list() {
-        return List.copyOf(todos); // read-only copy
+        long t0 = System.nanoTime();
+        try {
+            return store.snapshot();
+        } finally {
+            metrics.record(Operation.LIST, t0);
+        }
     }
 
     public List<Todo> listOpen() {
-        return todos.stream()
-                .filter(t -> !t.isDone())
-                .map(t -> new Todo(t.getId(), t.getText(), t.isDone()))
-                .toList();
+        long t0 = System.nanoTime();
+        try {
+            return collect(openOrds, openCount);
+        } finally {
+            metrics.record(Operation.LIST, t0);
+        }
+    }
+
+    public List<Todo> listDone() {
+        long t0 = System.nanoTime();
+        try {
+            return collect(doneOrds, doneCount);
+        } finally {
+            metrics.record(Operation.LIST, t0);
+        }
+    }
+
+    public int countOpen() {
+        return openCount;
+    }
+
+    public int countDone() {
+        return doneCount;
+    }
+
+    // läuft nur über die gesetzten Bits → Aufwand proportional zur Treffermenge
+    private List<Todo> collect(BitSet ords, int count) {
+        Todo[] out = new Todo[count];
+        int i = 0;
+        for (int ord = ords.nextSetBit(0); ord >= 0; ord = ords.nextSetBit(ord + 1)) {
+            out[i++] = store.get(ord);
+        }
+        return List.of(out);
     }
 
     public List<Todo> search(String query) {
-        String q = query == null ? "" : query.trim().toLowerCase();
-        if (q.isEmpty()) return list(); // nichts zu filtern
-        return todos.stream()
-                .filter(t -> t.getText() != null && t.getText().toLowerCase().contains(q))
-                .map(t -> new Todo(t.getId(), t.getText(), t.isDone()))
-                .toList();
+        long t0 = System.nanoTime();
+        try {
+            String q = query == null ? "" : TextIndex.fold(query.trim());
+            if (q.isEmpty()) return store.snapshot(); // nichts zu filtern
+            int[] ids = textIndex.candidates(q);
+            if (ids == null) { // Anfrage kürzer als ein Trigramm → alles prüfen
+                return store.snapshot().stream().filter(t -> matches(t, q)).toList();
+            }
+            // Kandidaten in Listenreihenfolge bringen und nur diese verifizieren
+            int[] ords = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) ords[i] = index.get(ids[i]);
+            Arrays.sort(ords);
+            List<Todo> out = new ArrayList<>();
+            for (int ord : ords) {
+                Todo t = store.get(ord);
+                if (matches(t, q)) out.add(t);
+            }
+            return List.copyOf(out);
+        } finally {
+            metrics.record(Operation.SEARCH, t0);
+        }
     }
 
     public List<Todo> sortByText(boolean asc) {
-        return todos.stream()
-                .sorted((a,b) -> asc
-                        ? a.getText().compareToIgnoreCase(b.getText())
-                        : b.getText().compareToIgnoreCase(a.getText()))
-                .map(t -> new Todo(t.getId(), t.getText(), t.isDone()))
-                .toList();
+        return sortByText(asc, 0, Integer.MAX_VALUE);
     }
 
-    private Todo find(int id) {
-        for (Todo t : todos) if (t.getId() == id) return t;
-        return null;
+    /**
+     * Sortierte Seite: höchstens {@code limit} Todos ab Position {@code offset}. Off-heap ohne
+     * Sortierindex hält das nur {@code offset + limit} Todos im Heap.
+     */
+    public List<Todo> sortByText(boolean asc, int offset, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            return List.copyOf(sortedIndex.page(asc, offset, limit));
+        } finally {
+            metrics.record(Operation.SORT, t0);
+        }
     }
 
-    public boolean save(String fileName) {
+    /* ===================== Termine und Prioritäten ===================== */
+
+    /** Offene Todos mit Termin, der früheste zuerst; O(limit · log limit) über den Termin-Heap. */
+    public List<Todo> nextDue(int limit) {
+        return dueBefore(Instant.MAX, limit);
+    }
+
+    /** Offene Todos, die spätestens {@code until} fällig sind (auch überfällige), der früheste zuerst. */
+    public List<Todo> dueBefore(Instant until, int limit) {
+        long t0 = System.nanoTime();
         try {
-            Path target = inAppDir(fileName);  // <— NEU
-            try (BufferedWriter writer = Files.newBufferedWriter(target)) {
-                for (Todo todo : todos) {
-                    writer.write(todo.getId() + ";" + todo.isDone() + ";" + todo.getText());
-                    writer.newLine();
+            long max = until.isAfter(MAX_DUE) ? Long.MAX_VALUE : until.toEpochMilli();
+            return byHeap(dueHeap.smallest(limit, max));
+        } finally {
+            metrics.record(Operation.NEXT, t0);
+        }
+    }
+
+    /** Die {@code limit} wichtigsten offenen Todos (Priorität > 0), bei Gleichstand die ältere ID zuerst. */
+    public List<Todo> topByPriority(int limit) {
+        long t0 = System.nanoTime();
+        try {
+            return byHeap(priorityHeap.smallest(limit));
+        } finally {
+            metrics.record(Operation.NEXT, t0);
+        }
+    }
+
+    private List<Todo> byHeap(int[] ids) {
+        Todo[] out = new Todo[ids.length];
+        for (int i = 0; i < ids.length; i++) out[i] = store.get(index.get(ids[i]));
+        return List.of(out);
+    }
+
+    /* ===================== Lazy lesen ===================== */
+
+    /**
+     * Alle Todos in Listenreihenfolge, lazy über den aktuellen Snapshot: ein {@code limit(20)}
+     * besucht nur 20 Einträge, spätere Änderungen wirken sich nicht auf den Stream aus.
+     */
+    public Stream<Todo> stream() {
+        long t0 = System.nanoTime();
+        try {
+            return store.snapshot().stream();
+        } finally {
+            metrics.record(Operation.STREAM, t0);
+        }
+    }
+
+    public Stream<Todo> streamOpen() {
+        long t0 = System.nanoTime();
+        try {
+            return store.snapshot().stream().filter(t -> !t.isDone());
+        } finally {
+            metrics.record(Operation.STREAM, t0);
+        }
+    }
+
+    public Stream<Todo> streamDone() {
+        long t0 = System.nanoTime();
+        try {
+            return store.snapshot().stream().filter(Todo::isDone);
+        } finally {
+            metrics.record(Operation.STREAM, t0);
+        }
+    }
+
+    /**
+     * Wie {@link #search}, aber lazy. Bei seltenen Trigrammen werden nur die Kandidaten aus dem
+     * Index geprüft; bei häufigen wird der Snapshot der Reihe nach geprüft, sodass die ersten
+     * Treffer nach wenigen Einträgen feststehen.
+     */
+    public Stream<Todo> searchStream(String query) {
+        long t0 = System.nanoTime();
+        try {
+            String q = query == null ? "" : TextIndex.fold(query.trim());
+            TodoSnapshot snap = store.snapshot();
+            if (q.isEmpty()) return snap.stream();
+            int estimate = textIndex.estimate(q);
+            if (estimate < 0 || (long) estimate * SCAN_RATIO > snap.size()) {
+                return snap.stream().filter(t -> matches(t, q));
+            }
+            int[] ids = textIndex.candidates(q);
+            int[] ords = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) ords[i] = index.get(ids[i]);
+            Arrays.sort(ords);
+            return Arrays.stream(ords).mapToObj(snap::getByKey).filter(t -> matches(t, q));
+        } finally {
+            metrics.record(Operation.STREAM, t0);
+        }
+    }
+
+    // Anteil, ab dem sequenzielles Prüfen günstiger ist als das Sortieren der Kandidaten
+    private static final int SCAN_RATIO = 8;
+
+    static boolean matches(Todo t, String foldedQuery) {
+        return t.getText() != null && TextIndex.fold(t.getText()).contains(foldedQuery);
+    }
+
+    /**
+     * Alphabetisch sortiert, lazy über den Sortierindex. Anders als die übrigen Streams ist das
+     * kein Snapshot: vor der nächsten Änderung verbrauchen. Off-heap gibt es keinen Sortierindex;
+     * dann wird vorab alles im Heap sortiert, bei großen Beständen besser {@link #sortByText(boolean, int, int)}.
+     */
+    public Stream<Todo> sortedStream(boolean asc) {
+        long t0 = System.nanoTime();
+        try {
+            return sortedIndex.stream(asc);
+        } finally {
+            metrics.record(Operation.STREAM, t0);
+        }
+    }
+
+    /** Seite in Listenreihenfolge: höchstens {@code limit} Todos ab Position {@code offset}, in O(log n + limit). */
+    public List<Todo> page(int offset, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            return store.snapshot().slice(offset, limit);
+        } finally {
+            metrics.record(Operation.PAGE, t0);
+        }
+    }
+
+    /**
+     * Eine Seite mit Fortsetzungsmarke; {@link #NO_MORE}, wenn danach nichts mehr folgt.
+     * Die Marke bleibt gültig, auch wenn zwischendurch Todos gelöscht oder angehängt werden.
+     */
+    public record Page(List<Todo> items, int next) { }
+
+    public static final int NO_MORE = -1;
+
+    /** Keyset-Paginierung: beginnt mit {@code cursor = 0} und setzt mit {@link Page#next()} fort. */
+    public Page pageAfter(int cursor, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            return store.snapshot().pageFrom(cursor, limit);
+        } finally {
+            metrics.record(Operation.PAGE, t0);
+        }
+    }
+
+    /* ===================== Abfragen ===================== */
+
+    /**
+     * Führt eine zusammengesetzte Abfrage aus. Der Planer wählt die Quelle mit den wenigsten
+     * Kandidaten (ID-Index, Trigramm-Index, Status-Bitset, Sortierindex oder alles) und prüft nur
+     * diese gegen die übrigen Filter; Limit und Sortierung werden dabei mitgenommen.
+     */
+    public List<Todo> query(TodoQuery q) {
+        long t0 = System.nanoTime();
+        try {
+            QueryPlan plan = plan(q);
+            if (q.limit() == 0 || plan.estimate() == 0) return List.of();
+            boolean inOrder = q.order() == TodoQuery.Order.INSERTION;
+            Stream<Todo> candidates = switch (plan.access()) {
+                case SCAN -> store.snapshot().stream();
+                case STATUS_BITS -> {
+                    TodoSnapshot snap = store.snapshot();
+                    BitSet ords = q.status() == TodoQuery.Status.OPEN ? openOrds : doneOrds;
+                    yield ords.stream().mapToObj(snap::getByKey);
                 }
+                case TEXT_INDEX -> byIds(textIndex.candidates(q.text()), inOrder);
+                case ID_RANGE -> byIds(idRange(q), inOrder);
+                case SORTED_VIEW -> sortedIndex.stream(q.order() == TodoQuery.Order.TEXT_ASC);
+            };
+            Stream<Todo> matches = candidates.filter(q::test);
+            if (plan.topK()) return SortedIndex.topK(matches, q.order() == TodoQuery.Order.TEXT_ASC, q.limit());
+            return matches.limit(q.limit()).toList();
+        } finally {
+            metrics.record(Operation.QUERY, t0);
+        }
+    }
+
+    /** Beschreibt den gewählten Plan, z. B. {@code TEXT_INDEX (~12 Kandidaten) -> Filter -> Top-50 ...}. */
+    public String explain(TodoQuery q) {
+        return plan(q).describe(q);
+    }
+
+    QueryPlan plan(TodoQuery q) {
+        int n = store.snapshot().size();
+        QueryPlan.Access access = QueryPlan.Access.SCAN;
+        long best = n;
+        if (q.status() != TodoQuery.Status.ALL) {
+            long c = q.status() == TodoQuery.Status.OPEN ? openCount : doneCount;
+            if (c < best) {
+                best = c;
+                access = QueryPlan.Access.STATUS_BITS;
             }
-            System.out.println("Todos gespeichert unter: " + target.toAbsolutePath());
-            return true;
-        } catch (IOException e) {
-            System.out.println("Fehler beim Speichern: " + e.getMessage());
-            return false;
         }
+        int textEstimate = q.text().isEmpty() ? -1 : textIndex.estimate(q.text());
+        if (textEstimate >= 0 && textEstimate < best) {
+            best = textEstimate;
+            access = QueryPlan.Access.TEXT_INDEX;
+        }
+        if (q.hasIdRange()) {
+            long width = Math.max(0, (long) Math.min(q.maxId(), nextId - 1) - q.minId() + 1);
+            if (width < best) {
+                best = width;
+                access = QueryPlan.Access.ID_RANGE;
+            }
+        }
+        if (q.order() == TodoQuery.Order.INSERTION || best == 0) return new QueryPlan(access, best, false);
+
+        // Sortiert: der Sortierindex liefert schon in Reihenfolge und bricht nach dem Limit ab.
+        // Bei gleichmäßig verteilten Treffern sind dafür etwa limit * n / Treffer Einträge zu prüfen.
+        long sortedScan = q.limit() == Integer.MAX_VALUE ? n : Math.min(n, (long) q.limit() * n / best);
+        if (sortedIndex.indexed() && (access == QueryPlan.Access.SCAN || sortedScan < best)) {
+            return new QueryPlan(QueryPlan.Access.SORTED_VIEW, best, false);
+        }
+        return new QueryPlan(access, best, true);
     }
 
-    public boolean load(String fileName) {
-        List<Todo> tmp = new ArrayList<>();
-        int tmpNextId = 1;
+    /** Todos zu den vorhandenen IDs; in Listenreihenfolge nur, wenn verlangt (sonst sortiert ohnehin der Heap). */
+    private Stream<Todo> byIds(int[] ids, boolean inOrder) {
+        TodoSnapshot snap = store.snapshot();
+        int[] ords = new int[ids.length];
+        int n = 0;
+        for (int id : ids) {
+            int ord = index.get(id);
+            if (ord != IntIntMap.MISSING) ords[n++] = ord;
+        }
+        if (inOrder) Arrays.sort(ords, 0, n);
+        return Arrays.stream(ords, 0, n).mapToObj(snap::getByKey);
+    }
+
+    private int[] idRange(TodoQuery q) {
+        int to = Math.min(q.maxId(), nextId - 1); // höhere IDs wurden nie vergeben
+        return q.minId() > to ? new int[0] : IntStream.rangeClosed(q.minId(), to).toArray();
+    }
+
+    /** Aktuelle persistente Liste; für Unterklassen, die Snapshots veröffentlichen. */
+    TodoSnapshot snapshotList() {
+        return store.snapshot();
+    }
+
+    /** Zähler und Latenzen aller öffentlichen Operationen, auch für JMX ({@link TodoMetrics#register}). */
+    public TodoMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Meldet jedes Speichern und Laden samt Ergebnis, auch aus Hintergrund-Threads (Autosave, Journal).
+     * Der Aufruf erfolgt synchron; langsame Empfänger in einen {@link AsyncPersistenceSink} packen.
+     */
+    public void addPersistenceListener(PersistenceListener listener) {
+        persistenceListeners.add(listener);
+    }
+
+    public void removePersistenceListener(PersistenceListener listener) {
+        persistenceListeners.remove(listener);
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Wie {@link #addListener}, meldet dem Listener aber zuerst den aktuellen Bestand über
+     * {@link ChangeListener#loaded}; dazwischen geht keine Änderung verloren.
+     */
+    public void addListenerWithState(ChangeListener listener) {
+        addListener(listener);
+        listener.loaded(store.snapshot());
+    }
+
+    /**
+     * Nummerierte Änderungen für Leser, die nur Deltas statt des ganzen Bestands verarbeiten wollen.
+     * Aufgezeichnet wird ab dem ersten Aufruf; abgebrochene Stapel erscheinen darin nicht.
+     */
+    public ChangeFeed changes() {
+        if (changes == null) {
+            changes = new ChangeFeed();
+            addListener(changes);
+        }
+        return changes;
+    }
+
+    public void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Sequenznummer der letzten Änderung im {@link #changes() Feed}; {@code 0}, solange es keinen gibt. */
+    long changeSequence() {
+        return changes == null ? 0 : changes.sequence();
+    }
+
+    /**
+     * Übernimmt ein Todo mit fester ID, falls die ID noch frei ist (Wiederherstellung, z. B. aus dem Journal).
+     * Benachrichtigt keine Listener.
+     */
+    boolean restore(Todo t) {
+        if (index.containsKey(t.getId())) return false;
+        append(canonical(t));
+        if (t.getId() >= nextId) nextId = t.getId() + 1;
+        return true;
+    }
+
+    /** Ersetzt den kompletten Bestand ohne Listener-Benachrichtigung. */
+    void replaceAll(List<Todo> newTodos, int newNextId) {
+        if (textPool != null) {
+            textPool.clear();
+            List<Todo> pooled = new ArrayList<>(newTodos.size());
+            for (Todo t : newTodos) pooled.add(canonical(t));
+            newTodos = pooled;
+        }
+        store.replaceAll(newTodos); // Schlüssel 0..n-1
+        nextOrd = newTodos.size();
+        index.clear();
+        textIndex.clear();
+        sortedIndex.clear();
+        openOrds.clear();
+        doneOrds.clear();
+        dueHeap.clear();
+        priorityHeap.clear();
+        openCount = 0;
+        doneCount = 0;
+        for (int ord = 0; ord < newTodos.size(); ord++) indexTodo(newTodos.get(ord), ord);
+        nextId = newNextId;
+    }
+
+    private void append(Todo t) {
+        if (nextOrd == Integer.MAX_VALUE) { // Schlüssel neu durchnummerieren
+            replaceAll(List.copyOf(store.snapshot()), nextId);
+            t = canonical(t); // der Pool wurde dabei neu aufgebaut
+        }
+        int ord = nextOrd++;
+        store.put(ord, t);
+        indexTodo(t, ord);
+    }
+
+    private String intern(String text) {
+        return textPool != null ? textPool.intern(text) : text;
+    }
+
+    private void release(String text) {
+        if (textPool != null) textPool.release(text);
+    }
+
+    /** Todo mit kanonischem Text; zählt eine Referenz im Pool. */
+    private Todo canonical(Todo t) {
+        String text = intern(t.getText());
+        return text == t.getText() ? t : new Todo(t.getId(), text, t.isDone());
+    }
+
+    /** Unterschiedliche Texte im Pool; {@code -1}, wenn der kompakte Modus aus ist. */
+    int pooledTexts() {
+        return textPool != null ? textPool.size() : -1;
+    }
+
+    private void indexTodo(Todo t, int ord) {
+        index.put(t.getId(), ord);
+        textIndex.add(t.getId(), t.getText());
+        sortedIndex.add(t);
+        setStatus(ord, t.isDone(), true);
+        if (t.isScheduled()) schedule(t);
+    }
+
+    // Erledigte stehen in keinem der Heaps: „als Nächstes“ betrifft nur Offenes
+    private void schedule(Todo t) {
+        if (t.getDue() != null && !t.isDone()) dueHeap.set(t.getId(), t.getDue().toEpochMilli());
+        else dueHeap.remove(t.getId());
+        if (t.getPriority() != 0 && !t.isDone()) priorityHeap.set(t.getId(), -t.getPriority());
+        else priorityHeap.remove(t.getId());
+    }
 
+    private void unschedule(int id) {
+        dueHeap.remove(id);
+        priorityHeap.remove(id);
+    }
+
+    private void setStatus(int ord, boolean done, boolean present) {
+        BitSet set = done ? doneOrds : openOrds;
+        set.set(ord, present);
+        int delta = present ? 1 : -1;
+        if (done) doneCount += delta;
+        else openCount += delta;
+    }
+
+    /**
+     * Speichert; das Format wird an der Endung erkannt ({@code .tdb} binär, {@code .tdz} komprimiert
+     * mit Prüfsummen, sonst CSV).
+     * Pfad, Größe, Dauer und ggf. Fehler gehen an die {@link #addPersistenceListener Persistenz-Listener}.
+     */
+    public boolean save(String fileName) {
+        return save(fileName, state());
+    }
+
+    /** Speichert einen zuvor geholten Stand, z. B. aus einem Hintergrund-Thread. */
+    boolean save(String fileName, State state) {
+        long t0 = System.nanoTime();
+        TodoMetrics.SaveEvent event = new TodoMetrics.SaveEvent();
+        event.begin();
+        event.path = fileName;
+        try {
+            event.todos = state.todos().size();
+            Path target = inAppDir(fileName);  // <— NEU
+            event.path = target.toAbsolutePath().toString();
+            write(target, state);
+            event.bytes = Files.size(target);
+            event.success = true;
+        } catch (IOException | RuntimeException e) { // auch Fehler im Schreibcode: nie als Erfolg melden
+            event.error = message(e);
+        } finally {
+            completed(Operation.SAVE, t0, event);
+        }
+        return event.success;
+    }
+
+    /**
+     * Lädt transaktional; das Format wird an der Endung erkannt ({@code .tdb} binär, {@code .tdz}
+     * komprimiert, sonst CSV). Eine {@code .tdz}-Datei wird vollständig geprüft, bevor etwas ersetzt wird.
+     * CSV wird wie bei {@link #importCsv} gelesen; fehlerhafte Zeilen werden übersprungen und den
+     * Persistenz-Listenern als Fehler gemeldet, der Rest wird übernommen.
+     */
+    public boolean load(String fileName) {
+        long t0 = System.nanoTime();
+        TodoMetrics.LoadEvent event = new TodoMetrics.LoadEvent();
+        event.begin();
+        event.path = fileName;
+        List<LineError> skipped = new ArrayList<>();
         try {
             Path source = inAppDir(fileName);  // <— NEU
+            event.path = source.toAbsolutePath().toString();
             if (!Files.exists(source)) {
-                System.out.println("Datei nicht gefunden: " + source.toAbsolutePath());
+                event.error = "Datei nicht gefunden: " + event.path;
                 return false;
             }
 
-            try (BufferedReader reader = Files.newBufferedReader(source)) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split(";", 3);
-                    if (parts.length < 3) continue; // oder validieren/loggen
-                    int id = Integer.parseInt(parts[0].trim());
-                    boolean done = Boolean.parseBoolean(parts[1].trim());
-                    String text = parts[2];
-                    tmp.add(new Todo(id, text, done));
-                    if (id >= tmpNextId) tmpNextId = id + 1;
-                }
-            }
+            event.bytes = Files.size(source);
+            State loaded = read(source, skipped);
             // Erfolgreich: jetzt erst übernehmen
-            todos.clear();
-            todos.addAll(tmp);
-            nextId = tmpNextId;
+            replaceAll(loaded.todos(), loaded.nextId());
+            if (!listeners.isEmpty()) {
+                List<Todo> copy = List.copyOf(loaded.todos());
+                fire(l -> l.loaded(copy));
+            }
 
-            System.out.println("Todos geladen von: " + source.toAbsolutePath());
+            event.todos = loaded.todos().size();
+            event.success = true;
             return true;
-        } catch (IOException | NumberFormatException e) {
-            System.out.println("Fehler beim Laden: " + e.getMessage());
+        } catch (IOException | RuntimeException e) { // auch beschädigte Snapshots
+            event.error = message(e);
             return false;
+        } finally {
+            completed(Operation.LOAD, t0, event);
+            if (event.success && !skipped.isEmpty()) persistenceFailed(Operation.LOAD, Path.of(event.path), skipped(skipped));
         }
     }
 
+    private static String skipped(List<LineError> errors) {
+        StringBuilder sb = new StringBuilder().append(errors.size()).append(errors.size() == 1 ? " Zeile" : " Zeilen")
+                .append(" übersprungen (");
+        for (int i = 0; i < Math.min(3, errors.size()); i++) sb.append(i == 0 ? "" : ", ").append(errors.get(i));
+        return sb.append(errors.size() > 3 ? ", ...)" : ")").toString();
+    }
+
+    /**
+     * Paralleler Import großer CSV-Dateien. Wie {@link #load} wird der Bestand nur bei Erfolg ersetzt;
+     * fehlerhafte Zeilen werden übersprungen und im Bericht aufgeführt.
+     */
+    public ImportReport importCsv(String fileName) {
+        long t0 = System.nanoTime();
+        TodoMetrics.LoadEvent event = new TodoMetrics.LoadEvent();
+        event.begin();
+        event.path = fileName;
+        try {
+            Path source = inAppDir(fileName);
+            event.path = source.toAbsolutePath().toString();
+            if (!Files.exists(source)) {
+                event.error = "Datei nicht gefunden: " + event.path;
+                return ImportReport.failed(event.error);
+            }
+            event.bytes = Files.size(source);
+            CsvImporter.Result result = new CsvImporter().read(source);
+            List<Todo> imported = result.state().todos();
+            replaceAll(imported, result.state().nextId());
+            if (!listeners.isEmpty()) {
+                List<Todo> copy = List.copyOf(imported);
+                fire(l -> l.loaded(copy));
+            }
+            event.todos = imported.size();
+            event.success = true;
+            return new ImportReport(true, result.lines(), imported.size(), List.copyOf(result.errors()), null);
+        } catch (IOException | RuntimeException e) {
+            event.error = message(e);
+            return ImportReport.failed("Fehler beim Laden: " + event.error);
+        } finally {
+            completed(Operation.IMPORT, t0, event);
+        }
+    }
+
+    /** Metriken, JFR-Ereignis und Persistenz-Listener; läuft im Thread, der gespeichert/geladen hat. */
+    private void completed(Operation op, long t0, TodoMetrics.PersistenceEvent event) {
+        metrics.finish(op, t0, event);
+        if (persistenceListeners.isEmpty()) return;
+        PersistenceResult result = new PersistenceResult(op, Path.of(event.path), event.bytes, event.todos,
+                Duration.ofNanos(System.nanoTime() - t0), event.success ? null : event.error);
+        for (PersistenceListener l : persistenceListeners) l.persisted(result);
+    }
+
+    /**
+     * Meldet einen Persistenzfehler, der nicht in {@code save}/{@code load} selbst entstand (etwa beim
+     * Schreiben des Journals), an Metriken und Persistenz-Listener.
+     */
+    void persistenceFailed(Operation op, Path path, String error) {
+        metrics.failed();
+        if (persistenceListeners.isEmpty()) return;
+        PersistenceResult result = new PersistenceResult(op, path, 0, 0, Duration.ZERO, error);
+        for (PersistenceListener l : persistenceListeners) l.persisted(result);
+    }
+
+    static String message(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+
+    /** Unveränderlicher Bestand samt nächster ID, z. B. ein Ladeergebnis vor der Übernahme. */
+    record State(List<Todo> todos, int nextId) { }
+
+    /** Aktueller Bestand in O(1); darf an andere Threads weitergegeben werden. */
+    State state() {
+        return new State(store.snapshot(), nextId);
+    }
+
+    /**
+     * Schreibt atomar: erst in eine temporäre Datei daneben, dann fsync und Umbenennen.
+     * Ein Absturz hinterlässt so entweder die alte oder die neue Datei, nie eine halbe. Jeder Aufruf
+     * hat seine eigene temporäre Datei; speichern Autosave, Menü und Journal gleichzeitig dasselbe
+     * Ziel, gewinnt der zuletzt umbenannte vollständige Stand.
+     */
+    static void write(Path target, State state) throws IOException {
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            if (BinarySnapshot.handles(target)) {
+                BinarySnapshot.write(tmp, state.todos(), state.nextId());
+            } else if (CompressedSnapshot.handles(target)) {
+                CompressedSnapshot.write(tmp, state.todos(), state.nextId());
+            } else {
+                writeCsv(tmp, state.todos());
+            }
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp); // nach erfolgreichem Umbenennen schon weg
+        }
+    }
+
+    /**
+     * Liest ohne zu übernehmen; das Format wird an der Endung erkannt wie bei {@link #load}. Eine CSV-Datei
+     * mit fehlerhaften Zeilen gilt hier als unlesbar, damit nichts unbemerkt verloren geht.
+     */
+    static State read(Path source) throws IOException {
+        List<LineError> skipped = new ArrayList<>();
+        State state = read(source, skipped);
+        if (!skipped.isEmpty()) throw new IOException(source + ": " + skipped(skipped));
+        return state;
+    }
+
+    /** Wie {@link #read(Path)}, übergeht aber fehlerhafte CSV-Zeilen und sammelt sie in {@code skipped}. */
+    static State read(Path source, List<LineError> skipped) throws IOException {
+        if (BinarySnapshot.handles(source)) return BinarySnapshot.read(source);
+        if (CompressedSnapshot.handles(source)) return CompressedSnapshot.read(source);
+        CsvImporter.Result result = new CsvImporter().read(source);
+        skipped.addAll(result.errors());
+        return result.state();
+    }
+
+    /** Binär oder komprimiert, also kein CSV; solche Dateien lädt {@link #load}, nicht {@link #importCsv}. */
+    static boolean isSnapshot(String fileName) {
+        Path p = Path.of(fileName);
+        return BinarySnapshot.handles(p) || CompressedSnapshot.handles(p);
+    }
+
+    /**
+     * Zweites CSV-Feld: {@code true}/{@code false}, mit Termin oder Priorität
+     * {@code false,2026-10-20T07:00:00Z,3} (leerer Termin, wenn nur eine Priorität gesetzt ist).
+     * Der Text bleibt so das letzte Feld und darf weiter {@code ;} enthalten; Dateien ohne Termine
+     * sehen aus wie bisher.
+     */
+    static String csvStatus(Todo t) {
+        if (!t.isScheduled()) return t.isDone() ? "true" : "false";
+        return t.isDone() + "," + (t.getDue() == null ? "" : t.getDue().toString()) + "," + t.getPriority();
+    }
+
+    /** Gegenstück zu {@link #csvStatus}; wirft {@link IllegalArgumentException} bei ungültigem Termin. */
+    static Todo fromCsv(int id, String status, String text) {
+        int c1 = status.indexOf(',');
+        if (c1 < 0) return new Todo(id, text, Boolean.parseBoolean(status));
+        int c2 = status.indexOf(',', c1 + 1);
+        String due = c2 < 0 ? status.substring(c1 + 1) : status.substring(c1 + 1, c2);
+        int priority = c2 < 0 ? 0 : Integer.parseInt(status.substring(c2 + 1).trim());
+        try {
+            return new Todo(id, text, Boolean.parseBoolean(status.substring(0, c1)),
+                    due.isBlank() ? null : Instant.parse(due.trim()), priority);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Ungültiger Termin bei ID " + id + ": " + due);
+        }
+    }
+
+    static void writeCsv(Path target, Iterable<Todo> todos) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(target)) {
+            for (Todo todo : todos) {
+                writer.write(todo.getId() + ";" + csvStatus(todo) + ";" + todo.getText());
+                writer.newLine();
+            }
+        }
+    }
 
 }
 
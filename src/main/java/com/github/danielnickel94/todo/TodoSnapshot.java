@@ -0,0 +1,50 @@
+package com.github.danielnickel94.todo;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Unveränderlicher Stand eines {@link TodoStore} in Schlüsselreihenfolge (Einfügereihenfolge).
+ * Bleibt gültig, auch wenn der Speicher danach weiter verändert wird.
+ */
+abstract class TodoSnapshot extends AbstractList<Todo> {
+
+    /** Iterator, der zusätzlich den Schlüssel des zuletzt gelieferten Eintrags kennt. */
+    interface Cursor extends Iterator<Todo> {
+        int lastKey();
+    }
+
+    /** Wert zum Ordnungsschlüssel oder {@code null}. */
+    abstract Todo getByKey(int key);
+
+    /** Iterator ab Position {@code index}. */
+    abstract Cursor iteratorAt(int index);
+
+    /** Iterator ab dem kleinsten Schlüssel {@code >= key}. */
+    abstract Cursor iteratorFromKey(int key);
+
+    @Override
+    public Iterator<Todo> iterator() {
+        return iteratorAt(0);
+    }
+
+    /** Höchstens {@code limit} Einträge ab Position {@code offset}. */
+    List<Todo> slice(int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit dürfen nicht negativ sein.");
+        List<Todo> out = new ArrayList<>(Math.min(limit, Math.max(0, size() - offset)));
+        for (Iterator<Todo> it = iteratorAt(offset); it.hasNext() && out.size() < limit; ) out.add(it.next());
+        return List.copyOf(out);
+    }
+
+    /** Höchstens {@code limit} Einträge ab Schlüssel {@code key}; die Marke ist der nächste Schlüssel. */
+    TodoService.Page pageFrom(int key, int limit) {
+        if (key < 0 || limit < 0) throw new IllegalArgumentException("cursor/limit dürfen nicht negativ sein.");
+        List<Todo> out = new ArrayList<>(Math.min(limit, size()));
+        Cursor it = iteratorFromKey(key);
+        while (it.hasNext() && out.size() < limit) out.add(it.next());
+        int next = !it.hasNext() ? TodoService.NO_MORE : out.isEmpty() ? key : it.lastKey() + 1;
+        return new TodoService.Page(List.copyOf(out), next);
+    }
+}
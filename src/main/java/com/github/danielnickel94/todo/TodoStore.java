@@ -0,0 +1,32 @@
+package com.github.danielnickel94.todo;
+
+import java.util.List;
+
+/**
+ * Ablage der Todos eines {@link TodoService}, adressiert über den Ordnungsschlüssel
+ * (Einfügereihenfolge). IDs, Status und Indizes verwaltet weiterhin der Service.
+ */
+interface TodoStore {
+
+    /** Wert zum Schlüssel oder {@code null}. */
+    Todo get(int key);
+
+    /** Fügt ein oder ersetzt den Wert zum Schlüssel. */
+    void put(int key, Todo todo);
+
+    void remove(int key);
+
+    /** Ersetzt den kompletten Inhalt; Schlüssel werden {@code 0..n-1}. */
+    void replaceAll(List<Todo> todos);
+
+    /** Aktueller Stand als unveränderliche Sicht. */
+    TodoSnapshot snapshot();
+
+    /**
+     * Ob Trigramm- und Sortierindex auf dem Heap geführt werden. Speicher für sehr große Bestände
+     * verzichten darauf; Suche und Sortierung laufen dann über den Bestand selbst.
+     */
+    default boolean heapIndexes() {
+        return true;
+    }
+}
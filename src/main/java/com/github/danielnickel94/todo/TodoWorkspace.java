@@ -0,0 +1,397 @@
+package com.github.danielnickel94.todo;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Mehrere benannte Listen (z. B. je Projekt oder Person), jede in einer eigenen Datei
+ * {@code <name>.tdb} im Verzeichnis des Arbeitsbereichs.
+ * <p>
+ * Eine Liste wird erst beim ersten Zugriff geladen. Übersteigen die geladenen Listen das
+ * Speicherbudget, werden die am längsten unbenutzten entladen und vorher gespeichert, falls sie
+ * geändert wurden. {@link #flush()} schreibt ebenfalls nur geänderte Listen. Eine Operation kostet
+ * so nur so viel, wie die betroffene Liste groß ist, nicht der ganze Arbeitsbereich.
+ * <p>
+ * Thread-sicher; jede Liste ist ein {@link ConcurrentTodoService}.
+ */
+public final class TodoWorkspace implements AutoCloseable {
+
+    static final String EXTENSION = BinarySnapshot.EXTENSION;
+    // grob gemessen: ConcurrentTodoService mit ~30 Zeichen Text je Todo, inkl. aller Indizes
+    static final long BYTES_PER_TODO = 512;
+    private static final Pattern NAME = Pattern.compile("[\\p{L}\\p{N}_-]{1,64}");
+
+    private final Path dir;
+    private final long budgetBytes;
+    private final List<PersistenceListener> persistenceListeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Zugriffsreihenfolge: vorne die am längsten unbenutzte Liste; nur unter lock
+    private final LinkedHashMap<String, Shard> resident = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** @param budgetBytes geschätzter Speicher, den geladene Listen zusammen belegen dürfen */
+    public TodoWorkspace(Path dir, long budgetBytes) throws IOException {
+        if (budgetBytes <= 0) throw new IllegalArgumentException("Budget muss positiv sein: " + budgetBytes);
+        this.dir = Files.createDirectories(dir);
+        this.budgetBytes = budgetBytes;
+    }
+
+    /** Arbeitsbereich im Unterordner {@code listen} des App-Verzeichnisses, Budget ein Viertel des Heaps. */
+    public static TodoWorkspace openDefault() throws IOException {
+        return new TodoWorkspace(TodoService.inAppDir("listen"), Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    /** Erlaubt sind Buchstaben, Ziffern, {@code _} und {@code -}, höchstens 64 Zeichen. */
+    public static boolean isValidName(String name) {
+        return name != null && NAME.matcher(name).matches();
+    }
+
+    /* ===================== Zugriff ===================== */
+
+    /**
+     * Führt {@code action} auf der Liste {@code name} aus; eine neue Liste entsteht leer. Solange die
+     * Aktion läuft, wird die Liste nicht entladen. Den Service nicht über die Aktion hinaus behalten:
+     * nach dem Entladen gehen Änderungen daran verloren.
+     */
+    public <T> T withList(String name, Function<? super TodoService, ? extends T> action) {
+        Shard shard = pin(name);
+        try {
+            return action.apply(shard.service());
+        } finally {
+            unpin(shard);
+        }
+    }
+
+    public int add(String list, String text) {
+        return withList(list, s -> s.add(text));
+    }
+
+    public List<Todo> list(String list) {
+        return withList(list, TodoService::list);
+    }
+
+    /** Alle Listen auf der Platte und die noch ungespeicherten neuen, alphabetisch. */
+    public List<String> names() throws IOException {
+        TreeSet<String> names = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path f : files) {
+                String n = f.getFileName().toString();
+                names.add(n.substring(0, n.length() - EXTENSION.length()));
+            }
+        }
+        lock.lock();
+        try {
+            names.addAll(resident.keySet());
+        } finally {
+            lock.unlock();
+        }
+        return List.copyOf(names);
+    }
+
+    /** Entfernt die Liste samt Datei; {@code false}, wenn es sie nicht gab. */
+    public boolean delete(String name) throws IOException {
+        checkName(name);
+        lock.lock();
+        try {
+            Shard shard = resident.get(name);
+            if (shard != null && shard.pins > 0) throw new IllegalStateException("Liste wird gerade benutzt: " + name);
+            boolean existed = resident.remove(name) != null;
+            return Files.deleteIfExists(file(name)) || existed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Anzahl der gerade geladenen Listen. */
+    public int residentLists() {
+        lock.lock();
+        try {
+            return resident.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Gemeldet werden Speichern beim Entladen und in {@link #flush()}. */
+    public void addPersistenceListener(PersistenceListener listener) {
+        persistenceListeners.add(listener);
+        lock.lock();
+        try {
+            for (Shard s : resident.values()) if (s.service != null) s.service.addPersistenceListener(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* ===================== Suche über alle Listen ===================== */
+
+    /** Treffer je Liste (nur Listen mit Treffern) und Listen, die sich nicht lesen ließen, samt Grund. */
+    public record SearchResult(Map<String, List<Todo>> hits, Map<String, String> failed) { }
+
+    /**
+     * Sucht in allen Listen parallel, eine Liste je virtuellem Thread. Geladene Listen nutzen ihren
+     * Trigramm-Index; nicht geladene werden nur gelesen und durchsucht, aber nicht geladen, sodass die
+     * Suche weder das Budget sprengt noch die LRU-Reihenfolge verändert.
+     */
+    public SearchResult search(String query) throws IOException {
+        String q = query == null ? "" : TextIndex.fold(query.trim());
+        if (q.isEmpty()) throw new IllegalArgumentException("Suchtext darf nicht leer sein.");
+        List<String> names = names();
+        Map<String, TodoService> loaded = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            // über entrySet iterieren: get() würde die Zugriffsreihenfolge ändern
+            for (Map.Entry<String, Shard> e : resident.entrySet()) {
+                if (e.getValue().service != null) loaded.put(e.getKey(), e.getValue().service);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Map<String, Future<List<Todo>>> tasks = new LinkedHashMap<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String name : names) {
+                TodoService service = loaded.get(name);
+                tasks.put(name, pool.submit(() -> service != null ? service.search(query) : scan(file(name), q)));
+            }
+        }
+        Map<String, List<Todo>> hits = new TreeMap<>();
+        Map<String, String> failed = new TreeMap<>();
+        for (Map.Entry<String, Future<List<Todo>>> e : tasks.entrySet()) {
+            try {
+                List<Todo> found = e.getValue().get();
+                if (!found.isEmpty()) hits.put(e.getKey(), found);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                failed.put(e.getKey(), cause.getMessage() != null ? cause.getMessage() : cause.toString());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Suche unterbrochen.", ex);
+            }
+        }
+        return new SearchResult(hits, failed);
+    }
+
+    private static List<Todo> scan(Path file, String foldedQuery) throws IOException {
+        if (!Files.exists(file)) return List.of(); // neu angelegt, noch nicht gespeichert
+        List<Todo> out = new ArrayList<>();
+        for (Todo t : TodoService.read(file).todos()) if (TodoService.matches(t, foldedQuery)) out.add(t);
+        return out;
+    }
+
+    /* ===================== Speichern ===================== */
+
+    /**
+     * Speichert alle geänderten geladenen Listen; {@code false}, wenn eine davon scheiterte. Geschrieben
+     * wird außerhalb der Sperre, andere Listen bleiben währenddessen benutzbar.
+     */
+    public boolean flush() {
+        List<Shard> loaded = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Shard s : resident.values()) {
+                if (s.service == null) continue;
+                s.pins++; // nicht entladen, solange gespeichert wird
+                loaded.add(s);
+            }
+        } finally {
+            lock.unlock();
+        }
+        boolean ok = true;
+        try {
+            // auch saubere: persist() wartet so auf ein gerade laufendes Speichern derselben Liste
+            for (Shard s : loaded) ok &= s.persist();
+        } finally {
+            lock.lock();
+            try {
+                for (Shard s : loaded) s.pins--;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return ok;
+    }
+
+    /** Speichert Geändertes und entlädt alle Listen. */
+    @Override
+    public void close() {
+        flush();
+        lock.lock();
+        try {
+            resident.values().removeIf(s -> s.pins == 0 && !s.dirty);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* ===================== Laden und Entladen ===================== */
+
+    private Shard pin(String name) {
+        checkName(name);
+        Shard shard;
+        lock.lock();
+        try {
+            shard = resident.computeIfAbsent(name, Shard::new); // rückt nach hinten (zuletzt benutzt)
+            shard.pins++;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            shard.load(); // außerhalb der Sperre: andere Listen bleiben währenddessen benutzbar
+            return shard;
+        } catch (IOException | RuntimeException e) {
+            lock.lock();
+            try {
+                if (--shard.pins == 0 && shard.service == null) resident.remove(name, shard);
+            } finally {
+                lock.unlock();
+            }
+            throw new IllegalStateException("Liste „" + name + "“ konnte nicht geladen werden: " + e.getMessage(), e);
+        }
+    }
+
+    private void unpin(Shard shard) {
+        List<Shard> unsaved;
+        lock.lock();
+        try {
+            shard.pins--;
+            unsaved = evict();
+        } finally {
+            lock.unlock();
+        }
+        if (!unsaved.isEmpty()) saveAndDrop(unsaved);
+    }
+
+    /*
+     * Unter lock; Aufwand proportional zur Zahl geladener Listen, nicht zu deren Inhalt. Saubere
+     * Opfer werden sofort entladen, geänderte angeheftet zurückgegeben: gespeichert wird außerhalb
+     * der Sperre in saveAndDrop().
+     */
+    private List<Shard> evict() {
+        long used = 0;
+        for (Shard s : resident.values()) used += s.estimatedBytes();
+        List<Shard> unsaved = new ArrayList<>();
+        for (Iterator<Shard> it = resident.values().iterator(); it.hasNext() && used > budgetBytes; ) {
+            Shard s = it.next();
+            if (s.pins > 0 || s.service == null) continue;
+            used -= s.estimatedBytes();
+            if (s.dirty) {
+                s.pins++;
+                unsaved.add(s);
+            } else {
+                it.remove();
+            }
+        }
+        return unsaved;
+    }
+
+    private void saveAndDrop(List<Shard> unsaved) {
+        for (Shard s : unsaved) s.persist();
+        lock.lock();
+        try {
+            // gescheitert, inzwischen wieder benutzt oder geändert: bleibt geladen – lieber über dem
+            // Budget bleiben als Änderungen verlieren; beim nächsten evict() ist sie wieder Kandidat
+            for (Shard s : unsaved) if (--s.pins == 0 && !s.dirty) resident.remove(s.name, s);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path file(String name) {
+        return dir.resolve(name + EXTENSION);
+    }
+
+    private static void checkName(String name) {
+        if (!isValidName(name)) throw new IllegalArgumentException("Ungültiger Listenname: " + name);
+    }
+
+    /** Eine Liste; meldet jede Änderung an sich selbst, um sich als ungespeichert zu markieren. */
+    private final class Shard implements ChangeListener {
+        final String name;
+        final Path file;
+        volatile ConcurrentTodoService service; // null, bis geladen
+        volatile boolean dirty;
+        int pins; // unter lock
+
+        Shard(String name) {
+            this.name = name;
+            this.file = file(name);
+        }
+
+        ConcurrentTodoService service() {
+            return service;
+        }
+
+        synchronized void load() throws IOException {
+            if (service != null) return;
+            ConcurrentTodoService s = new ConcurrentTodoService();
+            if (Files.exists(file)) {
+                TodoService.State state = TodoService.read(file);
+                s.replaceAll(state.todos(), state.nextId());
+            }
+            for (PersistenceListener l : persistenceListeners) s.addPersistenceListener(l);
+            s.addListener(this);
+            service = s;
+        }
+
+        long estimatedBytes() {
+            ConcurrentTodoService s = service;
+            return s == null ? 0 : (s.countOpen() + s.countDone()) * BYTES_PER_TODO;
+        }
+
+        /** Speichert nur, wenn geändert; {@code false}, wenn das Speichern scheiterte. Ohne Workspace-Sperre aufrufen. */
+        synchronized boolean persist() {
+            if (!dirty) return true;
+            dirty = false; // vor dem Snapshot: spätere Änderungen markieren erneut
+            if (service.save(file.toString())) return true;
+            dirty = true;
+            return false;
+        }
+
+        @Override
+        public void added(Todo todo) {
+            dirty = true;
+        }
+
+        @Override
+        public void textUpdated(int id, String text) {
+            dirty = true;
+        }
+
+        @Override
+        public void markedDone(int id) {
+            dirty = true;
+        }
+
+        @Override
+        public void scheduled(Todo todo) {
+            dirty = true;
+        }
+
+        @Override
+        public void removed(int id) {
+            dirty = true;
+        }
+
+        @Override
+        public void loaded(List<Todo> todos) {
+            dirty = true;
+        }
+    }
+}
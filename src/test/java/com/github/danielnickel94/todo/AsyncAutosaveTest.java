@@ -0,0 +1,82 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAutosaveTest {
+
+    @Test
+    void flush_shouldWriteLatestStateOfABurst(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("todos.csv");
+        var s = new TodoService();
+        var autosave = new AsyncAutosave(s, file.toString(), Duration.ofSeconds(10));
+        for (int i = 0; i < 500; i++) {
+            s.add("Aufgabe " + i);
+            autosave.changed();
+        }
+        s.markDone(1);
+        autosave.changed();
+
+        assertTrue(autosave.flush()); // wartet nicht die 10 s ab
+        var loaded = new TodoService();
+        assertTrue(loaded.load(file.toString()));
+        assertEquals(500, loaded.list().size());
+        assertTrue(loaded.list().get(0).isDone());
+        try (var files = Files.list(tmp)) {
+            assertEquals(List.of(file), files.toList()); // keine temporären Dateien übrig
+        }
+        autosave.close();
+    }
+
+    @Test
+    void close_shouldPersistEveryAcknowledgedEdit(@TempDir Path tmp) {
+        Path file = tmp.resolve("todos.tdb");
+        var s = new TodoService();
+        try (var autosave = new AsyncAutosave(s, file.toString(), Duration.ofMillis(50))) {
+            int id = s.add("Erst");
+            autosave.changed();
+            s.updateText(id, "Dann");
+            autosave.changed();
+        }
+        var loaded = new TodoService();
+        assertTrue(loaded.load(file.toString()));
+        assertEquals(List.of(new Todo(1, "Dann", false)), loaded.list());
+    }
+
+    @Test
+    void changed_afterClose_shouldBeRejected(@TempDir Path tmp) {
+        var autosave = new AsyncAutosave(new TodoService(), tmp.resolve("x.csv").toString());
+        autosave.close();
+        assertThrows(IllegalStateException.class, autosave::changed);
+    }
+
+    @Test
+    void failingSave_shouldNotKillTheWriter(@TempDir Path tmp) {
+        var calls = new AtomicInteger();
+        var s = new TodoService() {
+            @Override
+            boolean save(String fileName, State state) {
+                if (calls.getAndIncrement() == 0) throw new IllegalStateException("kaputt");
+                return super.save(fileName, state);
+            }
+        };
+        Path file = tmp.resolve("todos.csv");
+        var autosave = new AsyncAutosave(s, file.toString(), Duration.ofMillis(10));
+        s.add("A");
+        autosave.changed();
+        assertFalse(autosave.flush()); // erster Versuch scheitert, kehrt aber zurück
+        s.add("B");
+        autosave.changed();
+        assertTrue(autosave.flush());
+        autosave.close();
+        assertTrue(Files.exists(file));
+    }
+}
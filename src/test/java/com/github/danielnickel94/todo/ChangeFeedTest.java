@@ -0,0 +1,164 @@
+package com.github.danielnickel94.todo;
+
+import com.github.danielnickel94.todo.ChangeFeed.Change;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    @Test
+    void mutations_shouldBeNumberedAndReadAsDeltas(@TempDir Path tmp) {
+        var s = new TodoService();
+        s.add("vorher"); // vor dem ersten changes(): nicht aufgezeichnet
+        ChangeFeed feed = s.changes();
+        ChangeFeed.Cursor cursor = feed.cursor(feed.sequence());
+
+        int id = s.add("Einkaufen");
+        s.updateText(id, "Wocheneinkauf");
+        s.markDone(id);
+        assertTrue(s.markDone(id)); // schon erledigt → keine Nummer
+        s.remove(1);
+        assertFalse(s.remove(99)); // nichts geändert → keine Nummer
+        assertTrue(s.save(tmp.resolve("t.csv").toString()));
+        assertTrue(s.load(tmp.resolve("t.csv").toString()));
+
+        List<Change> changes = cursor.poll(100);
+        assertEquals(List.of(
+                new ChangeFeed.Added(1, new Todo(id, "Einkaufen", false)),
+                new ChangeFeed.TextUpdated(2, id, "Wocheneinkauf"),
+                new ChangeFeed.MarkedDone(3, id),
+                new ChangeFeed.Removed(4, 1),
+                new ChangeFeed.Loaded(5, s.list())), changes);
+        assertEquals(5, cursor.position());
+        assertTrue(cursor.poll(100).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> s.batch(m -> {
+            m.add("wird zurückgenommen");
+            throw new IllegalArgumentException("Abbruch");
+        }));
+        assertEquals(5, feed.sequence());
+    }
+
+    @Test
+    void slowReader_shouldMissOverwrittenChanges() {
+        var feed = new ChangeFeed(5); // → 8
+        var s = new TodoService();
+        s.addListener(feed);
+        ChangeFeed.Cursor slow = feed.cursor(0);
+        for (int i = 0; i < 8; i++) s.add("t" + i);
+        assertEquals(3, slow.poll(3).size());
+
+        for (int i = 0; i < 4; i++) s.add("u" + i); // überschreibt 1..4, 4 war noch ungelesen
+        var e = assertThrows(ChangeFeed.MissedChangesException.class, () -> slow.poll(10));
+        assertEquals(5, e.oldest());
+
+        ChangeFeed.Cursor fresh = feed.cursor(e.oldest() - 1);
+        assertEquals(8, fresh.poll(100).size());
+        assertThrows(IllegalArgumentException.class, () -> feed.cursor(13));
+    }
+
+    @Test
+    void flowSubscriber_shouldGetOnlyWhatItRequested() throws Exception {
+        var s = new ConcurrentTodoService();
+        ChangeFeed feed = s.changes();
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        feed.subscribe(0, new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription sub) {
+                subscription[0] = sub;
+                sub.request(2);
+            }
+
+            @Override
+            public void onNext(Change item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                received.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                received.add("fertig");
+            }
+        });
+
+        for (int i = 0; i < 5; i++) s.add("t" + i);
+        assertEquals(1, ((Change) received.poll(5, TimeUnit.SECONDS)).sequence());
+        assertEquals(2, ((Change) received.poll(5, TimeUnit.SECONDS)).sequence());
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS)); // keine Nachfrage mehr
+
+        subscription[0].request(10);
+        for (long seq = 3; seq <= 5; seq++) assertEquals(seq, ((Change) received.poll(5, TimeUnit.SECONDS)).sequence());
+        feed.close();
+        assertEquals("fertig", received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void await_shouldWakeUpOnNewChange() throws Exception {
+        var s = new ConcurrentTodoService();
+        ChangeFeed.Cursor cursor = s.changes().cursor(0);
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            s.add("später");
+        });
+        List<Change> changes = cursor.await(10, Duration.ofSeconds(5));
+        writer.join();
+        assertEquals(1, changes.size());
+        assertTrue(cursor.await(10, Duration.ofMillis(10)).isEmpty());
+    }
+
+    @Test
+    void viewSequence_shouldMatchExactlyTheChangesInItsSnapshot() throws Exception {
+        var s = new ConcurrentTodoService();
+        ChangeFeed feed = s.changes();
+        int writers = 4;
+        int perWriter = 2000; // zusammen unter der Feed-Kapazität, am Ende ist alles noch lesbar
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perWriter; i++) s.add("t" + i);
+            }));
+        }
+        List<ConcurrentTodoService.View> views = new ArrayList<>();
+        long last = -1;
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            ConcurrentTodoService.View view = s.view();
+            if (view.sequence() != last && views.size() < 500) views.add(view);
+            last = view.sequence();
+        }
+        for (Thread t : threads) t.join();
+        views.add(s.view());
+
+        // Sequenznummer → ID der hinzugefügten Todos
+        List<Change> all = feed.cursor(0).poll(writers * perWriter);
+        assertEquals(writers * perWriter, all.size());
+        for (ConcurrentTodoService.View view : views) {
+            Set<Integer> expected = new HashSet<>();
+            for (Change c : all) if (c.sequence() <= view.sequence()) expected.add(((ChangeFeed.Added) c).todo().getId());
+            Set<Integer> actual = new HashSet<>();
+            view.stream().forEach(t -> actual.add(t.getId()));
+            assertEquals(expected, actual, "Sequenz " + view.sequence());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedSnapshotTest {
+
+    @Test
+    void roundTrip_shouldKeepOrderTextsAndSchedule(@TempDir Path tmp) {
+        var s = new TodoService();
+        for (int i = 0; i < 10_000; i++) s.add("Aufgabe " + (i % 37) + " für Kunde " + (i * 7919 % 1000));
+        s.add("Äpfel 🍎; mit Semikolon");
+        s.add("Äpfel 🍎; mit Semikolon"); // gleicher Text
+        s.remove(5);
+        s.markDone(17);
+        s.setDue(42, Instant.parse("2026-10-20T07:00:00Z"));
+        s.setPriority(42, 8);
+        s.updateText(3, "z"); // rückt beim Sortieren ans Ende, in der Liste nicht
+        String file = tmp.resolve("t" + CompressedSnapshot.EXTENSION).toString();
+        assertTrue(s.save(file));
+
+        var loaded = new TodoService();
+        assertTrue(loaded.load(file));
+        assertEquals(s.list(), loaded.list());
+        assertEquals(s.add("neu"), loaded.add("neu")); // nextId übernommen
+
+        var empty = new TodoService();
+        assertTrue(empty.save(file));
+        assertTrue(loaded.load(file));
+        assertEquals(List.of(), loaded.list());
+    }
+
+    @Test
+    void corruptOrTruncatedFile_shouldBeRejectedWithoutTouchingState(@TempDir Path tmp) throws Exception {
+        var s = new TodoService();
+        for (int i = 0; i < 3 * CompressedSnapshot.BLOCK_TODOS; i++) s.add("Eintrag " + i);
+        Path file = tmp.resolve("t" + CompressedSnapshot.EXTENSION);
+        assertTrue(s.save(file.toString()));
+        byte[] good = Files.readAllBytes(file);
+
+        var target = new TodoService();
+        target.add("bleibt");
+        List<Todo> before = target.list();
+
+        byte[] flipped = good.clone();
+        flipped[good.length - 100] ^= 0x10; // mitten im letzten Block
+        byte[] header = good.clone();
+        header[9] ^= 0x01; // Anzahl im Header
+        for (byte[] bad : List.of(flipped, header, Arrays.copyOf(good, good.length - 1), Arrays.copyOf(good, 10))) {
+            Files.write(file, bad);
+            assertFalse(target.load(file.toString()));
+            assertEquals(before, target.list());
+        }
+    }
+
+    @Test
+    void repetitiveTexts_shouldBeMuchSmallerThanCsv(@TempDir Path tmp) throws Exception {
+        var s = new TodoService();
+        for (int i = 0; i < 50_000; i++) s.add("Rechnung " + (i % 500) + " an Kunde prüfen und ablegen");
+        Path csv = tmp.resolve("t.csv");
+        Path tdz = tmp.resolve("t" + CompressedSnapshot.EXTENSION);
+        assertTrue(s.save(csv.toString()));
+        assertTrue(s.save(tdz.toString()));
+        assertTrue(Files.size(tdz) * 5 < Files.size(csv), Files.size(tdz) + " vs. " + Files.size(csv));
+    }
+}
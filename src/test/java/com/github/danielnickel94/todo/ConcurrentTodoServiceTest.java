@@ -0,0 +1,195 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTodoServiceTest {
+
+    private static final int WRITERS = 8;
+    private static final int OPS_PER_WRITER = 400;
+
+    @Test
+    void parallelAddMarkDoneRemove_shouldKeepInvariants() throws Exception {
+        var s = new ConcurrentTodoService();
+        Set<Integer> removed = ConcurrentHashMap.newKeySet();
+        Set<Integer> done = ConcurrentHashMap.newKeySet();
+        Set<Integer> added = ConcurrentHashMap.newKeySet();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 2);
+
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_WRITER; i++) {
+                    int id = s.add("Writer " + writer + " Aufgabe " + i);
+                    assertTrue(added.add(id), "ID doppelt vergeben: " + id);
+                    if (i % 3 == 0 && s.markDone(id)) done.add(id);
+                    if (i % 5 == 0 && s.remove(id)) removed.add(id);
+                }
+                return null;
+            }));
+        }
+        // Leser prüfen, dass jeder Snapshot in sich konsistent ist
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(pool.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    List<Todo> snap = s.list();
+                    Set<Integer> ids = new HashSet<>();
+                    for (Todo t : snap) assertTrue(ids.add(t.getId()), "Snapshot mit doppelter ID");
+                    for (Todo t : s.sortByText(true, 0, 20)) assertNotNull(t.getText());
+                    s.search("aufgabe 1");
+                    s.listOpen();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : writers) f.get(60, TimeUnit.SECONDS);
+        writing.set(false);
+        for (Future<?> f : readers) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        List<Todo> all = s.list();
+        assertEquals(WRITERS * OPS_PER_WRITER, added.size());
+        assertEquals(added.size() - removed.size(), all.size());
+        for (Todo t : all) {
+            assertFalse(removed.contains(t.getId()));
+            assertEquals(done.contains(t.getId()), t.isDone());
+        }
+        assertEquals(all.size(), s.sortByText(false).size());
+        assertEquals(WRITERS * OPS_PER_WRITER + 1, s.add("danach"));
+    }
+
+    @Test
+    void parallelSavesOfOneTarget_shouldNeverTearIt(@TempDir Path tmp) throws Exception {
+        var s = new ConcurrentTodoService();
+        for (int i = 0; i < 20_000; i++) s.add("Aufgabe " + i);
+        // .tdz prüft Prüfsummen und Länge: ein zerrissener Stand ließe sich nicht laden
+        String file = tmp.resolve("todos" + CompressedSnapshot.EXTENSION).toString();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        List<Future<Boolean>> saves = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            saves.add(pool.submit(() -> {
+                start.await();
+                boolean ok = true;
+                for (int i = 0; i < 5; i++) ok &= s.save(file);
+                return ok;
+            }));
+        }
+        start.countDown();
+        for (Future<Boolean> f : saves) assertTrue(f.get(60, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        var loaded = new TodoService();
+        assertTrue(loaded.load(file));
+        assertEquals(s.list(), loaded.list());
+        try (var files = Files.list(tmp)) {
+            assertEquals(List.of(Path.of(file)), files.toList());
+        }
+    }
+
+    @Test
+    void batch_shouldBecomeVisibleAtOnce() throws Exception {
+        var s = new ConcurrentTodoService();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> reader = pool.submit(() -> {
+            while (writing.get()) assertEquals(0, s.list().size() % 50, "halber Stapel sichtbar");
+            return null;
+        });
+        List<String> texts = java.util.Collections.nCopies(50, "Stapel");
+        for (int i = 0; i < 200; i++) s.addAll(texts);
+        writing.set(false);
+        reader.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertEquals(10_000, s.list().size());
+    }
+
+    @Test
+    void snapshot_shouldNotChangeAfterLaterWrites() {
+        var s = new ConcurrentTodoService();
+        int id = s.add("Vorher");
+        List<Todo> before = s.list();
+
+        s.updateText(id, "Nachher");
+        s.markDone(id);
+        s.add("Neu");
+
+        assertEquals(1, before.size());
+        assertEquals("Vorher", before.get(0).getText());
+        assertFalse(before.get(0).isDone());
+        assertEquals("Nachher", s.list().get(0).getText());
+    }
+
+    @Test
+    void streamsAndPages_shouldMatchPlainService() {
+        var plain = new TodoService();
+        var s = new ConcurrentTodoService();
+        for (int i = 0; i < 100; i++) {
+            plain.add("Eintrag " + (i * 7 % 100));
+            s.add("Eintrag " + (i * 7 % 100));
+        }
+        plain.markDone(3, 9);
+        s.markDone(3, 9);
+
+        assertEquals(plain.streamOpen().toList(), s.streamOpen().toList());
+        assertEquals(plain.searchStream("trag 4").toList(), s.searchStream("trag 4").toList());
+        assertEquals(plain.sortedStream(false).toList(), s.sortedStream(false).toList());
+        assertEquals(plain.page(40, 10), s.page(40, 10));
+        assertEquals(plain.pageAfter(95, 10), s.pageAfter(95, 10));
+        var q = TodoQuery.all().open().containing("trag 1").sortedByText(false).limit(5);
+        assertEquals(plain.query(q), s.query(q));
+    }
+
+    @Test
+    void indexedReads_shouldStayConsistentWhileWriting() throws Exception {
+        var s = new ConcurrentTodoService();
+        for (int i = 0; i < 5000; i++) s.add("Aufgabe " + i + (i % 100 == 0 ? " Steuer" : ""));
+        assertTrue(s.explain(TodoQuery.all().containing("steuer")).startsWith("TEXT_INDEX"));
+        assertTrue(s.explain(TodoQuery.all().open().sortedByText(false).limit(20)).startsWith("SORTED_VIEW"));
+
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 3000; i++) {
+                int id = s.add("Steuer " + i);
+                if (i % 2 == 0) s.remove(id);
+                else s.markDone(id);
+            }
+        });
+        while (writer.isAlive()) {
+            List<Todo> hits = s.search("steuer");
+            assertTrue(hits.stream().allMatch(t -> t.getText().contains("Steuer")));
+            for (int i = 1; i < hits.size(); i++) assertTrue(hits.get(i - 1).getId() < hits.get(i).getId());
+            assertTrue(s.listOpen().stream().noneMatch(Todo::isDone));
+            List<Todo> page = s.sortByText(true, 0, 50);
+            for (int i = 1; i < page.size(); i++) {
+                assertTrue(page.get(i - 1).getText().compareToIgnoreCase(page.get(i).getText()) <= 0);
+            }
+            assertEquals(20, s.query(TodoQuery.all().open().sortedByText(false).limit(20)).size());
+        }
+        writer.join();
+        assertEquals(50 + 1500, s.search("steuer").size());
+    }
+}
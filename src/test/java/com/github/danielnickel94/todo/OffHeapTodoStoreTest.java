@@ -0,0 +1,130 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTodoStoreTest {
+
+    /** Kleine Blöcke (4 KiB), damit Blockgrenzen in den Tests oft vorkommen. */
+    private static final int SMALL_CHUNKS = 12;
+
+    @Test
+    void shouldBehaveLikeHeapService() throws IOException {
+        try (OffHeapTodoStore store = OffHeapTodoStore.inMemory()) {
+            var offHeap = new TodoService(store);
+            var heap = new TodoService();
+            Random rnd = new Random(42);
+            for (int i = 0; i < 3000; i++) {
+                int id = 1 + rnd.nextInt(Math.max(1, i));
+                String text = "Aufgabe " + rnd.nextInt(100) + (i % 7 == 0 ? " Müll 🚮" : "");
+                for (TodoService s : List.of(heap, offHeap)) { // beide bekommen dieselbe Folge
+                    switch (i % 5) {
+                        case 0, 1 -> s.add(text);
+                        case 2 -> s.markDone(id);
+                        case 3 -> s.updateText(id, "Geändert " + i);
+                        default -> s.remove(id);
+                    }
+                }
+            }
+            assertEquals(heap.list(), offHeap.list());
+            assertEquals(heap.listOpen(), offHeap.listOpen());
+            assertEquals(heap.search("müll"), offHeap.search("müll"));
+            assertEquals(heap.sortByText(false, 5, 20), offHeap.sortByText(false, 5, 20));
+            var q = TodoQuery.all().open().containing("aufgabe 1").sortedByText(true).limit(10);
+            assertEquals(heap.query(q), offHeap.query(q));
+            assertEquals(heap.page(100, 10), offHeap.page(100, 10));
+            assertEquals(heap.add("danach"), offHeap.add("danach"));
+        }
+    }
+
+    @Test
+    void snapshot_shouldNotChangeAfterLaterWrites() throws IOException {
+        try (OffHeapTodoStore store = OffHeapTodoStore.inMemory()) {
+            var s = new TodoService(store);
+            for (int i = 0; i < 2000; i++) s.add("T" + i);
+            List<Todo> before = s.list();
+
+            s.updateText(5, "neu");
+            s.remove(1500);
+            s.markDone(10);
+
+            assertEquals(2000, before.size());
+            assertEquals("T4", before.get(4).getText());
+            assertEquals("T1499", before.get(1499).getText());
+            assertFalse(before.get(9).isDone());
+            assertEquals(1999, s.list().size());
+            assertEquals("neu", s.list().get(4).getText());
+        }
+    }
+
+    @Test
+    void sortedPage_shouldMatchHeapServiceAtEveryOffset() throws IOException {
+        try (OffHeapTodoStore store = OffHeapTodoStore.inMemory()) {
+            var offHeap = new TodoService(store);
+            var heap = new TodoService();
+            Random rnd = new Random(7);
+            for (int i = 0; i < 5000; i++) {
+                String text = (char) ('a' + rnd.nextInt(26)) + "ufgabe " + rnd.nextInt(50);
+                heap.add(text);
+                offHeap.add(rnd.nextBoolean() ? text : text.toUpperCase()); // Groß/klein zählt nicht, ID entscheidet
+            }
+            for (boolean asc : List.of(true, false)) {
+                for (int offset : List.of(0, 20, 4990, 5000, 6000)) {
+                    List<Integer> expected = heap.sortByText(asc, offset, 20).stream().map(Todo::getId).toList();
+                    assertEquals(expected, offHeap.sortByText(asc, offset, 20).stream().map(Todo::getId).toList());
+                }
+                assertEquals(4980, offHeap.sortByText(asc, 20, Integer.MAX_VALUE).size()); // kein Überlauf
+            }
+        }
+    }
+
+    @Test
+    void file_shouldSurviveReopenWithoutLoad(@TempDir Path tmp) throws IOException {
+        Path file = tmp.resolve("todos" + OffHeapTodoStore.EXTENSION);
+        List<Todo> expected;
+        try (OffHeapTodoStore store = OffHeapTodoStore.open(file, SMALL_CHUNKS)) {
+            var s = new TodoService(store);
+            for (int i = 0; i < 500; i++) s.add("Eintrag " + i + " mit etwas längerem Text über die Blockgrenze");
+            s.markDone(3);
+            s.remove(4);
+            s.updateText(5, "Zeilen\numbruch; und Semikolon");
+            expected = List.copyOf(s.list());
+        }
+        try (OffHeapTodoStore store = OffHeapTodoStore.open(file, SMALL_CHUNKS)) {
+            var s = new TodoService(store);
+            assertEquals(expected, s.list());
+            assertEquals(List.of(5), s.search("umbruch").stream().map(Todo::getId).toList());
+            assertEquals(501, s.add("neu"));
+        }
+    }
+
+    @Test
+    void reopen_shouldCompactMostlyDeadLog(@TempDir Path tmp) throws IOException {
+        Path file = tmp.resolve("todos" + OffHeapTodoStore.EXTENSION);
+        try (OffHeapTodoStore store = OffHeapTodoStore.open(file, SMALL_CHUNKS)) {
+            var s = new TodoService(store);
+            int id = s.add("x");
+            for (int i = 0; i < 30_000; i++) s.updateText(id, "Version " + i + " eines oft geänderten Textes");
+        }
+        long before = Files.size(file);
+        try (OffHeapTodoStore store = OffHeapTodoStore.open(file, SMALL_CHUNKS)) {
+            assertEquals("Version 29999 eines oft geänderten Textes", new TodoService(store).list().get(0).getText());
+        }
+        assertTrue(Files.size(file) < before / 10, "Datei wurde nicht kompaktiert");
+    }
+
+    @Test
+    void open_foreignFile_shouldFail(@TempDir Path tmp) throws IOException {
+        Path file = tmp.resolve("fremd" + OffHeapTodoStore.EXTENSION);
+        Files.writeString(file, "1;false;Das ist eine CSV-Datei\n");
+        assertThrows(IOException.class, () -> OffHeapTodoStore.open(file));
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.danielnickel94.todo;
+
+import com.github.danielnickel94.todo.TodoMetrics.Operation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceListenerTest {
+
+    @Test
+    void saveAndLoad_shouldReportTypedResults(@TempDir Path tmp) throws IOException {
+        var s = new TodoService();
+        List<PersistenceResult> results = new CopyOnWriteArrayList<>();
+        s.addPersistenceListener(results::add);
+        s.add("Einkaufen");
+        s.add("Putzen");
+        Path file = tmp.resolve("todos.csv");
+
+        assertTrue(s.save(file.toString()));
+        assertTrue(s.load(file.toString()));
+        assertFalse(s.load(tmp.resolve("fehlt.csv").toString()));
+
+        assertEquals(3, results.size());
+        PersistenceResult saved = results.get(0);
+        assertEquals(Operation.SAVE, saved.operation());
+        assertEquals(file.toAbsolutePath(), saved.path());
+        assertEquals(Files.size(file), saved.bytes());
+        assertEquals(2, saved.todos());
+        assertTrue(saved.ok());
+        assertFalse(saved.duration().isNegative());
+
+        assertEquals(Operation.LOAD, results.get(1).operation());
+        assertEquals(2, results.get(1).todos());
+        PersistenceResult missing = results.get(2);
+        assertFalse(missing.ok());
+        assertTrue(missing.error().startsWith("Datei nicht gefunden"), missing.error());
+    }
+
+    @Test
+    void unexpectedExceptionWhileWriting_shouldBeReportedAsFailure(@TempDir Path tmp) {
+        var s = new TodoService();
+        List<PersistenceResult> results = new CopyOnWriteArrayList<>();
+        s.addPersistenceListener(results::add);
+        // null-Eintrag: der CSV-Schreiber wirft eine NullPointerException statt einer IOException
+        var broken = new TodoService.State(Arrays.asList(new Todo(1, "ok"), null), 2);
+
+        assertFalse(s.save(tmp.resolve("todos.csv").toString(), broken));
+        assertEquals(1, results.size());
+        assertFalse(results.get(0).ok());
+        assertNotNull(results.get(0).error());
+        assertEquals(1, s.metrics().ioFailures());
+    }
+
+    @Test
+    void autosave_shouldReportFromBackgroundThread(@TempDir Path tmp) {
+        var s = new TodoService();
+        List<PersistenceResult> results = new CopyOnWriteArrayList<>();
+        s.addPersistenceListener(results::add);
+        try (var autosave = new AsyncAutosave(s, tmp.resolve("auto.csv").toString())) {
+            s.add("x");
+            autosave.changed();
+            assertTrue(autosave.flush());
+        }
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).todos());
+    }
+
+    @Test
+    void sink_shouldDropInsteadOfBlocking() throws InterruptedException {
+        var release = new CountDownLatch(1);
+        List<PersistenceResult> delivered = new CopyOnWriteArrayList<>();
+        var result = new PersistenceResult(Operation.SAVE, Path.of("x.csv"), 1, 1, Duration.ZERO, null);
+        try (var sink = new AsyncPersistenceSink(r -> {
+            try {
+                release.await(); // langsamer Empfänger
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(r);
+        }, 2)) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < 100; i++) sink.persisted(result);
+            assertTrue(System.nanoTime() - t0 < 1_000_000_000L, "persisted() hat blockiert");
+            assertTrue(sink.dropped() >= 97, "verworfen: " + sink.dropped());
+            release.countDown();
+        }
+        assertTrue(delivered.size() >= 2 && delivered.size() <= 3, "ausgeliefert: " + delivered.size());
+    }
+
+    @Test
+    void sink_shouldDeliverOrCountEveryResultWhileClosing() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            AtomicInteger delivered = new AtomicInteger();
+            var sink = new AsyncPersistenceSink(r -> delivered.incrementAndGet(), 1024);
+            var result = new PersistenceResult(Operation.SAVE, Path.of("x.csv"), 1, 1, Duration.ZERO, null);
+            List<Thread> senders = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                senders.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 200; i++) sink.persisted(result);
+                }));
+            }
+            sink.close(); // mitten im Senden
+            for (Thread t : senders) t.join();
+            assertEquals(800, delivered.get() + sink.dropped(), "Runde " + round);
+        }
+    }
+}
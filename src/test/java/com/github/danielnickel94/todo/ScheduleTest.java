@@ -0,0 +1,160 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleTest {
+
+    private static final Instant BASE = Instant.parse("2026-10-20T07:00:00Z");
+
+    @Test
+    void nextDueAndTopByPriority_shouldMatchFullSort() {
+        var s = new TodoService();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int id = s.add("t" + i);
+            if (rnd.nextInt(3) > 0) s.setDue(id, BASE.plusSeconds(rnd.nextInt(100) * 60L));
+            if (rnd.nextBoolean()) s.setPriority(id, rnd.nextInt(Todo.MAX_PRIORITY + 1));
+            if (rnd.nextInt(5) == 0) s.markDone(id);
+            if (rnd.nextInt(7) == 0) s.remove(id);
+            if (rnd.nextInt(11) == 0) s.setDue(id, null);
+        }
+
+        List<Todo> open = s.listOpen();
+        List<Todo> byDue = open.stream().filter(t -> t.getDue() != null)
+                .sorted(Comparator.comparing(Todo::getDue).thenComparingInt(Todo::getId)).toList();
+        List<Todo> byPrio = open.stream().filter(t -> t.getPriority() > 0)
+                .sorted(Comparator.comparingInt(Todo::getPriority).reversed().thenComparingInt(Todo::getId)).toList();
+
+        assertEquals(byDue.subList(0, 50), s.nextDue(50));
+        assertEquals(byPrio.subList(0, 50), s.topByPriority(50));
+        assertEquals(byDue, s.nextDue(Integer.MAX_VALUE));
+        Instant until = BASE.plusSeconds(10 * 60);
+        assertEquals(byDue.stream().filter(t -> !t.getDue().isAfter(until)).toList(), s.dueBefore(until, 10_000));
+        assertThrows(IllegalArgumentException.class, () -> s.setPriority(1, Todo.MAX_PRIORITY + 1));
+        assertThrows(IllegalArgumentException.class, () -> s.nextDue(-1));
+    }
+
+    @Test
+    void schedule_shouldSurviveCsvSnapshotJournalAndOffHeap(@TempDir Path tmp) throws Exception {
+        var s = new TodoService();
+        int a = s.add("Zahnarzt");
+        s.setDue(a, Todo.parseDue("20.10.2026 14:30"));
+        s.setPriority(a, 7);
+        s.add("ohne Termin");
+        int c = s.add("nur wichtig");
+        s.setPriority(c, 2);
+        s.markDone(c);
+        List<Todo> expected = s.list();
+        assertEquals(List.of(s.list().get(0)), s.nextDue(10));
+        assertTrue(s.topByPriority(10).stream().noneMatch(Todo::isDone));
+
+        for (String name : List.of("t.csv", "t" + BinarySnapshot.EXTENSION)) {
+            String file = tmp.resolve(name).toString();
+            assertTrue(s.save(file));
+            var loaded = new TodoService();
+            assertTrue(loaded.load(file), name);
+            assertEquals(expected, loaded.list(), name);
+            assertEquals(s.nextDue(10), loaded.nextDue(10), name);
+            assertEquals(s.topByPriority(10), loaded.topByPriority(10), name);
+        }
+
+        String csv = tmp.resolve("j.csv").toString();
+        try (TodoJournal journal = TodoJournal.open(new TodoService(), csv)) {
+            journal.flush();
+        }
+        var journaled = new TodoService();
+        try (TodoJournal journal = TodoJournal.open(journaled, csv)) {
+            int id = journaled.add("Steuer");
+            journaled.setDue(id, BASE);
+            journaled.setPriority(id, 9);
+            journal.flush();
+        }
+        var replayed = new TodoService();
+        try (TodoJournal journal = TodoJournal.open(replayed, csv)) {
+            assertEquals(journaled.list(), replayed.list());
+            assertEquals(List.of(replayed.list().get(0)), replayed.topByPriority(5));
+        }
+
+        Path mapped = tmp.resolve("t" + OffHeapTodoStore.EXTENSION);
+        try (OffHeapTodoStore store = OffHeapTodoStore.open(mapped)) {
+            var off = new TodoService(store);
+            int id = off.add("Termin");
+            off.setDue(id, BASE);
+            off.setPriority(id, 4);
+        }
+        try (OffHeapTodoStore store = OffHeapTodoStore.open(mapped)) {
+            var off = new TodoService(store);
+            assertEquals(List.of(new Todo(1, "Termin", false, BASE, 4)), off.list());
+            assertEquals(off.list(), off.nextDue(1));
+        }
+    }
+
+    @Test
+    void reminders_shouldFireOnceWhenDueButNotForDoneTodos() throws Exception {
+        var s = new ConcurrentTodoService();
+        int overdue = s.add("überfällig");
+        s.setDue(overdue, Instant.now().minusSeconds(60));
+        int undone = s.add("wird vorher erledigt");
+        s.setDue(undone, Instant.now().plusMillis(500));
+
+        BlockingQueue<Todo> fired = new LinkedBlockingQueue<>();
+        try (ReminderScheduler reminders = new ReminderScheduler(s, fired::add)) {
+            assertEquals(overdue, fired.poll(2, TimeUnit.SECONDS).getId()); // sofort beim Start
+
+            s.markDone(undone);
+            int soon = s.add("gleich");
+            s.setDue(soon, Instant.now().plusMillis(200));
+            s.updateText(soon, "gleich fällig");
+            Todo t = fired.poll(2, TimeUnit.SECONDS);
+            assertEquals("gleich fällig", t.getText());
+
+            assertNull(fired.poll(400, TimeUnit.MILLISECONDS)); // das erledigte nicht
+            assertEquals(0, reminders.pending());
+
+            int later = s.add("später");
+            s.setDue(later, Instant.now().plusSeconds(3600));
+            assertEquals(1, reminders.pending());
+        }
+        List<Todo> rest = new ArrayList<>();
+        fired.drainTo(rest);
+        assertEquals(List.of(), rest);
+    }
+
+    @Test
+    void reminder_shouldNotRepeatWhenOnlyPriorityOrTextOfOverdueTodoChanges(@TempDir Path tmp) throws Exception {
+        var s = new ConcurrentTodoService();
+        int id = s.add("überfällig");
+        Instant due = Instant.now().minusSeconds(60);
+        s.setDue(id, due);
+
+        BlockingQueue<Todo> fired = new LinkedBlockingQueue<>();
+        try (ReminderScheduler reminders = new ReminderScheduler(s, fired::add)) {
+            assertEquals(id, fired.poll(2, TimeUnit.SECONDS).getId());
+
+            s.setPriority(id, 5);
+            s.setDue(id, due); // gleicher Termin
+            s.updateText(id, "immer noch überfällig");
+            String file = tmp.resolve("t.csv").toString();
+            assertTrue(s.save(file));
+            assertTrue(s.load(file)); // unverändert neu geladen
+            assertNull(fired.poll(300, TimeUnit.MILLISECONDS));
+            assertEquals(0, reminders.pending());
+
+            s.setDue(id, due.plusSeconds(1)); // neuer Termin → neue Erinnerung
+            assertEquals(5, fired.poll(2, TimeUnit.SECONDS).getPriority());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptRunnerTest {
+
+    @Test
+    void run_shouldExecuteCommandsAndSaveOnce() throws IOException {
+        var s = new TodoService();
+        AtomicInteger saves = new AtomicInteger();
+        var out = new StringWriter();
+        String script = """
+                # Wocheneinkauf
+                add Einkaufen
+                add Müll raus
+                done 1
+                update 2 Müll rausbringen
+                list open
+                count
+                """;
+
+        int errors = new ScriptRunner(s, saves::incrementAndGet, out).run(new BufferedReader(new StringReader(script)));
+
+        assertEquals(0, errors);
+        assertEquals("1\n2\nok\nok\n[ ] #2 Müll rausbringen\n1 offen, 1 erledigt\n", out.toString());
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    void run_shouldReportErrorsWithLineNumbersAndContinue() throws IOException {
+        var s = new TodoService();
+        AtomicInteger saves = new AtomicInteger();
+        var out = new StringWriter();
+        String script = "remove 7\nfoo\ndone x\nadd Putzen\n";
+
+        int errors = new ScriptRunner(s, saves::incrementAndGet, out).run(new BufferedReader(new StringReader(script)));
+
+        assertEquals(3, errors);
+        assertEquals("""
+                Fehler in Zeile 1: ID nicht gefunden: 7
+                Fehler in Zeile 2: Unbekannter Befehl: foo
+                Fehler in Zeile 3: Ungültige ID: x
+                1
+                """, out.toString());
+        assertEquals(1, s.list().size());
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    void run_withoutChanges_shouldNotSave() throws IOException {
+        var s = new TodoService();
+        s.add("Lesen");
+        AtomicInteger saves = new AtomicInteger();
+        var out = new StringWriter();
+
+        new ScriptRunner(s, saves::incrementAndGet, out).run(new BufferedReader(new StringReader("search les\nsort desc\n")));
+
+        assertEquals("[ ] #1 Lesen\n[ ] #1 Lesen\n", out.toString());
+        assertEquals(0, saves.get());
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoHttpServerTest {
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void endpoints_shouldChangeAndListTodos() throws Exception {
+        var service = new ConcurrentTodoService();
+        AtomicInteger saves = new AtomicInteger();
+        try (var server = new TodoHttpServer(service, saves::incrementAndGet,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).start()) {
+            String base = "http://localhost:" + server.port() + "/todos";
+
+            var created = send(post(base, "{\"text\": \"Müll \\\"raus\\\"\\n 🚮\"}"));
+            assertEquals(201, created.statusCode());
+            assertEquals("{\"id\":1}", created.body());
+            assertEquals(201, send(post(base, "{\"text\":\"Einkaufen\",\"prio\":3}")).statusCode());
+            assertEquals("Müll \"raus\"\n 🚮", service.list().get(0).getText());
+
+            assertEquals(204, send(post(base + "/2/done", "")).statusCode());
+            assertEquals(204, send(HttpRequest.newBuilder(URI.create(base + "/1"))
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"text\":\"Müll\\u0009raus\"}")).build()).statusCode());
+            assertEquals("[{\"id\":1,\"text\":\"Müll\\traus\",\"done\":false},{\"id\":2,\"text\":\"Einkaufen\",\"done\":true}]",
+                    send(get(base)).body());
+            assertEquals("[{\"id\":2,\"text\":\"Einkaufen\",\"done\":true}]", send(get(base + "?status=done")).body());
+            assertEquals("[{\"id\":1,\"text\":\"Müll\\traus\",\"done\":false}]", send(get(base + "?q=m%C3%BCll&limit=5")).body());
+
+            assertEquals(204, send(HttpRequest.newBuilder(URI.create(base + "/1")).DELETE().build()).statusCode());
+            assertEquals(404, send(HttpRequest.newBuilder(URI.create(base + "/1")).DELETE().build()).statusCode());
+            assertEquals(1, service.list().size());
+            assertEquals(5, saves.get()); // je erfolgreicher Änderung einmal, das fehlgeschlagene DELETE nicht
+        }
+    }
+
+    @Test
+    void changes_shouldReturnOnlyNewDeltas() throws Exception {
+        var service = new ConcurrentTodoService();
+        try (var server = new TodoHttpServer(service, () -> { },
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).start()) {
+            String base = "http://localhost:" + server.port();
+            service.add("Einkaufen");
+            var all = send(get(base + "/todos"));
+            String seq = all.headers().firstValue("X-Sequence").orElseThrow();
+            assertEquals("1", seq);
+
+            service.markDone(1);
+            service.add("Tab\tx");
+            assertEquals("{\"sequence\":3,\"changes\":[{\"seq\":2,\"type\":\"done\",\"id\":1},"
+                            + "{\"seq\":3,\"type\":\"added\",\"id\":2,\"text\":\"Tab\\tx\",\"done\":false}]}",
+                    send(get(base + "/changes?after=" + seq)).body());
+            assertEquals("{\"sequence\":3,\"changes\":[]}", send(get(base + "/changes?after=3")).body());
+            assertEquals(400, send(get(base + "/changes?after=9")).statusCode());
+        }
+    }
+
+    @Test
+    void badRequests_shouldBeRejected() throws Exception {
+        try (var server = new TodoHttpServer(new ConcurrentTodoService(), () -> { },
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).start()) {
+            String base = "http://localhost:" + server.port() + "/todos";
+            assertEquals(400, send(post(base, "{\"text\":\"   \"}")).statusCode());
+            assertEquals(400, send(post(base, "{\"titel\":\"x\"}")).statusCode());
+            assertEquals(400, send(post(base, "{\"text\":5}")).statusCode());
+            assertEquals(400, send(post(base, "{\"text\":true}")).statusCode());
+            assertEquals(201, send(post(base, "{\"text\":\"ok\",\"extra\":5}")).statusCode());
+            var broken = send(post(base, "{\"text\":\"x\""));
+            assertEquals(400, broken.statusCode());
+            assertTrue(broken.body().startsWith("{\"error\":\"Ungültiges JSON"), broken.body());
+            assertEquals(400, send(get(base + "?status=egal")).statusCode());
+            assertEquals(400, send(get(base + "?sort=up")).statusCode());
+            assertEquals(200, send(get(base + "?sort=desc")).statusCode());
+            assertEquals(404, send(get(base + "X")).statusCode());
+            assertEquals(404, send(post(base + "X/1/done", "")).statusCode());
+            assertEquals(404, send(post(base + "/abc/done", "")).statusCode());
+            assertEquals(405, send(HttpRequest.newBuilder(URI.create(base)).DELETE().build()).statusCode());
+        }
+    }
+
+    @Test
+    void jsonWriter_shouldEscapeControlCharacters() throws IOException {
+        var out = new StringWriter();
+        new JsonWriter(out).beginObject()
+                .name("a").value("x\u0001\u2028\\")
+                .name("n").value(Long.MIN_VALUE)
+                .name("l").beginArray().value(-12).value(true).value((String) null).endArray()
+                .endObject();
+        assertEquals("{\"a\":\"x\\u0001\\u2028\\\\\",\"n\":-9223372036854775808,\"l\":[-12,true,null]}", out.toString());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+}
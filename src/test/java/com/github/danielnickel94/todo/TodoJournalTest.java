@@ -0,0 +1,140 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoJournalTest {
+
+    @Test
+    void reopen_shouldReplaySnapshotAndLog(@TempDir Path tmp) throws Exception {
+        String file = tmp.resolve("todos.csv").toString();
+
+        var s1 = new TodoService();
+        try (var journal = TodoJournal.open(s1, file)) {
+            int a = s1.add("Einkaufen");
+            int b = s1.add("Müll rausbringen;\nsofort");
+            s1.add("Putzen");
+            s1.markDone(a);
+            s1.updateText(a, "Einkaufen (Markt)");
+            s1.remove(b);
+            journal.flush();
+        }
+        assertTrue(Files.size(tmp.resolve("todos.csv.log")) > 0);
+
+        var s2 = new TodoService();
+        try (var ignored = TodoJournal.open(s2, file)) {
+            var list = s2.list();
+            assertEquals(2, list.size());
+            assertEquals("Einkaufen (Markt)", list.get(0).getText());
+            assertTrue(list.get(0).isDone());
+            assertEquals("Putzen", list.get(1).getText());
+            assertEquals(4, s2.add("Neu")); // IDs laufen weiter
+        }
+    }
+
+    @Test
+    void compaction_shouldRotateLogAndWriteSnapshot(@TempDir Path tmp) throws Exception {
+        String file = tmp.resolve("todos.csv").toString();
+
+        var s1 = new TodoService();
+        try (var journal = TodoJournal.open(s1, file, 256)) {
+            for (int i = 0; i < 100; i++) {
+                s1.add("Aufgabe " + i);
+                journal.flush();
+            }
+            journal.awaitCompaction();
+        }
+        assertTrue(Files.exists(tmp.resolve("todos.csv")));
+        assertFalse(Files.exists(tmp.resolve("todos.csv.log.old")));
+        assertTrue(Files.size(tmp.resolve("todos.csv.log")) < 256);
+
+        var s2 = new TodoService();
+        try (var ignored = TodoJournal.open(s2, file)) {
+            assertEquals(100, s2.list().size());
+        }
+    }
+
+    @Test
+    void replay_shouldIgnoreTornLastRecord(@TempDir Path tmp) throws Exception {
+        Path log = tmp.resolve("todos.csv.log");
+        Files.writeString(log, "A;1;false;Ganz\nA;2;false;Halb", StandardOpenOption.CREATE);
+
+        var s = new TodoService();
+        try (var ignored = TodoJournal.open(s, tmp.resolve("todos.csv").toString())) {
+            assertEquals(List.of("Ganz"), s.list().stream().map(Todo::getText).toList());
+        }
+    }
+
+    @Test
+    void load_shouldBeJournaledAsFullReplacement(@TempDir Path tmp) throws Exception {
+        Path other = tmp.resolve("other.csv");
+        Files.writeString(other, "10;true;Importiert\n");
+        String file = tmp.resolve("todos.csv").toString();
+
+        var s1 = new TodoService();
+        try (var journal = TodoJournal.open(s1, file)) {
+            s1.add("Alt");
+            assertTrue(s1.load(other.toString()));
+            journal.flush();
+        }
+
+        var s2 = new TodoService();
+        try (var ignored = TodoJournal.open(s2, file)) {
+            var list = s2.list();
+            assertEquals(1, list.size());
+            assertEquals(10, list.get(0).getId());
+            assertTrue(list.get(0).isDone());
+        }
+    }
+
+    @Test
+    void checkpoint_shouldLetReloadingOwnFileKeepLoggedEdits(@TempDir Path tmp) throws Exception {
+        String file = tmp.resolve("todos.csv").toString();
+        var s1 = new TodoService();
+        try (var journal = TodoJournal.open(s1, file)) {
+            s1.add("Nur im Log");
+            journal.flush();
+            assertTrue(Files.size(tmp.resolve("todos.csv.log")) > 0);
+
+            assertTrue(journal.checkpoint()); // wie das Menü „Laden“ im Journal-Modus
+            assertEquals(0, Files.size(tmp.resolve("todos.csv.log")));
+            assertTrue(s1.load(file));
+            assertEquals(List.of("Nur im Log"), s1.list().stream().map(Todo::getText).toList());
+            s1.add("Danach");
+            journal.flush();
+        }
+
+        var s2 = new TodoService();
+        try (var ignored = TodoJournal.open(s2, file)) {
+            assertEquals(List.of("Nur im Log", "Danach"), s2.list().stream().map(Todo::getText).toList());
+        }
+    }
+
+    @Test
+    void compactionFailure_shouldReachPersistenceListeners(@TempDir Path tmp) throws Exception {
+        String file = tmp.resolve("todos.csv").toString();
+        var s = new TodoService();
+        List<PersistenceResult> failures = new CopyOnWriteArrayList<>();
+        s.addPersistenceListener(r -> { if (!r.ok()) failures.add(r); });
+        try (var journal = TodoJournal.open(s, file, 1)) {
+            Path old = Files.createDirectories(tmp.resolve("todos.csv.log.old"));
+            Files.writeString(old.resolve("blockiert"), "x"); // .old lässt sich nach dem Snapshot nicht löschen
+            s.add("Aufgabe");
+            journal.flush();
+            journal.awaitCompaction(); // Fehler kommt aus dem Kompaktierungs-Thread
+            assertEquals(1, failures.size());
+            assertEquals(TodoMetrics.Operation.SAVE, failures.get(0).operation());
+            assertEquals(old, failures.get(0).path());
+            assertTrue(failures.get(0).error().startsWith("Journal nicht kompaktiert"), failures.get(0).error());
+            assertEquals(1, s.metrics().ioFailures());
+        }
+    }
+}
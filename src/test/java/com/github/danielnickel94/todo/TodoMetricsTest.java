@@ -0,0 +1,81 @@
+package com.github.danielnickel94.todo;
+
+import com.github.danielnickel94.todo.TodoMetrics.Operation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoMetricsTest {
+
+    @Test
+    void histogram_shouldStayWithinRelativeError() {
+        var h = new LatencyHistogram();
+        for (long v = 1; v <= 1_000_000; v++) h.record(v);
+        var s = h.snapshot();
+        assertEquals(1_000_000, s.count());
+        assertEquals(1_000_000, s.maxNanos());
+        assertEquals(500_000.5, s.meanNanos(), 1e-6);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            double exact = p / 100 * 1_000_000;
+            assertEquals(exact, s.percentile(p), exact * 0.032, "p" + p);
+        }
+        for (long v : new long[]{0, 31, 32, 63, 64, 1000, Long.MAX_VALUE}) {
+            int b = LatencyHistogram.bucket(v);
+            assertTrue(LatencyHistogram.upperBound(b) >= v, "Obergrenze " + v);
+            assertTrue(b == 0 || LatencyHistogram.upperBound(b - 1) < v, "Untergrenze " + v);
+        }
+    }
+
+    @Test
+    void service_shouldCountOperationsAndBytes(@TempDir Path tmp) throws IOException {
+        var s = new TodoService();
+        s.add("Einkaufen");
+        s.add("Putzen");
+        s.markDone(1);
+        s.search("kauf");
+        s.sortByText(true); // Überladung zählt nur einmal
+        Path file = tmp.resolve("todos.csv");
+        assertTrue(s.save(file.toString()));
+        assertTrue(s.load(file.toString()));
+        assertFalse(s.load(tmp.resolve("fehlt.csv").toString()));
+
+        var m = s.metrics();
+        assertEquals(2, m.count(Operation.ADD));
+        assertEquals(1, m.count(Operation.MARK_DONE));
+        assertEquals(1, m.count(Operation.SEARCH));
+        assertEquals(1, m.count(Operation.SORT));
+        assertEquals(1, m.count(Operation.SAVE));
+        assertEquals(2, m.count(Operation.LOAD));
+        assertEquals(1, m.ioFailures());
+        long size = Files.size(file);
+        assertEquals(size, m.bytesWritten());
+        assertEquals(size, m.bytesRead());
+        assertTrue(m.report().contains("mark_done"));
+
+        m.reset();
+        assertEquals(0, m.count(Operation.ADD));
+    }
+
+    @Test
+    void register_shouldExposeMBeans() throws Exception {
+        var s = new TodoService();
+        assertTrue(s.metrics().register("test"));
+        try {
+            s.add("x");
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName("com.github.danielnickel94.todo:type=TodoService,name=\"test\",operation=add");
+            assertEquals(1L, server.getAttribute(name, "Count"));
+            assertFalse(new TodoService().metrics().register("test"), "Name ist schon vergeben");
+            assertEquals(1L, server.getAttribute(name, "Count")); // erste Anmeldung bleibt bestehen
+        } finally {
+            s.metrics().unregister();
+        }
+    }
+}
@@ -92,6 +92,106 @@ class TodoServiceTest {
         assertThrows(UnsupportedOperationException.class, () -> view.add(new Todo(99, "hack", false)));
     }
 
+    @Test
+    void remove_many_shouldKeepOrderAndLookups() {
+        var s = new TodoService();
+        for (int i = 1; i <= 1000; i++) s.add("T" + i);
+        for (int i = 1; i <= 1000; i++) if (i % 3 != 0) assertTrue(s.remove(i));
+
+        var ids = s.list().stream().map(Todo::getId).toList();
+        assertEquals(333, ids.size());
+        assertEquals(3, ids.get(0));
+        assertEquals(999, ids.get(ids.size() - 1));
+        assertTrue(s.markDone(600));
+        assertTrue(s.updateText(999, "Neu"));
+        assertFalse(s.remove(1));
+        assertEquals("Neu", s.list().get(332).getText());
+    }
+
+    @Test
+    void list_shouldBeSnapshot_unaffectedByLaterChanges() {
+        var s = new TodoService();
+        int a = s.add("A");
+        s.add("B");
+        var snapshot = s.list();
+
+        s.updateText(a, "A2");
+        s.markDone(a);
+        s.remove(2);
+        s.add("C");
+
+        assertEquals(List.of(new Todo(1, "A", false), new Todo(2, "B", false)), snapshot);
+        assertEquals(List.of(new Todo(1, "A2", true), new Todo(3, "C", false)), s.list());
+    }
+
+    @Test
+    void todo_withMethods_shouldReturnNewVersions() {
+        var t = new Todo(1, "Alt");
+        var u = t.withText("Neu").withDone(true);
+        assertEquals("Alt", t.getText());
+        assertFalse(t.isDone());
+        assertEquals(new Todo(1, "Neu", true), u);
+        assertSame(u, u.withDone(true));
+    }
+
+    @Test
+    void batch_shouldNotifyListenersOnceAtTheEnd() {
+        var s = new TodoService();
+        List<String> events = new java.util.ArrayList<>();
+        s.addListener(new RecordingListener(events));
+
+        s.batch(m -> {
+            int a = m.add("A");
+            m.add("B");
+            m.markDone(a);
+            assertTrue(events.isEmpty()); // noch nichts gemeldet
+        });
+        assertEquals(List.of("added 1", "added 2", "done 1"), events);
+    }
+
+    @Test
+    void batch_shouldRollBackOnFailure() {
+        var s = new TodoService();
+        int keep = s.add("Bleib da");
+        List<String> events = new java.util.ArrayList<>();
+        s.addListener(new RecordingListener(events));
+
+        assertThrows(IllegalArgumentException.class, () -> s.batch(m -> {
+            m.markDone(keep);
+            m.updateText(keep, "geändert");
+            m.add("neu");
+            m.add("  "); // ungültig → alles zurück
+        }));
+
+        assertEquals(List.of(new Todo(keep, "Bleib da", false)), s.list());
+        assertEquals(1, s.countOpen());
+        assertEquals(1, s.search("bleib").size());
+        assertTrue(events.isEmpty());
+        assertEquals(2, s.add("danach"));
+    }
+
+    @Test
+    void bulkMethods_shouldApplyAll() {
+        var s = new TodoService();
+        int[] ids = s.addAll(List.of("A", "B", "C", "D"));
+        assertArrayEquals(new int[]{1, 2, 3, 4}, ids);
+        assertEquals(2, s.markDone(1, 3, 99));
+        assertEquals(2, s.removeAll(id -> id % 2 == 0));
+        assertEquals(List.of(1, 3), s.list().stream().map(Todo::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> s.addAll(List.of("E", "")));
+        assertEquals(2, s.list().size());
+    }
+
+    /** Zeichnet Listener-Aufrufe als Text auf. */
+    private record RecordingListener(List<String> events) implements ChangeListener {
+        public void added(Todo todo) { events.add("added " + todo.getId()); }
+        public void textUpdated(int id, String text) { events.add("text " + id); }
+        public void markedDone(int id) { events.add("done " + id); }
+        public void scheduled(Todo todo) { events.add("scheduled " + todo.getId()); }
+        public void removed(int id) { events.add("removed " + id); }
+        public void loaded(List<Todo> todos) { events.add("loaded " + todos.size()); }
+    }
+
     /* ======= Komfortfunktionen (falls in deinem Service vorhanden) ======= */
     // Falls du listOpen(), search(), sortByText() bereits hinzugefügt hast,
     // sind diese Tests aktiv; sonst kannst du sie vorerst auskommentieren.
@@ -111,6 +211,31 @@ class TodoServiceTest {
         assertTrue(open.stream().map(Todo::getId).toList().containsAll(List.of(a, b)));
     }
 
+    @Test
+    void counters_andListDone_shouldFollowAllMutations(@TempDir Path tmp) {
+        var s = new TodoService();
+        int a = s.add("A");
+        int b = s.add("B");
+        int c = s.add("C");
+        s.markDone(a);
+        s.markDone(a); // zweimal erledigen zählt nur einmal
+        s.markDone(c);
+        s.remove(c);
+        s.add("D");
+
+        assertEquals(2, s.countOpen());
+        assertEquals(1, s.countDone());
+        assertEquals(List.of(a), s.listDone().stream().map(Todo::getId).toList());
+        assertEquals(List.of(b, 4), s.listOpen().stream().map(Todo::getId).toList());
+
+        Path file = tmp.resolve("status.csv");
+        assertTrue(s.save(file.toString()));
+        var s2 = new TodoService();
+        assertTrue(s2.load(file.toString()));
+        assertEquals(2, s2.countOpen());
+        assertEquals(1, s2.countDone());
+    }
+
     @Test
     void search_shouldBeCaseInsensitive_andTrimInput() {
         var s = new TodoService();
@@ -128,6 +253,33 @@ class TodoServiceTest {
         assertEquals(3, r3.size()); // null => nichts filtern
     }
 
+    @Test
+    void search_shouldFollowUpdateAndRemove() {
+        var s = new TodoService();
+        int a = s.add("Müll rausbringen");
+        int b = s.add("Wäsche waschen");
+        s.add("Einkaufen");
+
+        assertEquals(List.of(a), s.search("MÜLL").stream().map(Todo::getId).toList());
+        assertTrue(s.updateText(a, "Keller aufräumen"));
+        assertTrue(s.search("müll").isEmpty());
+        assertEquals(1, s.search("räum").size());
+
+        assertTrue(s.remove(b));
+        assertTrue(s.search("wäsche").isEmpty());
+        assertEquals(1, s.search("ka").size()); // kürzer als ein Trigramm
+    }
+
+    @Test
+    void search_shouldReturnMatchesInListOrder(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("order.csv");
+        Files.writeString(file, "7;false;Brot backen\n2;false;Brot kaufen\n5;true;Milch\n");
+        var s = new TodoService();
+        assertTrue(s.load(file.toString()));
+
+        assertEquals(List.of(7, 2), s.search("brot").stream().map(Todo::getId).toList());
+    }
+
     @Test
     void sortByText_shouldSortAscAndDescIgnoringCase() {
         var s = new TodoService();
@@ -142,6 +294,24 @@ class TodoServiceTest {
         assertEquals(List.of("brot kaufen", "Auto tanken", "Abwaschen"), desc);
     }
 
+    @Test
+    void sortByText_shouldFollowUpdatesAndSupportPaging() {
+        var s = new TodoService();
+        s.add("delta");
+        int b = s.add("Bravo");
+        s.add("charlie");
+        int a = s.add("ALPHA");
+        s.updateText(b, "echo");
+        s.remove(a);
+
+        var asc = s.sortByText(true).stream().map(Todo::getText).toList();
+        assertEquals(List.of("charlie", "delta", "echo"), asc);
+
+        var page = s.sortByText(false, 1, 5).stream().map(Todo::getText).toList();
+        assertEquals(List.of("delta", "charlie"), page);
+        assertTrue(s.sortByText(true, 10, 5).isEmpty());
+    }
+
     /* ====================== Persistenz (CSV) ====================== */
 
     @Test
@@ -199,6 +369,295 @@ class TodoServiceTest {
         assertTrue(s.list().isEmpty());
     }
 
+    @Test
+    void saveAndLoad_binarySnapshot_shouldPersistTodos(@TempDir Path tmp) {
+        Path file = tmp.resolve("todos.tdb");
+        var s1 = new TodoService();
+        s1.add("Müll rausbringen");
+        int b = s1.add("Straße fegen ✔");
+        int c = s1.add("weg");
+        s1.markDone(b);
+        s1.remove(c);
+        assertTrue(s1.save(file.toString()));
+
+        var s2 = new TodoService();
+        assertTrue(s2.load(file.toString()));
+        var list = s2.list();
+        assertEquals(2, list.size());
+        assertEquals("Straße fegen ✔", list.get(1).getText());
+        assertTrue(list.get(1).isDone());
+        assertEquals(4, s2.add("Neu")); // nextId aus dem Snapshot, gelöschte ID 3 wird nicht wiederverwendet
+        assertEquals(1, s2.search("müll").size());
+    }
+
+    @Test
+    void load_corruptBinarySnapshot_shouldKeepOldState(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("kaputt.tdb");
+        var s1 = new TodoService();
+        s1.add("A");
+        assertTrue(s1.save(file.toString()));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 1)); // Text abgeschnitten
+
+        var s2 = new TodoService();
+        s2.add("Bleib da");
+        assertFalse(s2.load(file.toString()));
+        assertEquals("Bleib da", s2.list().get(0).getText());
+    }
+
+    @Test
+    void importCsv_shouldReportBadLinesAndKeepGoodOnes(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("import.csv");
+        Files.writeString(file, "\uFEFF1;false;Einkaufen\r\n"
+                + "kaputt\n"
+                + "x;true;keine Zahl\n"
+                + "\n"
+                + " 7 ; TRUE ;Text; mit Semikolon\n"
+                + "1;false;doppelt\n"
+                + "3;false;");
+
+        var s = new TodoService();
+        s.add("wird ersetzt");
+        ImportReport r = s.importCsv(file.toString());
+
+        assertTrue(r.ok());
+        assertEquals(7, r.lines());
+        assertEquals(3, r.imported());
+        assertEquals(List.of(2L, 3L, 6L), r.errors().stream().map(ImportReport.LineError::line).toList());
+        assertEquals(List.of(new Todo(1, "Einkaufen", false), new Todo(7, "Text; mit Semikolon", true),
+                new Todo(3, "", false)), s.list());
+        assertEquals(8, s.add("weiter"));
+    }
+
+    @Test
+    void importCsv_parallelChunks_shouldMatchSequentialLoad(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("gross.csv");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) sb.append(i).append(';').append(i % 3 == 0).append(";Aufgabe Nr. ").append(i).append(" – Größe\n");
+        Files.writeString(file, sb);
+
+        var sequential = new TodoService();
+        assertTrue(sequential.load(file.toString()));
+        CsvImporter.Result r = new CsvImporter(1024, java.util.concurrent.ForkJoinPool.commonPool()).read(file);
+
+        assertTrue(r.errors().isEmpty());
+        assertEquals(5000, r.lines());
+        assertEquals(sequential.list(), r.state().todos());
+    }
+
+    @Test
+    void load_csv_shouldSkipBadLinesLikeImportAndReportThem(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("todos.csv");
+        Files.writeString(file, "\uFEFF1;false;Einkaufen\n"
+                + "kaputt\n"
+                + "x;true;keine Zahl\n"
+                + "1;false;doppelt\n"
+                + "2;true;Kochen\n");
+        var s = new TodoService();
+        List<PersistenceResult> results = new java.util.ArrayList<>();
+        s.addPersistenceListener(results::add);
+
+        assertTrue(s.load(file.toString()));
+
+        assertEquals(List.of(new Todo(1, "Einkaufen", false), new Todo(2, "Kochen", true)), s.list());
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).ok());
+        assertFalse(results.get(1).ok());
+        assertTrue(results.get(1).error().startsWith("3 Zeilen übersprungen (Zeile 2: "), results.get(1).error());
+        assertThrows(java.io.IOException.class, () -> TodoService.read(file));
+    }
+
+    @Test
+    void importCsv_shouldAcceptCrAndCrLfAcrossChunkBorders(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("zeilenenden.csv");
+        StringBuilder sb = new StringBuilder();
+        String[] endings = {"\r\n", "\r", "\n"};
+        for (int i = 1; i <= 300; i++) sb.append(i).append(";false;Aufgabe ").append(i).append(endings[i % 3]);
+        Files.writeString(file, sb);
+
+        for (int chunk = 1; chunk <= 40; chunk++) { // jede Lage der Bereichsgrenze, auch zwischen \r und \n
+            CsvImporter.Result r = new CsvImporter(chunk, java.util.concurrent.ForkJoinPool.commonPool()).read(file);
+            assertEquals(List.of(), r.errors(), "chunk " + chunk);
+            assertEquals(300, r.lines(), "chunk " + chunk);
+            assertEquals(new Todo(300, "Aufgabe 300", false), r.state().todos().get(299));
+        }
+    }
+
+    @Test
+    void importCsv_lineOver2Gb_shouldFailWithoutChangingState(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("riesig.csv");
+        try (var raf = new java.io.RandomAccessFile(file.toFile(), "rw")) {
+            raf.write("1;false;".getBytes());
+            raf.setLength(Integer.MAX_VALUE + 16L); // dünn besetzt: belegt kaum Platz
+        }
+        var s = new TodoService();
+        s.add("Bleib da");
+
+        ImportReport r = s.importCsv(file.toString());
+
+        assertFalse(r.ok());
+        assertTrue(r.failure().contains("2 GB"), r.failure());
+        assertEquals(1, s.list().size());
+    }
+
+    @Test
+    void importCsv_missingFile_shouldKeepOldState(@TempDir Path tmp) {
+        var s = new TodoService();
+        s.add("Bleib da");
+        ImportReport r = s.importCsv(tmp.resolve("fehlt.csv").toString());
+        assertFalse(r.ok());
+        assertNotNull(r.failure());
+        assertEquals(1, s.list().size());
+    }
+
+    /* ====================== Streams & Seiten ====================== */
+
+    @Test
+    void streams_shouldMatchMaterializedLists() {
+        var s = new TodoService();
+        for (int i = 0; i < 200; i++) s.add((i % 3 == 0 ? "Einkaufen " : "Putzen ") + i);
+        s.markDone(1, 4, 7);
+
+        assertEquals(s.list(), s.stream().toList());
+        assertEquals(s.listOpen(), s.streamOpen().toList());
+        assertEquals(s.listDone(), s.streamDone().toList());
+        assertEquals(s.sortByText(true), s.sortedStream(true).toList());
+        assertEquals(s.sortByText(false), s.sortedStream(false).toList());
+        for (String q : List.of("einkaufen", "putzen 1", "EN 19", "n", "xyz", "")) {
+            assertEquals(s.search(q), s.searchStream(q).toList(), q);
+        }
+    }
+
+    @Test
+    void stream_shouldBeSnapshotOfCallTime() {
+        var s = new TodoService();
+        s.add("A");
+        s.add("B");
+        var stream = s.searchStream("a");
+        s.remove(1);
+        s.add("AA");
+        assertEquals(List.of("A"), stream.map(Todo::getText).toList());
+    }
+
+    @Test
+    void page_shouldSliceInListOrder() {
+        var s = new TodoService();
+        for (int i = 1; i <= 10; i++) s.add("T" + i);
+        s.remove(3);
+
+        assertEquals(List.of("T1", "T2", "T4"), s.page(0, 3).stream().map(Todo::getText).toList());
+        assertEquals(List.of("T9", "T10"), s.page(7, 5).stream().map(Todo::getText).toList());
+        assertTrue(s.page(20, 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> s.page(-1, 5));
+    }
+
+    @Test
+    void pageAfter_shouldContinueAcrossRemovalsAndAppends() {
+        var s = new TodoService();
+        for (int i = 1; i <= 5; i++) s.add("T" + i);
+
+        TodoService.Page first = s.pageAfter(0, 2);
+        assertEquals(List.of(1, 2), first.items().stream().map(Todo::getId).toList());
+
+        s.remove(3); // nächster Eintrag der zweiten Seite verschwindet
+        s.add("T6");
+        TodoService.Page second = s.pageAfter(first.next(), 2);
+        assertEquals(List.of(4, 5), second.items().stream().map(Todo::getId).toList());
+
+        TodoService.Page last = s.pageAfter(second.next(), 2);
+        assertEquals(List.of(6), last.items().stream().map(Todo::getId).toList());
+        assertEquals(TodoService.NO_MORE, last.next());
+    }
+
+    /* ====================== Abfragen ====================== */
+
+    @Test
+    void query_shouldMatchNaiveFilterForAllPlans() {
+        queryMatchesNaiveFilter(new TodoService());
+        queryMatchesNaiveFilter(new TodoService(true));
+    }
+
+    private static void queryMatchesNaiveFilter(TodoService s) {
+        String[] words = {"Einkaufen", "einkaufen gehen", "Putzen", "Müll", "Steuer"};
+        for (int i = 0; i < 500; i++) s.add(words[i % words.length] + " " + (i % 37));
+        for (int id = 1; id <= 500; id += 3) s.markDone(id);
+        s.removeAll(id -> id % 11 == 0);
+
+        var queries = List.of(
+                TodoQuery.all(),
+                TodoQuery.all().open().containing("einkaufen").sortedByText(false).limit(50),
+                TodoQuery.all().done().limit(7),
+                TodoQuery.all().containing("üll 3").sortedByText(true),
+                TodoQuery.all().containing("st").idBetween(100, 140),
+                TodoQuery.all().idBetween(-5, 3).sortedByText(false),
+                TodoQuery.all().open().sortedByText(true).limit(5),
+                TodoQuery.all().containing("gibt es nicht"));
+        for (TodoQuery q : queries) {
+            var expected = s.list().stream().filter(q::test);
+            if (q.order() != TodoQuery.Order.INSERTION) {
+                var cmp = java.util.Comparator.comparing((Todo t) -> SortedIndex.collationKey(t.getText()))
+                        .thenComparingInt(Todo::getId);
+                expected = expected.sorted(q.order() == TodoQuery.Order.TEXT_ASC ? cmp : cmp.reversed());
+            }
+            assertEquals(expected.limit(q.limit()).toList(), s.query(q), q + " / " + s.explain(q));
+        }
+    }
+
+    @Test
+    void explain_shouldPickCheapestAccessPath() {
+        var s = new TodoService();
+        for (int i = 0; i < 1000; i++) s.add(i == 500 ? "Steuererklärung" : "Einkaufen " + i);
+        s.markDone(1, 2, 3);
+
+        assertTrue(s.explain(TodoQuery.all().containing("steuer")).startsWith("TEXT_INDEX"));
+        assertTrue(s.explain(TodoQuery.all().done()).startsWith("STATUS_BITS"));
+        assertTrue(s.explain(TodoQuery.all().idBetween(10, 20)).startsWith("ID_RANGE"));
+        assertTrue(s.explain(TodoQuery.all().open().sortedByText(false).limit(20)).startsWith("SORTED_VIEW"));
+        assertTrue(s.explain(TodoQuery.all().containing("steuer").sortedByText(true).limit(5)).contains("Top-5"));
+    }
+
+    /* ====================== Kompakter Modus ====================== */
+
+    @Test
+    void compact_shouldShareTextsAndShrinkPool() {
+        var s = new TodoService(true);
+        for (int i = 0; i < 1000; i++) s.add(new String(i % 2 == 0 ? "Einkaufen" : "Müll rausbringen"));
+        s.updateText(2, "Blumen gießen");
+
+        assertEquals(3, s.pooledTexts());
+        assertSame(s.list().get(0).getText(), s.list().get(998).getText());
+
+        s.remove(2);
+        assertEquals(2, s.pooledTexts()); // letzter Verweis weg → Eintrag weg
+        s.removeAll(id -> id % 2 == 0);
+        assertEquals(1, s.pooledTexts());
+    }
+
+    @Test
+    void compact_shouldBehaveLikeDefaultMode(@TempDir Path tmp) {
+        var plain = new TodoService();
+        var compact = new TodoService(true);
+        for (TodoService s : List.of(plain, compact)) {
+            for (int i = 0; i < 300; i++) s.add(i % 4 == 0 ? "einkaufen" : i % 4 == 1 ? "Einkaufen" : "Putzen " + i % 7);
+            s.markDone(2, 5, 9);
+            s.updateText(4, "EINKAUFEN");
+            s.removeAll(id -> id % 13 == 0);
+        }
+        for (String q : List.of("einkaufen", "kauf", "putzen 3", "n", "fehlt")) {
+            assertEquals(plain.search(q), compact.search(q), q);
+            assertEquals(plain.searchStream(q).toList(), compact.searchStream(q).toList(), q);
+        }
+        assertEquals(plain.sortByText(true), compact.sortByText(true));
+        assertEquals(plain.sortByText(false, 10, 25), compact.sortByText(false, 10, 25));
+
+        Path file = tmp.resolve("kompakt.csv");
+        assertTrue(compact.save(file.toString()));
+        var reloaded = new TodoService(true);
+        assertTrue(reloaded.load(file.toString()));
+        assertEquals(compact.list(), reloaded.list());
+        assertEquals(compact.sortByText(true), reloaded.sortByText(true));
+    }
+
     @Test
     void nextId_afterLoad_shouldContinueFromMaxId(@TempDir Path tmp) {
         var s1 = new TodoService();
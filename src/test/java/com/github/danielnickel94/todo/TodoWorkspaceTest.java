@@ -0,0 +1,104 @@
+package com.github.danielnickel94.todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoWorkspaceTest {
+
+    private static final long LARGE = 1L << 30;
+
+    @Test
+    void lists_shouldLoadLazilyAndSaveOnlyWhenChanged(@TempDir Path tmp) throws IOException {
+        try (var ws = new TodoWorkspace(tmp, LARGE)) {
+            ws.add("arbeit", "Bericht");
+            ws.add("privat", "Einkaufen");
+            assertTrue(ws.flush());
+        }
+        assertTrue(Files.exists(tmp.resolve("arbeit.tdb")));
+
+        var ws = new TodoWorkspace(tmp, LARGE);
+        List<PersistenceResult> saves = new CopyOnWriteArrayList<>();
+        ws.addPersistenceListener(saves::add);
+        assertEquals(List.of("arbeit", "privat"), ws.names());
+        assertEquals(0, ws.residentLists());
+
+        assertEquals("Bericht", ws.list("arbeit").get(0).getText());
+        assertEquals(1, ws.residentLists()); // „privat“ wurde nicht angefasst
+        ws.list("privat");
+        ws.withList("arbeit", s -> s.markDone(1));
+        assertTrue(ws.flush());
+        assertEquals(1, saves.size());
+        assertEquals(tmp.resolve("arbeit.tdb"), saves.get(0).path());
+        assertTrue(ws.flush());
+        assertEquals(1, saves.size()); // nichts mehr geändert
+
+        assertThrows(IllegalArgumentException.class, () -> ws.add("../raus", "x"));
+        assertTrue(ws.delete("privat"));
+        assertEquals(List.of("arbeit"), ws.names());
+    }
+
+    @Test
+    void coldLists_shouldBeEvictedAndSavedUnderBudget(@TempDir Path tmp) throws IOException {
+        var ws = new TodoWorkspace(tmp, 3 * TodoWorkspace.BYTES_PER_TODO);
+        ws.withList("a", s -> s.addAll(List.of("a1", "a2")));
+        assertEquals(1, ws.residentLists());
+        ws.withList("b", s -> s.addAll(List.of("b1", "b2")));
+
+        assertEquals(1, ws.residentLists()); // „a“ war am längsten unbenutzt
+        assertTrue(Files.exists(tmp.resolve("a.tdb")));
+        assertFalse(Files.exists(tmp.resolve("b.tdb")));
+        assertEquals(List.of("a1", "a2"), ws.list("a").stream().map(Todo::getText).toList());
+        assertTrue(Files.exists(tmp.resolve("b.tdb"))); // beim Laden von „a“ verdrängt
+    }
+
+    @Test
+    void search_shouldFanOutOverLoadedAndColdLists(@TempDir Path tmp) throws IOException {
+        try (var ws = new TodoWorkspace(tmp, LARGE)) {
+            ws.add("arbeit", "Müll im Büro");
+            ws.add("privat", "Müll rausbringen");
+            ws.add("privat", "Einkaufen");
+        }
+        Files.writeString(tmp.resolve("kaputt.tdb"), "keine Binärdatei");
+
+        var ws = new TodoWorkspace(tmp, LARGE);
+        ws.add("arbeit", "Müllabfuhr anrufen"); // geladen, nicht gespeichert
+        TodoWorkspace.SearchResult r = ws.search("MÜLL");
+
+        assertEquals(List.of("arbeit", "privat"), List.copyOf(r.hits().keySet()));
+        assertEquals(2, r.hits().get("arbeit").size());
+        assertEquals("Müll rausbringen", r.hits().get("privat").get(0).getText());
+        assertTrue(r.failed().containsKey("kaputt"));
+        assertEquals(1, ws.residentLists()); // die Suche lädt nichts dauerhaft
+        assertThrows(IllegalStateException.class, () -> ws.list("kaputt"));
+    }
+
+    @Test
+    void saving_shouldNotHoldTheWorkspaceLock(@TempDir Path tmp) throws IOException {
+        var ws = new TodoWorkspace(tmp, 3 * TodoWorkspace.BYTES_PER_TODO);
+        List<String> saved = new CopyOnWriteArrayList<>();
+        ws.addPersistenceListener(r -> {
+            // läuft im speichernden Thread; ein anderer Thread muss währenddessen an den Arbeitsbereich kommen
+            try {
+                CompletableFuture.supplyAsync(ws::residentLists).get(2, TimeUnit.SECONDS);
+                saved.add(r.path().getFileName().toString());
+            } catch (Exception e) {
+                saved.add("blockiert: " + r.path().getFileName());
+            }
+        });
+        ws.withList("a", s -> s.addAll(List.of("a1", "a2")));
+        ws.withList("b", s -> s.addAll(List.of("b1", "b2"))); // verdrängt „a“
+        assertTrue(ws.flush());
+        assertEquals(List.of("a.tdb", "b.tdb"), saved);
+        assertEquals(1, ws.residentLists());
+    }
+}